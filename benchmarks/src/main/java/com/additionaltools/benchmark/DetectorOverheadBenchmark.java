@@ -0,0 +1,95 @@
+package com.additionaltools.benchmark;
+
+import com.additionaltools.benchmark.overhead.BenchmarkApplication;
+import com.additionaltools.benchmark.overhead.OrderService;
+import com.additionaltools.benchmark.overhead.PurchaseOrder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput and allocation per transaction of a Spring Boot application on an embedded H2 database,
+ * with the detectors off ({@code detectors=none}) and on.
+ *
+ * <ul>
+ *     <li>{@code nplus1}: {@code TransactionAspect} and the transaction scoped Hibernate statistics,</li>
+ *     <li>{@code query-plan}: {@code SQLAppender} with DEBUG/TRACE Hibernate logging and the background
+ *     {@code ExecutionPlanAnalyzer},</li>
+ *     <li>{@code select-before-insert}: {@code JpaSaveMonitorAspect},</li>
+ *     <li>{@code all}: all of the above, writing the findings through {@code FileLoggingService}.</li>
+ * </ul>
+ *
+ * <p>The findings of a call site are reported once, so the file logging is measured by the
+ * {@link FileLoggingBenchmark}.</p>
+ *
+ * <p>Run with the GC profiler for the allocation per transaction ({@code gc.alloc.rate.norm}) and write the results
+ * as JSON to compare them between releases:</p>
+ * <pre>
+ * java -jar target/benchmarks.jar DetectorOverheadBenchmark -prof gc -rf json -rff detector-overhead.json
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DetectorOverheadBenchmark {
+
+    private static final long FIRST_SAVED_ORDER_ID = 1_000_000;
+
+    @Param({"none", "nplus1", "query-plan", "select-before-insert", "all"})
+    public String detectors;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private long nextOrderId = FIRST_SAVED_ORDER_ID;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(BenchmarkApplication.sources(detectors))
+                .properties(
+                        "spring.main.banner-mode=off",
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.open-in-view=false",
+                        "logging.threshold.console=WARN",
+                        "hiperanalyzer.logging.file=target/HiPerAnalyzerLogs.txt")
+                .run();
+        orderService = context.getBean(OrderService.class);
+        orderService.seed();
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteSavedOrders() {
+        orderService.deleteOrdersFrom(FIRST_SAVED_ORDER_ID);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int readTransaction() {
+        return orderService.readOrderLines();
+    }
+
+    @Benchmark
+    public PurchaseOrder saveTransaction() {
+        return orderService.saveOrder(nextOrderId++);
+    }
+}
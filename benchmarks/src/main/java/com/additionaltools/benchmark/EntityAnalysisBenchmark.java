@@ -0,0 +1,158 @@
+package com.additionaltools.benchmark;
+
+import com.additionaltools.common.EntityBytecodeAnalyzer;
+import com.additionaltools.common.EntityBytecodeReader;
+import com.additionaltools.common.EntityFinding;
+import com.additionaltools.hashcodevalidator.HashCodeAnalysis;
+import com.additionaltools.relationship.RelationshipAnalysis;
+import com.additionaltools.tostringvalidator.ToStringAnalysis;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures the entity bytecode analysis of a generated domain model with {@code entities} classes written to a
+ * temporary directory, read sequentially ({@code parallelism=1}) and in parallel.
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar EntityAnalysisBenchmark
+ * </pre>
+ *
+ * <p>The class files are read from the file system on every invocation, after the first iteration typically from the
+ * page cache.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntityAnalysisBenchmark {
+
+    private static final int STRING_FIELDS = 10;
+
+    @Param({"5000"})
+    public int entities;
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    private Path classesDirectory;
+    private List<String> entityNames;
+    private List<EntityBytecodeAnalyzer<?>> analyzers;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        classesDirectory = Files.createTempDirectory("hiperanalyzer-entities");
+        entityNames = new ArrayList<>(entities);
+        for (int i = 0; i < entities; i++) {
+            String internalName = "generated/model/module" + (i % 50) + "/GeneratedEntity" + i;
+            Path classFile = classesDirectory.resolve(internalName + ".class");
+            Files.createDirectories(classFile.getParent());
+            Files.write(classFile, generateEntity(internalName));
+            entityNames.add(internalName.replace('/', '.'));
+        }
+        analyzers = List.of(new HashCodeAnalysis(""), new ToStringAnalysis(""), new RelationshipAnalysis(""));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(classesDirectory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<EntityFinding> analyzeAll() {
+        return EntityBytecodeReader.analyzeAll(entityNames,
+                entityName -> Files.newInputStream(classesDirectory.resolve(entityName.replace('.', '/') + ".class")),
+                entityName -> analyzers,
+                parallelism);
+    }
+
+    /**
+     * An {@code @Entity} with an id, a {@code @OneToMany List}, string fields with getters, a {@code hashCode} over
+     * two fields and a {@code toString} printing the collection.
+     */
+    private static byte[] generateEntity(String internalName) {
+        ClassWriter classWriter = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        classWriter.visit(Opcodes.V17, Opcodes.ACC_PUBLIC, internalName, null, "java/lang/Object", null);
+        classWriter.visitAnnotation("Ljakarta/persistence/Entity;", true).visitEnd();
+
+        classWriter.visitField(Opcodes.ACC_PRIVATE, "id", "Ljava/lang/Long;", null, null).visitEnd();
+        FieldVisitor items = classWriter.visitField(Opcodes.ACC_PRIVATE, "items", "Ljava/util/List;",
+                "Ljava/util/List<Ljava/lang/Object;>;", null);
+        items.visitAnnotation("Ljakarta/persistence/OneToMany;", true).visitEnd();
+        items.visitEnd();
+
+        MethodVisitor constructor = classWriter.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+        constructor.visitCode();
+        constructor.visitVarInsn(Opcodes.ALOAD, 0);
+        constructor.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        constructor.visitInsn(Opcodes.RETURN);
+        constructor.visitMaxs(0, 0);
+        constructor.visitEnd();
+
+        for (int field = 0; field < STRING_FIELDS; field++) {
+            String fieldName = "field" + field;
+            classWriter.visitField(Opcodes.ACC_PRIVATE, fieldName, "Ljava/lang/String;", null, null).visitEnd();
+            MethodVisitor getter = classWriter.visitMethod(Opcodes.ACC_PUBLIC, "getField" + field, "()Ljava/lang/String;", null, null);
+            getter.visitCode();
+            getter.visitVarInsn(Opcodes.ALOAD, 0);
+            getter.visitFieldInsn(Opcodes.GETFIELD, internalName, fieldName, "Ljava/lang/String;");
+            getter.visitInsn(Opcodes.ARETURN);
+            getter.visitMaxs(0, 0);
+            getter.visitEnd();
+        }
+
+        MethodVisitor hashCode = classWriter.visitMethod(Opcodes.ACC_PUBLIC, "hashCode", "()I", null, null);
+        hashCode.visitCode();
+        hashCode.visitVarInsn(Opcodes.ALOAD, 0);
+        hashCode.visitFieldInsn(Opcodes.GETFIELD, internalName, "id", "Ljava/lang/Long;");
+        hashCode.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/lang/Long", "hashCode", "()I", false);
+        hashCode.visitVarInsn(Opcodes.ALOAD, 0);
+        hashCode.visitFieldInsn(Opcodes.GETFIELD, internalName, "field0", "Ljava/lang/String;");
+        hashCode.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/lang/String", "hashCode", "()I", false);
+        hashCode.visitInsn(Opcodes.IADD);
+        hashCode.visitInsn(Opcodes.IRETURN);
+        hashCode.visitMaxs(0, 0);
+        hashCode.visitEnd();
+
+        MethodVisitor toString = classWriter.visitMethod(Opcodes.ACC_PUBLIC, "toString", "()Ljava/lang/String;", null, null);
+        toString.visitCode();
+        toString.visitVarInsn(Opcodes.ALOAD, 0);
+        toString.visitFieldInsn(Opcodes.GETFIELD, internalName, "items", "Ljava/util/List;");
+        toString.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/lang/Object", "toString", "()Ljava/lang/String;", false);
+        toString.visitInsn(Opcodes.ARETURN);
+        toString.visitMaxs(0, 0);
+        toString.visitEnd();
+
+        classWriter.visitEnd();
+        return classWriter.toByteArray();
+    }
+}
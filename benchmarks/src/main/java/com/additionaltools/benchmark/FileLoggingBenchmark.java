@@ -0,0 +1,82 @@
+package com.additionaltools.benchmark;
+
+import com.additionaltools.logging.FileLoggingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures time and allocation per finding of {@link FileLoggingService}, queueing distinct findings and writing
+ * them to a file in a temporary directory every {@code logsPerFlush} findings.
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar FileLoggingBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileLoggingBenchmark {
+
+    private static final int DISTINCT_FINDINGS = 1024;
+
+    @Param({"1", "256"})
+    public int logsPerFlush;
+
+    private final String[] findings = new String[DISTINCT_FINDINGS];
+    private Path directory;
+    private FileLoggingService fileLoggingService;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        for (int i = 0; i < DISTINCT_FINDINGS; i++) {
+            findings[i] = ("N+1_SELECT_DETECTED: Queries: [select o1_0.id,o1_0.status from purchase_order o1_0 where "
+                           + "o1_0.customer_id=?]; Method: com.example.OrderService.readOrderLines%d(); Summary: "
+                           + "[Number of additional query fetches: 10, Collection: com.example.PurchaseOrder.lines]")
+                    .formatted(i);
+        }
+        directory = Files.createTempDirectory("hiperanalyzer-benchmark");
+        fileLoggingService = new FileLoggingService(directory.resolve("HiPerAnalyzerLogs.txt"), 1000,
+                10 * 1024 * 1024, Duration.ofDays(1), 2);
+        fileLoggingService.initializeLogFile();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        fileLoggingService.close();
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public void addLog() {
+        fileLoggingService.addLog(findings[next]);
+        next = (next + 1) % DISTINCT_FINDINGS;
+        if (next % logsPerFlush == 0) {
+            fileLoggingService.flushLogs();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.additionaltools.benchmark;
+
+import com.additionaltools.common.SqlFingerprint;
+import com.additionaltools.common.SqlNormalizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Measures time and allocation per statement of {@link SqlNormalizer}.
+ *
+ * <p>Run with the GC profiler to see the allocation per statement ({@code gc.alloc.rate.norm}):</p>
+ * <pre>
+ * java -jar target/benchmarks.jar SqlFingerprintBenchmark -prof gc
+ * </pre>
+ *
+ * <p>{@link #regexBinding()} is the regex based binding used before {@link SqlNormalizer} and serves as the baseline.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SqlFingerprintBenchmark {
+
+    @Param({"select", "insert", "inList"})
+    public String statement;
+
+    private String sql;
+    private List<String> arguments;
+
+    @Setup
+    public void setUp() {
+        switch (statement) {
+            case "select" -> {
+                sql = "select o1_0.id,o1_0.customer_id,o1_0.created_at,o1_0.status from orders o1_0 where o1_0.customer_id=? and o1_0.status=?";
+                arguments = List.of("42", "'NEW'");
+            }
+            case "insert" -> {
+                sql = "insert into order_item (order_id,product_id,quantity,price,id) values (?,?,?,?,?)";
+                arguments = List.of("42", "7", "3", "10", "1001");
+            }
+            case "inList" -> {
+                sql = "select i1_0.order_id,i1_0.id,i1_0.quantity from order_item i1_0 where i1_0.order_id in (1, 2, 3, 4, 5, 6, 7, 8, 9, 10) and i1_0.name = 'abc'";
+                arguments = List.of();
+            }
+            default -> throw new IllegalArgumentException(statement);
+        }
+    }
+
+    @Benchmark
+    public long hash() {
+        return SqlNormalizer.hash(sql);
+    }
+
+    @Benchmark
+    public SqlFingerprint fingerprint() {
+        return SqlNormalizer.fingerprint(sql);
+    }
+
+    @Benchmark
+    public String bindArguments() {
+        return SqlNormalizer.bindArguments(sql, arguments);
+    }
+
+    @Benchmark
+    public String regexBinding() {
+        Pattern pattern = Pattern.compile("\\?");
+        Matcher matcher = pattern.matcher(sql);
+        StringBuilder sqlWithArgs = new StringBuilder();
+        int index = 0;
+        while (matcher.find()) {
+            String argument = index < arguments.size() ? arguments.get(index++) : "?";
+            matcher.appendReplacement(sqlWithArgs, Matcher.quoteReplacement(argument));
+        }
+        matcher.appendTail(sqlWithArgs);
+        return sqlWithArgs.toString();
+    }
+}
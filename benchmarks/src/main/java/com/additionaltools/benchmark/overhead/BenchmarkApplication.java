@@ -0,0 +1,53 @@
+package com.additionaltools.benchmark.overhead;
+
+import com.additionaltools.additionalselect.EnableAdditionalSelectBeforeInsertDetector;
+import com.additionaltools.logging.LoggingToFile;
+import com.additionaltools.nplus1query.EnableNPlus1QueryDetection;
+import com.additionaltools.sqlexplainplan.EnableQueryPlanAnalysis;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Spring Boot application with an embedded H2 database. The detectors are enabled by adding the nested classes
+ * carrying their annotations to the sources of the application.
+ */
+@SpringBootApplication
+public class BenchmarkApplication {
+
+    /**
+     * @param detectors {@code none}, {@code nplus1}, {@code query-plan}, {@code select-before-insert} or
+     *                  {@code all}
+     * @return the sources of the application with the given detectors enabled
+     */
+    public static Class<?>[] sources(String detectors) {
+        List<Class<?>> detectorSources = switch (detectors) {
+            case "none" -> List.of();
+            case "nplus1" -> List.of(NPlus1QueryDetection.class);
+            case "query-plan" -> List.of(QueryPlanAnalysis.class);
+            case "select-before-insert" -> List.of(SelectBeforeInsertDetection.class);
+            case "all" -> List.of(NPlus1QueryDetection.class, QueryPlanAnalysis.class, SelectBeforeInsertDetection.class,
+                    FileLogging.class);
+            default -> throw new IllegalArgumentException("Unknown detectors: " + detectors);
+        };
+        return Stream.concat(Stream.of(BenchmarkApplication.class), detectorSources.stream())
+                .toArray(Class<?>[]::new);
+    }
+
+    @EnableNPlus1QueryDetection
+    static class NPlus1QueryDetection {
+    }
+
+    @EnableQueryPlanAnalysis
+    static class QueryPlanAnalysis {
+    }
+
+    @EnableAdditionalSelectBeforeInsertDetector
+    static class SelectBeforeInsertDetection {
+    }
+
+    @LoggingToFile
+    static class FileLogging {
+    }
+}
@@ -0,0 +1,31 @@
+package com.additionaltools.benchmark.overhead;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.ManyToOne;
+
+@Entity
+public class OrderLine {
+
+    @Id
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    private PurchaseOrder purchaseOrder;
+
+    private int quantity;
+
+    protected OrderLine() {
+    }
+
+    public OrderLine(Long id, PurchaseOrder purchaseOrder, int quantity) {
+        this.id = id;
+        this.purchaseOrder = purchaseOrder;
+        this.quantity = quantity;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+}
@@ -0,0 +1,58 @@
+package com.additionaltools.benchmark.overhead;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * The transactions measured by the benchmark: a read initializing the lines of every order one by one (an N+1) and
+ * a repository {@code save} of an order with an assigned id (a select before the insert).
+ */
+@Service
+public class OrderService {
+
+    public static final int ORDERS = 10;
+    public static final int LINES_PER_ORDER = 5;
+
+    private final PurchaseOrderRepository purchaseOrderRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public OrderService(PurchaseOrderRepository purchaseOrderRepository) {
+        this.purchaseOrderRepository = purchaseOrderRepository;
+    }
+
+    @Transactional
+    public void seed() {
+        for (long orderId = 1; orderId <= ORDERS; orderId++) {
+            PurchaseOrder purchaseOrder = new PurchaseOrder(orderId);
+            entityManager.persist(purchaseOrder);
+            for (long line = 0; line < LINES_PER_ORDER; line++) {
+                entityManager.persist(new OrderLine(orderId * 100 + line, purchaseOrder, (int) line + 1));
+            }
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public int readOrderLines() {
+        int quantity = 0;
+        for (PurchaseOrder purchaseOrder : entityManager.createQuery("select o from PurchaseOrder o", PurchaseOrder.class).getResultList()) {
+            for (OrderLine line : purchaseOrder.getLines()) {
+                quantity += line.getQuantity();
+            }
+        }
+        return quantity;
+    }
+
+    @Transactional
+    public PurchaseOrder saveOrder(long id) {
+        return purchaseOrderRepository.save(new PurchaseOrder(id));
+    }
+
+    @Transactional
+    public int deleteOrdersFrom(long fromId) {
+        return purchaseOrderRepository.deleteFrom(fromId);
+    }
+}
@@ -0,0 +1,33 @@
+package com.additionaltools.benchmark.overhead;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.OneToMany;
+
+import java.util.HashSet;
+import java.util.Set;
+
+@Entity
+public class PurchaseOrder {
+
+    @Id
+    private Long id;
+
+    @OneToMany(mappedBy = "purchaseOrder")
+    private Set<OrderLine> lines = new HashSet<>();
+
+    protected PurchaseOrder() {
+    }
+
+    public PurchaseOrder(Long id) {
+        this.id = id;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Set<OrderLine> getLines() {
+        return lines;
+    }
+}
@@ -0,0 +1,12 @@
+package com.additionaltools.benchmark.overhead;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+public interface PurchaseOrderRepository extends JpaRepository<PurchaseOrder, Long> {
+
+    @Modifying
+    @Query("delete from PurchaseOrder o where o.id >= :fromId")
+    int deleteFrom(long fromId);
+}
@@ -0,0 +1,115 @@
+package com.additionaltools.maven;
+
+import com.additionaltools.common.EntityBytecodeAnalyzer;
+import com.additionaltools.common.EntityBytecodeReader;
+import com.additionaltools.common.EntityFinding;
+import com.additionaltools.common.EntityFindingsFile;
+import com.additionaltools.hashcodevalidator.HashCodeAnalysis;
+import com.additionaltools.relationship.RelationshipAnalysis;
+import com.additionaltools.tostringvalidator.ToStringAnalysis;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Runs the hashCode, toString and relationship analyses over the compiled {@code @Entity} classes and writes the
+ * findings to {@code META-INF/hiperanalyzer/entity-findings.tsv}, which the library reads at startup instead of scanning.
+ * The file records the checksum of every analyzed entity class, so entities changed after the build are analyzed again
+ * at startup.
+ *
+ * <p>Every entity of the module is analyzed; at runtime only the findings of the enabled analyses within their base
+ * packages are reported. Each class file is read once, the entity check and the analyses share the same
+ * {@link org.objectweb.asm.ClassReader}.</p>
+ */
+@Mojo(name = "analyze", defaultPhase = LifecyclePhase.PROCESS_CLASSES, threadSafe = true)
+public class AnalyzeEntitiesMojo extends AbstractMojo {
+
+    @Parameter(defaultValue = "${project.build.outputDirectory}", required = true)
+    private File classesDirectory;
+
+    /**
+     * Fails the build when any finding is reported.
+     */
+    @Parameter(property = "hiperanalyzer.failOnFindings", defaultValue = "false")
+    private boolean failOnFindings;
+
+    /**
+     * Number of class files read at a time, each on its own virtual thread, by default the number of available processors.
+     */
+    @Parameter(property = "hiperanalyzer.parallelism", defaultValue = "0")
+    private int parallelism;
+
+    @Parameter(property = "hiperanalyzer.skip", defaultValue = "false")
+    private boolean skip;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        if (skip) {
+            getLog().info("Entity analysis skipped");
+            return;
+        }
+        Path classes = classesDirectory.toPath();
+        if (!Files.isDirectory(classes)) {
+            getLog().info("No classes to analyze in " + classes);
+            return;
+        }
+        List<EntityBytecodeAnalyzer<?>> analyzers = List.of(
+                new HashCodeAnalysis(""), new ToStringAnalysis(""), new RelationshipAnalysis(""));
+
+        List<EntityFinding> findings;
+        try (Stream<Path> classFiles = Files.walk(classes)) {
+            Map<String, Path> classFilesByName = classFiles
+                    .filter(path -> path.toString().endsWith(".class"))
+                    .collect(Collectors.toMap(path -> className(classes, path), Function.identity()));
+            Map<String, Long> checksums = new ConcurrentHashMap<>();
+            Set<String> entities = ConcurrentHashMap.newKeySet();
+            findings = EntityBytecodeReader.analyzeAll(List.copyOf(classFilesByName.keySet()),
+                    className -> {
+                        byte[] classFile = Files.readAllBytes(classFilesByName.get(className));
+                        checksums.put(className, EntityFindingsFile.checksum(classFile));
+                        return new ByteArrayInputStream(classFile);
+                    },
+                    classReader -> {
+                        boolean entity = EntityBytecodeReader.isEntity(classReader);
+                        if (entity) {
+                            entities.add(classReader.getClassName().replace('/', '.'));
+                        }
+                        return entity;
+                    },
+                    className -> analyzers,
+                    parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+            checksums.keySet().retainAll(entities);
+            Path file = EntityFindingsFile.write(classes,
+                    analyzers.stream().map(analyzer -> analyzer.getClass().getName()).toList(), checksums, findings);
+            getLog().info("Analyzed " + entities.size() + " entities, " + findings.size() + " finding(s) written to " + file);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Unable to analyze the entities in " + classes, e);
+        }
+
+        findings.forEach(finding -> getLog().warn(finding.message()));
+        if (failOnFindings && !findings.isEmpty()) {
+            throw new MojoFailureException(findings.size() + " entity finding(s) reported, see the warnings above");
+        }
+    }
+
+    private static String className(Path classes, Path classFile) {
+        String path = classes.relativize(classFile).toString();
+        return path.substring(0, path.length() - ".class".length()).replace(classFile.getFileSystem().getSeparator(), ".");
+    }
+}
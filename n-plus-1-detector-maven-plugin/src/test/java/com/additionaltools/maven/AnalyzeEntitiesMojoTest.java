@@ -0,0 +1,89 @@
+package com.additionaltools.maven;
+
+import com.additionaltools.common.EntityFindingsFile;
+import org.apache.maven.plugin.MojoFailureException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AnalyzeEntitiesMojoTest {
+
+    @TempDir
+    Path classes;
+
+    @Test
+    void shouldWriteTheFindingsOfEntitiesOnly() throws Exception {
+        writeClass("com/example/Order", true);
+        writeClass("com/example/OrderService", false);
+
+        newMojo(false).execute();
+
+        List<String> lines = Files.readAllLines(classes.resolve(EntityFindingsFile.LOCATION));
+        List<String> findings = lines.stream()
+                .filter(line -> !line.startsWith("#"))
+                .toList();
+        long checksum = EntityFindingsFile.checksum(Files.readAllBytes(classes.resolve("com/example/Order.class")));
+        assertThat(lines).contains("#entity\tcom.example.Order\t" + Long.toHexString(checksum),
+                "#analyzer\tcom.additionaltools.hashcodevalidator.HashCodeAnalysis");
+        assertThat(lines).noneMatch(line -> line.contains("OrderService"));
+        assertThat(findings).isNotEmpty()
+                .allMatch(line -> line.split("\t")[1].equals("com.example.Order"))
+                .anyMatch(line -> line.contains("MISSING_HASHCODE"));
+    }
+
+    @Test
+    void shouldFailOnFindingsWhenRequested() throws Exception {
+        writeClass("com/example/Order", true);
+
+        assertThatThrownBy(() -> newMojo(true).execute())
+                .isInstanceOf(MojoFailureException.class)
+                .hasMessageContaining("entity finding(s) reported");
+    }
+
+    @Test
+    void shouldWriteNoFindingsWithoutEntities() throws Exception {
+        writeClass("com/example/OrderService", false);
+
+        newMojo(true).execute();
+
+        assertThat(Files.readAllLines(classes.resolve(EntityFindingsFile.LOCATION)))
+                .allMatch(line -> line.startsWith("#"));
+    }
+
+    private AnalyzeEntitiesMojo newMojo(boolean failOnFindings) throws ReflectiveOperationException {
+        AnalyzeEntitiesMojo mojo = new AnalyzeEntitiesMojo();
+        set(mojo, "classesDirectory", classes.toFile());
+        set(mojo, "failOnFindings", failOnFindings);
+        set(mojo, "parallelism", 2);
+        return mojo;
+    }
+
+    private static void set(AnalyzeEntitiesMojo mojo, String name, Object value) throws ReflectiveOperationException {
+        Field field = AnalyzeEntitiesMojo.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(mojo, value);
+    }
+
+    private void writeClass(String internalName, boolean entity) throws IOException {
+        ClassWriter classWriter = new ClassWriter(0);
+        classWriter.visit(Opcodes.V21, Opcodes.ACC_PUBLIC, internalName, null, "java/lang/Object", null);
+        if (entity) {
+            classWriter.visitAnnotation("Ljakarta/persistence/Entity;", true).visitEnd();
+        }
+        classWriter.visitField(Opcodes.ACC_PRIVATE, "id", "Ljava/lang/Long;", null, null).visitEnd();
+        classWriter.visitEnd();
+        Path classFile = classes.resolve(internalName + ".class");
+        Files.createDirectories(classFile.getParent());
+        Files.write(classFile, classWriter.toByteArray());
+    }
+}
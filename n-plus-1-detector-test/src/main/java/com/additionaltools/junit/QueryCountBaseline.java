@@ -0,0 +1,34 @@
+package com.additionaltools.junit;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Records the query counts of every test and fails the tests whose counts grew beyond the committed baseline.
+ *
+ * <p>Placed on a Spring test class, the application must register the transaction scoped Hibernate statistics with
+ * {@code @EnableNPlus1QueryDetection} or by importing {@code TransactionScopedStatisticsConfiguration}. Only the
+ * statements executed on the test thread are counted, e.g. through MockMvc but not through a server started on a
+ * random port. See {@link QueryCountExtension}.</p>
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Inherited
+@ExtendWith(QueryCountExtension.class)
+public @interface QueryCountBaseline {
+
+    /**
+     * @return the baseline file, relative to the working directory of the tests
+     */
+    String file() default "src/test/resources/hiperanalyzer/query-counts.tsv";
+
+    /**
+     * @return the share every count may grow by before the test fails, e.g. {@code 0.1} for 10%
+     */
+    double tolerance() default 0.0;
+}
@@ -0,0 +1,99 @@
+package com.additionaltools.junit;
+
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The query counts of the tests, stored in a baseline file committed with the tests.
+ *
+ * <p>After a header line, every line holds the counts of one test as
+ * {@code test<TAB>statements<TAB>collectionFetches<TAB>entityLoads<TAB>inserts}, sorted by test so that updates give
+ * small diffs. The file is read once per test run and written back when the run ends, if any counts were added or
+ * updated. Tests running in parallel share one instance.</p>
+ */
+final class QueryCountBaselineFile implements ExtensionContext.Store.CloseableResource {
+
+    private static final String HEADER = "# hiperanalyzer query counts v1";
+    private final Path file;
+    private final Map<String, QueryCounts> counts;
+    private boolean modified;
+
+    private QueryCountBaselineFile(Path file, Map<String, QueryCounts> counts) {
+        this.file = file;
+        this.counts = counts;
+    }
+
+    /**
+     * @param file the baseline file, which does not need to exist
+     * @return the baseline read from the file
+     */
+    static QueryCountBaselineFile read(Path file) {
+        Map<String, QueryCounts> counts = new TreeMap<>();
+        if (Files.exists(file)) {
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isEmpty() || line.startsWith("#")) {
+                        continue;
+                    }
+                    String[] columns = line.split("\t");
+                    if (columns.length != 5) {
+                        throw new IllegalStateException("Malformed line in " + file + ": " + line);
+                    }
+                    counts.put(columns[0], new QueryCounts(Long.parseLong(columns[1]), Long.parseLong(columns[2]),
+                            Long.parseLong(columns[3]), Long.parseLong(columns[4])));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read the query count baseline " + file, e);
+            }
+        }
+        return new QueryCountBaselineFile(file, counts);
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    /**
+     * @param test the test
+     * @return the counts recorded for the test, or {@code null} when it has no baseline yet
+     */
+    synchronized QueryCounts get(String test) {
+        return counts.get(test);
+    }
+
+    synchronized void put(String test, QueryCounts queryCounts) {
+        if (!queryCounts.equals(counts.put(test, queryCounts))) {
+            modified = true;
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!modified) {
+            return;
+        }
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.write('\n');
+            for (Map.Entry<String, QueryCounts> entry : counts.entrySet()) {
+                QueryCounts queryCounts = entry.getValue();
+                writer.write("%s\t%d\t%d\t%d\t%d\n".formatted(entry.getKey(), queryCounts.statements(),
+                        queryCounts.collectionFetches(), queryCounts.entityLoads(), queryCounts.inserts()));
+            }
+        }
+        modified = false;
+    }
+}
@@ -0,0 +1,130 @@
+package com.additionaltools.junit;
+
+import com.additionaltools.common.CallSiteResolver;
+import com.additionaltools.nplus1query.TransactionScopedStatistics;
+import com.additionaltools.nplus1query.TransactionStatistics;
+import com.additionaltools.nplus1query.TransactionStatisticsHolder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionConfigurationException;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.opentest4j.AssertionFailedError;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.lang.reflect.AnnotatedElement;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * JUnit 5 extension comparing the query counts of every test with a baseline file.
+ *
+ * <p>Registered by {@link QueryCountBaseline}. Around the execution of every test method (without the
+ * {@code @BeforeEach} and {@code @AfterEach} methods) a {@link TransactionStatistics} is bound to the test thread,
+ * so it receives the same Hibernate statistics events the N+1 detection uses, across all transactions of the test.
+ * When the test passes, its {@link QueryCounts} are compared with the baseline:</p>
+ * <ul>
+ *     <li>a test without a baseline has its counts added to the file,</li>
+ *     <li>a test whose counts grew by more than the tolerance fails with the grown counts,</li>
+ *     <li>a test whose counts dropped keeps its baseline and publishes a report entry.</li>
+ * </ul>
+ *
+ * <p>With the configuration parameter or system property {@value #UPDATE_PROPERTY}{@code =true} the counts of all
+ * executed tests are written to the baseline instead, e.g. {@code mvn test -Dhiperanalyzer.baseline.update=true}.
+ * The file is written when the test run ends.</p>
+ */
+public class QueryCountExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    public static final String UPDATE_PROPERTY = "hiperanalyzer.baseline.update";
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(QueryCountExtension.class);
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        enableStatistics(SpringExtension.getApplicationContext(context));
+        TransactionStatistics transactionStatistics = new TransactionStatistics(new CallSiteResolver(""));
+        context.getStore(NAMESPACE).put(TransactionStatistics.class, transactionStatistics);
+        TransactionStatisticsHolder.bind(transactionStatistics);
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        TransactionStatistics transactionStatistics = context.getStore(NAMESPACE)
+                .remove(TransactionStatistics.class, TransactionStatistics.class);
+        if (transactionStatistics == null) {
+            return;
+        }
+        TransactionStatisticsHolder.unbind(transactionStatistics);
+        if (context.getExecutionException().isPresent()) {
+            return;
+        }
+
+        QueryCountBaseline configuration = getConfiguration(context);
+        QueryCountBaselineFile baseline = getBaselineFile(context, Path.of(configuration.file()));
+        String test = getTestName(context);
+        QueryCounts queryCounts = QueryCounts.of(transactionStatistics);
+        QueryCounts baselineCounts = baseline.get(test);
+        if (baselineCounts == null || isUpdate(context)) {
+            baseline.put(test, queryCounts);
+            return;
+        }
+        List<String> regressions = queryCounts.getRegressions(baselineCounts, configuration.tolerance());
+        if (!regressions.isEmpty()) {
+            throw new AssertionFailedError(("Query counts of %s grew beyond the baseline in %s (tolerance %.0f%%): %s. "
+                                            + "Run the tests with -D%s=true to accept the new counts.")
+                    .formatted(test, baseline.getFile(), configuration.tolerance() * 100, String.join(", ", regressions),
+                            UPDATE_PROPERTY));
+        }
+        if (queryCounts.isBelow(baselineCounts)) {
+            context.publishReportEntry("hiperanalyzer", "Query counts dropped to %s from %s, update the baseline to lock them in"
+                    .formatted(queryCounts, baselineCounts));
+        }
+    }
+
+    /**
+     * Enables the Hibernate statistics, which the N+1 detection otherwise enables at startup, and fails when they do
+     * not reach the bound {@link TransactionStatistics}.
+     */
+    private static void enableStatistics(ApplicationContext applicationContext) {
+        for (EntityManagerFactory entityManagerFactory : applicationContext.getBeansOfType(EntityManagerFactory.class).values()) {
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            if (!(statistics instanceof TransactionScopedStatistics)) {
+                throw new ExtensionConfigurationException(("Hibernate statistics are not transaction scoped (%s). "
+                                                           + "Enable @EnableNPlus1QueryDetection or import TransactionScopedStatisticsConfiguration.")
+                        .formatted(statistics.getClass().getName()));
+            }
+            statistics.setStatisticsEnabled(true);
+        }
+    }
+
+    private static QueryCountBaseline getConfiguration(ExtensionContext context) {
+        QueryCountBaseline configuration = findConfiguration(context.getRequiredTestMethod());
+        return configuration != null ? configuration : findConfiguration(context.getRequiredTestClass());
+    }
+
+    private static QueryCountBaseline findConfiguration(AnnotatedElement element) {
+        return AnnotatedElementUtils.findMergedAnnotation(element, QueryCountBaseline.class);
+    }
+
+    private static QueryCountBaselineFile getBaselineFile(ExtensionContext context, Path file) {
+        return context.getRoot().getStore(NAMESPACE).getOrComputeIfAbsent(file.toAbsolutePath().normalize(),
+                QueryCountBaselineFile::read, QueryCountBaselineFile.class);
+    }
+
+    private static boolean isUpdate(ExtensionContext context) {
+        return context.getConfigurationParameter(UPDATE_PROPERTY).map(Boolean::parseBoolean).orElse(false);
+    }
+
+    /**
+     * @return {@code className#methodName}, followed by the display name for the invocations of parameterized and
+     * repeated tests
+     */
+    private static String getTestName(ExtensionContext context) {
+        String test = context.getRequiredTestClass().getName() + "#" + context.getRequiredTestMethod().getName();
+        boolean invocation = context.getParent().flatMap(ExtensionContext::getTestMethod).isPresent();
+        return invocation ? test + " " + context.getDisplayName().replace('\t', ' ') : test;
+    }
+}
@@ -0,0 +1,47 @@
+package com.additionaltools.junit;
+
+import com.additionaltools.nplus1query.TransactionStatistics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The queries executed by one test.
+ *
+ * @param statements        the JDBC statements prepared
+ * @param collectionFetches the collections initialized one by one
+ * @param entityLoads       the entities loaded, by queries as well as by single selects
+ * @param inserts           the entities inserted
+ */
+public record QueryCounts(long statements, long collectionFetches, long entityLoads, long inserts) {
+
+    static QueryCounts of(TransactionStatistics transactionStatistics) {
+        return new QueryCounts(transactionStatistics.getStatementCount(), transactionStatistics.getCollectionFetchCount(),
+                transactionStatistics.getEntityLoadCount(), transactionStatistics.getEntityInsertCount());
+    }
+
+    /**
+     * @param baseline  the counts recorded in the baseline
+     * @param tolerance the share every count may grow by
+     * @return the counts grown beyond the tolerance, formatted as {@code name actual > baseline}
+     */
+    List<String> getRegressions(QueryCounts baseline, double tolerance) {
+        List<String> regressions = new ArrayList<>(4);
+        addRegression(regressions, "statements", statements, baseline.statements, tolerance);
+        addRegression(regressions, "collection fetches", collectionFetches, baseline.collectionFetches, tolerance);
+        addRegression(regressions, "entity loads", entityLoads, baseline.entityLoads, tolerance);
+        addRegression(regressions, "inserts", inserts, baseline.inserts, tolerance);
+        return regressions;
+    }
+
+    boolean isBelow(QueryCounts baseline) {
+        return statements < baseline.statements || collectionFetches < baseline.collectionFetches
+               || entityLoads < baseline.entityLoads || inserts < baseline.inserts;
+    }
+
+    private static void addRegression(List<String> regressions, String name, long actual, long baseline, double tolerance) {
+        if (actual > baseline + (long) Math.floor(baseline * tolerance)) {
+            regressions.add("%s %d > %d".formatted(name, actual, baseline));
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.additionaltools.junit;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface CountedRepository extends JpaRepository<Counted, Long> {
+}
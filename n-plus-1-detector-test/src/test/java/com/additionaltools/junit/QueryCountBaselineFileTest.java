@@ -0,0 +1,71 @@
+package com.additionaltools.junit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class QueryCountBaselineFileTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void shouldStartEmptyAndWriteTheCountsSortedByTest() throws IOException {
+        Path file = directory.resolve("baseline/query-counts.tsv");
+        QueryCountBaselineFile baseline = QueryCountBaselineFile.read(file);
+
+        assertThat(baseline.get("com.example.OrderTest#save")).isNull();
+        baseline.put("com.example.OrderTest#save", new QueryCounts(3, 0, 1, 2));
+        baseline.put("com.example.OrderTest#load", new QueryCounts(2, 1, 5, 0));
+        baseline.close();
+
+        assertThat(Files.readAllLines(file)).containsExactly(
+                "# hiperanalyzer query counts v1",
+                "com.example.OrderTest#load\t2\t1\t5\t0",
+                "com.example.OrderTest#save\t3\t0\t1\t2");
+    }
+
+    @Test
+    void shouldReadTheCountsWrittenBefore() throws IOException {
+        Path file = directory.resolve("query-counts.tsv");
+        Files.writeString(file, """
+                # hiperanalyzer query counts v1
+                com.example.OrderTest#load\t2\t1\t5\t0
+
+                com.example.OrderTest#parameterized [1] 42\t4\t0\t4\t0
+                """);
+
+        QueryCountBaselineFile baseline = QueryCountBaselineFile.read(file);
+
+        assertThat(baseline.get("com.example.OrderTest#load")).isEqualTo(new QueryCounts(2, 1, 5, 0));
+        assertThat(baseline.get("com.example.OrderTest#parameterized [1] 42")).isEqualTo(new QueryCounts(4, 0, 4, 0));
+    }
+
+    @Test
+    void shouldNotRewriteTheFileWhenNoCountsChanged() throws IOException {
+        Path file = directory.resolve("query-counts.tsv");
+        Files.writeString(file, "com.example.OrderTest#load\t2\t1\t5\t0\n");
+        QueryCountBaselineFile baseline = QueryCountBaselineFile.read(file);
+
+        baseline.put("com.example.OrderTest#load", new QueryCounts(2, 1, 5, 0));
+        baseline.close();
+
+        assertThat(Files.readString(file)).isEqualTo("com.example.OrderTest#load\t2\t1\t5\t0\n");
+    }
+
+    @Test
+    void shouldRejectAMalformedLine() throws IOException {
+        Path file = directory.resolve("query-counts.tsv");
+        Files.writeString(file, "com.example.OrderTest#load\t2\t1\n");
+
+        assertThatThrownBy(() -> QueryCountBaselineFile.read(file))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Malformed line");
+    }
+}
@@ -0,0 +1,108 @@
+package com.additionaltools.junit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.launcher.LauncherDiscoveryRequest;
+import org.junit.platform.launcher.core.LauncherFactory;
+import org.junit.platform.launcher.listeners.SummaryGeneratingListener;
+import org.junit.platform.launcher.listeners.TestExecutionSummary;
+import org.opentest4j.AssertionFailedError;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+import static org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder.request;
+
+/**
+ * Runs {@link SavingTest} through the JUnit launcher, its baseline is written when the launcher finishes.
+ */
+class QueryCountExtensionTest {
+
+    private static final Path BASELINE = Path.of(SavingTest.BASELINE);
+    private static final String TEST = SavingTest.class.getName() + "#save";
+
+    @BeforeEach
+    void deleteBaseline() throws IOException {
+        Files.deleteIfExists(BASELINE);
+        SavingTest.saves = 1;
+    }
+
+    @Test
+    void shouldAddTheCountsOfATestWithoutABaseline() throws IOException {
+        TestExecutionSummary summary = run(request().selectors(selectClass(SavingTest.class)).build());
+
+        assertThat(summary.getTestsSucceededCount()).isOne();
+        assertThat(Files.readAllLines(BASELINE)).contains(TEST + "\t1\t0\t0\t1");
+    }
+
+    @Test
+    void shouldFailATestWhoseCountsGrewBeyondTheBaseline() throws IOException {
+        run(request().selectors(selectClass(SavingTest.class)).build());
+        SavingTest.saves = 2;
+
+        TestExecutionSummary summary = run(request().selectors(selectClass(SavingTest.class)).build());
+
+        assertThat(summary.getFailures()).singleElement().satisfies(failure -> assertThat(failure.getException())
+                .isInstanceOf(AssertionFailedError.class)
+                .hasMessageContaining(TEST)
+                .hasMessageContaining("statements 2 > 1, inserts 2 > 1"));
+        assertThat(Files.readAllLines(BASELINE)).contains(TEST + "\t1\t0\t0\t1");
+    }
+
+    @Test
+    void shouldKeepTheBaselineWhenTheCountsDropped() throws IOException {
+        SavingTest.saves = 2;
+        run(request().selectors(selectClass(SavingTest.class)).build());
+        SavingTest.saves = 1;
+
+        TestExecutionSummary summary = run(request().selectors(selectClass(SavingTest.class)).build());
+
+        assertThat(summary.getTestsSucceededCount()).isOne();
+        assertThat(Files.readAllLines(BASELINE)).contains(TEST + "\t2\t0\t0\t2");
+    }
+
+    @Test
+    void shouldWriteTheCurrentCountsWhenUpdatingTheBaseline() throws IOException {
+        run(request().selectors(selectClass(SavingTest.class)).build());
+        SavingTest.saves = 3;
+
+        TestExecutionSummary summary = run(request().selectors(selectClass(SavingTest.class))
+                .configurationParameter(QueryCountExtension.UPDATE_PROPERTY, "true")
+                .build());
+
+        assertThat(summary.getTestsSucceededCount()).isOne();
+        assertThat(Files.readAllLines(BASELINE)).contains(TEST + "\t3\t0\t0\t3");
+    }
+
+    private static TestExecutionSummary run(LauncherDiscoveryRequest request) {
+        SummaryGeneratingListener listener = new SummaryGeneratingListener();
+        LauncherFactory.create().execute(request, listener);
+        return listener.getSummary();
+    }
+
+    @DataJpaTest
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @QueryCountBaseline(file = SavingTest.BASELINE)
+    static class SavingTest {
+
+        static final String BASELINE = "target/query-count-extension-test/query-counts.tsv";
+        static int saves;
+
+        @Autowired
+        private CountedRepository repository;
+
+        @Test
+        void save() {
+            for (int i = 0; i < saves; i++) {
+                repository.save(new Counted());
+            }
+        }
+    }
+}
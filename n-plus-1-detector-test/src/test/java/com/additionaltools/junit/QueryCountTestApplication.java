@@ -0,0 +1,9 @@
+package com.additionaltools.junit;
+
+import com.additionaltools.nplus1query.EnableNPlus1QueryDetection;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+@EnableNPlus1QueryDetection
+public class QueryCountTestApplication {
+}
@@ -0,0 +1,38 @@
+package com.additionaltools.junit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryCountsTest {
+
+    private final QueryCounts baseline = new QueryCounts(10, 2, 20, 1);
+
+    @Test
+    void shouldReportEveryCountGrownBeyondTheBaseline() {
+        QueryCounts queryCounts = new QueryCounts(11, 3, 21, 2);
+
+        assertThat(queryCounts.getRegressions(baseline, 0.0)).containsExactly("statements 11 > 10",
+                "collection fetches 3 > 2", "entity loads 21 > 20", "inserts 2 > 1");
+    }
+
+    @Test
+    void shouldAllowEveryCountToGrowByTheTolerance() {
+        assertThat(new QueryCounts(11, 2, 22, 1).getRegressions(baseline, 0.1)).isEmpty();
+        assertThat(new QueryCounts(12, 2, 23, 1).getRegressions(baseline, 0.1))
+                .containsExactly("statements 12 > 10", "entity loads 23 > 20");
+    }
+
+    @Test
+    void shouldRoundTheToleranceDown() {
+        assertThat(new QueryCounts(10, 3, 20, 1).getRegressions(baseline, 0.4)).containsExactly("collection fetches 3 > 2");
+    }
+
+    @Test
+    void shouldBeBelowTheBaselineWhenAnyCountDropped() {
+        assertThat(new QueryCounts(10, 2, 19, 1).isBelow(baseline)).isTrue();
+        assertThat(new QueryCounts(9, 3, 20, 1).isBelow(baseline)).isTrue();
+        assertThat(baseline.isBelow(baseline)).isFalse();
+        assertThat(new QueryCounts(11, 2, 20, 1).isBelow(baseline)).isFalse();
+    }
+}
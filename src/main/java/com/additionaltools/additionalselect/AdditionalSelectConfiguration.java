@@ -1,19 +1,72 @@
 package com.additionaltools.additionalselect;
 
+import com.additionaltools.common.AnnotationScannerService;
+import com.additionaltools.common.CallSiteResolver;
 import com.additionaltools.common.EmptyLoggingConfiguration;
+import com.additionaltools.common.FindingAggregator;
+import com.additionaltools.common.FindingsConfiguration;
+import com.additionaltools.common.OverheadGovernor;
+import com.additionaltools.common.OverheadGovernorConfiguration;
 import com.additionaltools.logging.LoggingService;
 import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.spi.EventType;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 
 
 @Configuration
-@Import(EmptyLoggingConfiguration.class)
+@Import({EmptyLoggingConfiguration.class, FindingsConfiguration.class, OverheadGovernorConfiguration.class})
 public class AdditionalSelectConfiguration {
 
+    /**
+     * Registers {@link SaveStatisticsListener} as the {@code hibernate.session.events.auto} listener.
+     *
+     * <p>Hibernate creates only one such listener per session, so the application must not configure its own: the
+     * startup fails instead of silently replacing it.</p>
+     */
     @Bean
-    public JpaSaveMonitorAspect jpaSaveMonitorAspect(SessionFactory sessionFactory, LoggingService loggingService) {
-        return new JpaSaveMonitorAspect(sessionFactory, loggingService);
+    public HibernatePropertiesCustomizer saveStatisticsCustomizer() {
+        return properties -> {
+            Object configured = properties.get(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER);
+            String listener = SaveStatisticsListener.class.getName();
+            if (configured != null && !listener.equals(configured.toString())) {
+                throw new IllegalStateException(("@EnableAdditionalSelectBeforeInsertDetector registers %s as %s, which is "
+                                                 + "already set to %s. Hibernate supports a single listener there: remove "
+                                                 + "the property or the detector.")
+                        .formatted(listener, AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, configured));
+            }
+            properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, listener);
+        };
+    }
+
+    /**
+     * Appends a shared {@link SaveStatisticsListener} to the {@code POST_INSERT} listeners of the session factory.
+     */
+    @Bean
+    public SaveStatisticsListener saveStatisticsPostInsertListener(SessionFactory sessionFactory) {
+        SaveStatisticsListener listener = new SaveStatisticsListener();
+        sessionFactory.unwrap(SessionFactoryImplementor.class).getEventEngine().getListenerRegistry()
+                .appendListeners(EventType.POST_INSERT, listener);
+        return listener;
+    }
+
+    @Bean
+    public JpaSaveMonitorAspect jpaSaveMonitorAspect(SessionFactory sessionFactory, LoggingService loggingService,
+                                                     FindingAggregator findingAggregator, OverheadGovernor overheadGovernor,
+                                                     AnnotationScannerService annotationScannerService) {
+        String basePath = annotationScannerService.getPackageNameForAnnotatedClass(EnableAdditionalSelectBeforeInsertDetector.class);
+        return new JpaSaveMonitorAspect(sessionFactory, loggingService, findingAggregator, overheadGovernor,
+                new CallSiteResolver(basePath));
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(AnnotationScannerService.class)
+    public AnnotationScannerService annotationScannerService() {
+        return new AnnotationScannerService();
     }
 }
\ No newline at end of file
@@ -1,53 +1,158 @@
 package com.additionaltools.additionalselect;
 
+import com.additionaltools.common.CallSiteResolver;
+import com.additionaltools.common.FindingAggregator;
+import com.additionaltools.common.OverheadGovernor;
 import com.additionaltools.logging.LoggingService;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.hibernate.SessionFactory;
-import org.hibernate.stat.Statistics;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.internal.util.config.ConfigurationHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.Proxy;
 
+/**
+ * Monitors the repository {@code save}, {@code saveAll} and {@code saveAllAndFlush} calls.
+ *
+ * <p>For every call admitted by the {@link OverheadGovernor} a {@link SaveStatistics} is bound to the calling thread,
+ * so concurrent calls never see each other's statements. Two findings are reported with the estimated JDBC round trips
+ * that could be saved:</p>
+ * <ul>
+ *     <li>{@code SELECT_BEFORE_INSERT}: statements other than the inserts were executed, typically the select
+ *     {@code merge} issues for an entity with an assigned identifier,</li>
+ *     <li>{@code INEFFICIENT_INSERT_BATCHING}: several inserts used more round trips than full JDBC batches would,
+ *     because {@code hibernate.jdbc.batch_size} is not set, the identifier is generated with {@code IDENTITY},
+ *     {@code hibernate.order_inserts} is disabled, or the batches were flushed early.</li>
+ * </ul>
+ *
+ * <p>Only the inserts flushed before the repository call returns are seen, that is the calls running in their own
+ * transaction and {@code saveAllAndFlush}.</p>
+ */
 @Aspect
 public class JpaSaveMonitorAspect {
 
     private static final Logger logger = LoggerFactory.getLogger(JpaSaveMonitorAspect.class);
-    private final SessionFactory sessionFactory;
+    private static final String FINDING_TYPE = "SELECT_BEFORE_INSERT";
+    private static final String BATCHING_FINDING_TYPE = "INEFFICIENT_INSERT_BATCHING";
+    private static final String DETECTOR = "select-before-insert";
+    private static final int SUGGESTED_BATCH_SIZE = 50;
     private final LoggingService loggingService;
+    private final FindingAggregator findingAggregator;
+    private final OverheadGovernor overheadGovernor;
+    private final CallSiteResolver callSiteResolver;
+    private final int batchSize;
+    private final boolean orderInserts;
 
-    public JpaSaveMonitorAspect(SessionFactory sessionFactory, LoggingService loggingService) {
-        this.sessionFactory = sessionFactory;
+    public JpaSaveMonitorAspect(SessionFactory sessionFactory, LoggingService loggingService,
+                                FindingAggregator findingAggregator, OverheadGovernor overheadGovernor,
+                                CallSiteResolver callSiteResolver) {
         this.loggingService = loggingService;
+        this.findingAggregator = findingAggregator;
+        this.overheadGovernor = overheadGovernor;
+        this.callSiteResolver = callSiteResolver;
+        SessionFactoryImplementor sessionFactoryImplementor = sessionFactory.unwrap(SessionFactoryImplementor.class);
+        // read like the mutation executor does, the dialect default reported by SessionFactoryOptions is not applied
+        this.batchSize = ConfigurationHelper.getInt(AvailableSettings.STATEMENT_BATCH_SIZE,
+                sessionFactoryImplementor.getProperties(), 1);
+        this.orderInserts = sessionFactoryImplementor.getSessionFactoryOptions().isOrderInsertsEnabled();
     }
 
-    //todo add saveAll
-    @Around("execution(* org.springframework.data.repository.CrudRepository.save(..))")
+    @Around("execution(* org.springframework.data.repository.CrudRepository.save(..))"
+            + " || execution(* org.springframework.data.repository.CrudRepository.saveAll(..))"
+            + " || execution(* org.springframework.data.jpa.repository.JpaRepository.saveAllAndFlush(..))")
     public Object logSaveOperations(ProceedingJoinPoint joinPoint) throws Throwable {
-        Statistics statistics = sessionFactory.getStatistics();
-        statistics.clear();
-
-        Object target = joinPoint.getTarget();
+        if (!overheadGovernor.shouldRun(DETECTOR)) {
+            return joinPoint.proceed();
+        }
+        SaveStatistics saveStatistics = new SaveStatistics();
+        SaveStatisticsHolder.bind(saveStatistics);
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } finally {
+            SaveStatisticsHolder.unbind(saveStatistics);
+        }
 
-        String repositoryName = "";
-        if (Proxy.isProxyClass(target.getClass())) {
-            Class<?>[] interfaces = target.getClass().getInterfaces();
-            repositoryName = interfaces.length > 0 ? interfaces[0].getName() : "";
-        } else if (target.getClass().getName().contains("CGLIB")) {
-            repositoryName = target.getClass().getName();
+        long start = System.nanoTime();
+        if (saveStatistics.getInserts() > 0) {
+            String operation = joinPoint.getSignature().getName();
+            int selects = saveStatistics.getSelects();
+            if (selects > 0) {
+                reportSelectsBeforeInsert(joinPoint.getTarget(), operation, saveStatistics, selects);
+            }
+            int targetBatchSize = batchSize > 1 ? batchSize : SUGGESTED_BATCH_SIZE;
+            int roundTripsSaved = saveStatistics.getInsertRoundTrips()
+                                  - saveStatistics.getOptimalInsertRoundTrips(targetBatchSize);
+            if (roundTripsSaved > 0) {
+                reportInefficientBatching(joinPoint.getTarget(), operation, saveStatistics, roundTripsSaved);
+            }
         }
-        Object result = joinPoint.proceed();
+        overheadGovernor.recordOverhead(DETECTOR, System.nanoTime() - start);
+        return result;
+    }
 
-        long preparedCount = statistics.getPrepareStatementCount();
-        long insertCount = statistics.getEntityInsertCount();
+    private void reportSelectsBeforeInsert(Object target, String operation, SaveStatistics saveStatistics, int selects) {
+        String repositoryName = getRepositoryName(target);
+        String callSite = callSiteResolver.resolve();
+        if (findingAggregator.record(FINDING_TYPE, callSite, repositoryName, selects, repositoryName)) {
+            String message = (FINDING_TYPE + ": Potential inefficiency detected in %s: SELECT before INSERT during %s operation called from %s. "
+                              + "Selects: %d; Inserts: %d; Selects per insert: %.2f; Estimated round trips saved: %d. "
+                              + "Implement Persistable.isNew() or add a @Version attribute so new entities are persisted without a select.")
+                    .formatted(repositoryName, operation, callSite, selects, saveStatistics.getInserts(),
+                            (double) selects / saveStatistics.getInserts(), selects);
+            loggingService.addLog(message);
+            logger.warn(message);
+        }
+    }
 
-        if (preparedCount > insertCount && insertCount > 0) {
-            String message = "SELECT_BEFORE_INSERT: Potential inefficiency detected in %s: SELECT before INSERT during save operation.".formatted(repositoryName);
+    private void reportInefficientBatching(Object target, String operation, SaveStatistics saveStatistics,
+                                           int roundTripsSaved) {
+        String repositoryName = getRepositoryName(target);
+        String callSite = callSiteResolver.resolve();
+        if (findingAggregator.record(BATCHING_FINDING_TYPE, callSite, repositoryName, roundTripsSaved,
+                repositoryName)) {
+            int batchedInserts = saveStatistics.getInserts() - saveStatistics.getNonBatchedInserts();
+            String insertsPerBatch = saveStatistics.getBatchExecutions() > 0
+                    ? "%.1f".formatted((double) batchedInserts / saveStatistics.getBatchExecutions())
+                    : "no batches executed";
+            String message = (BATCHING_FINDING_TYPE + ": Repository: %s; Operation: %s; Called from: %s; Inserts: %d; "
+                              + "JDBC round trips: %d; Inserts per batch: %s; hibernate.jdbc.batch_size: %s; "
+                              + "hibernate.order_inserts: %s; Estimated round trips saved: %d. %s")
+                    .formatted(repositoryName, operation, callSite, saveStatistics.getInserts(),
+                            saveStatistics.getInsertRoundTrips(), insertsPerBatch,
+                            batchSize > 1 ? String.valueOf(batchSize) : "disabled", orderInserts ? "enabled" : "disabled",
+                            roundTripsSaved, getBatchingAdvice(saveStatistics));
             loggingService.addLog(message);
             logger.warn(message);
         }
-        return result;
+    }
+
+    private String getBatchingAdvice(SaveStatistics saveStatistics) {
+        if (saveStatistics.getIdentityInserts() > 0) {
+            return ("%d inserts use an IDENTITY generated identifier, which Hibernate cannot batch. "
+                    + "Use a SEQUENCE generator with a pooled optimizer.").formatted(saveStatistics.getIdentityInserts());
+        }
+        if (batchSize <= 1) {
+            return "Set hibernate.jdbc.batch_size (estimated for a batch size of %d).".formatted(SUGGESTED_BATCH_SIZE);
+        }
+        if (!orderInserts && saveStatistics.getInsertedEntityTypes() > 1) {
+            return "Enable hibernate.order_inserts so inserts of different entities do not interrupt each other's batches.";
+        }
+        return "The inserts were flushed in batches smaller than hibernate.jdbc.batch_size, avoid flushing inside the loop.";
+    }
+
+    private static String getRepositoryName(Object target) {
+        if (Proxy.isProxyClass(target.getClass())) {
+            Class<?>[] interfaces = target.getClass().getInterfaces();
+            return interfaces.length > 0 ? interfaces[0].getName() : "";
+        } else if (target.getClass().getName().contains("CGLIB")) {
+            return target.getClass().getName();
+        }
+        return "";
     }
 }
@@ -0,0 +1,103 @@
+package com.additionaltools.additionalselect;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * JDBC and insert counters collected for a single repository save call.
+ *
+ * <p>An instance is confined to the thread calling the repository, so the counters are plain fields without any
+ * synchronization. It is filled by {@link SaveStatisticsListener} for as long as it is bound in
+ * {@link SaveStatisticsHolder}. Statements executed in a JDBC batch are counted once per executed batch, not per
+ * added row.</p>
+ */
+public class SaveStatistics {
+
+    private int statementExecutions;
+    private int batchExecutions;
+    private int inserts;
+    private int identityInserts;
+    private Map<String, Integer> insertsByEntity;
+
+    void statementExecuted() {
+        statementExecutions++;
+    }
+
+    void batchExecuted() {
+        batchExecutions++;
+    }
+
+    void entityInserted(String entityName, boolean identity) {
+        inserts++;
+        if (identity) {
+            identityInserts++;
+        }
+        if (insertsByEntity == null) {
+            insertsByEntity = new HashMap<>(4);
+        }
+        insertsByEntity.merge(entityName, 1, Integer::sum);
+    }
+
+    /**
+     * @return the statements executed on their own, outside a JDBC batch
+     */
+    public int getStatementExecutions() {
+        return statementExecutions;
+    }
+
+    public int getBatchExecutions() {
+        return batchExecutions;
+    }
+
+    public int getInserts() {
+        return inserts;
+    }
+
+    /**
+     * @return the inserts of entities with an identifier generated by the database on execution ({@code IDENTITY}),
+     * which Hibernate never batches
+     */
+    public int getIdentityInserts() {
+        return identityInserts;
+    }
+
+    /**
+     * @return the inserts sent one statement at a time
+     */
+    public int getNonBatchedInserts() {
+        return batchExecutions == 0 ? inserts : identityInserts;
+    }
+
+    /**
+     * @return the statements other than inserts executed on their own, mostly the selects issued by {@code merge}
+     */
+    public int getSelects() {
+        return Math.max(statementExecutions - getNonBatchedInserts(), 0);
+    }
+
+    /**
+     * @return the JDBC round trips used for the inserts
+     */
+    public int getInsertRoundTrips() {
+        return getNonBatchedInserts() + batchExecutions;
+    }
+
+    /**
+     * @param batchSize the number of rows sent in one batch
+     * @return the round trips the inserts need when every entity is inserted in full batches of {@code batchSize}
+     */
+    public int getOptimalInsertRoundTrips(int batchSize) {
+        if (insertsByEntity == null) {
+            return 0;
+        }
+        int roundTrips = 0;
+        for (int entityInserts : insertsByEntity.values()) {
+            roundTrips += (entityInserts + batchSize - 1) / batchSize;
+        }
+        return roundTrips;
+    }
+
+    public int getInsertedEntityTypes() {
+        return insertsByEntity == null ? 0 : insertsByEntity.size();
+    }
+}
@@ -0,0 +1,44 @@
+package com.additionaltools.additionalselect;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the {@link SaveStatistics} bound to the current thread.
+ *
+ * <p>More than one instance can be bound at the same time (a repository saving through another repository), every
+ * bound instance receives the same events.</p>
+ */
+public final class SaveStatisticsHolder {
+
+    private static final ThreadLocal<List<SaveStatistics>> boundStatistics = new ThreadLocal<>();
+
+    private SaveStatisticsHolder() {
+    }
+
+    public static void bind(SaveStatistics saveStatistics) {
+        List<SaveStatistics> bound = boundStatistics.get();
+        if (bound == null) {
+            bound = new ArrayList<>(2);
+            boundStatistics.set(bound);
+        }
+        bound.add(saveStatistics);
+    }
+
+    public static void unbind(SaveStatistics saveStatistics) {
+        List<SaveStatistics> bound = boundStatistics.get();
+        if (bound != null) {
+            bound.remove(saveStatistics);
+            if (bound.isEmpty()) {
+                boundStatistics.remove();
+            }
+        }
+    }
+
+    /**
+     * @return statistics bound to the current thread, or {@code null} when nothing is bound
+     */
+    static List<SaveStatistics> getBound() {
+        return boundStatistics.get();
+    }
+}
@@ -0,0 +1,56 @@
+package com.additionaltools.additionalselect;
+
+import org.hibernate.SessionEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+
+import java.util.List;
+
+/**
+ * Records the JDBC activity and the inserts of the current thread into the bound {@link SaveStatistics}.
+ *
+ * <p>Hibernate creates an instance for every session as the {@code hibernate.session.events.auto} listener, which
+ * receives the single and batch statement executions. A shared instance is appended to the
+ * {@code POST_INSERT} listeners, which are notified when an insert is executed or added to a batch. Nothing is
+ * recorded while no statistics are bound, so the listener costs a thread-local lookup per event.</p>
+ */
+public class SaveStatisticsListener implements SessionEventListener, PostInsertEventListener {
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        List<SaveStatistics> bound = SaveStatisticsHolder.getBound();
+        if (bound != null) {
+            for (SaveStatistics saveStatistics : bound) {
+                saveStatistics.statementExecuted();
+            }
+        }
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        List<SaveStatistics> bound = SaveStatisticsHolder.getBound();
+        if (bound != null) {
+            for (SaveStatistics saveStatistics : bound) {
+                saveStatistics.batchExecuted();
+            }
+        }
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        List<SaveStatistics> bound = SaveStatisticsHolder.getBound();
+        if (bound != null) {
+            EntityPersister persister = event.getPersister();
+            boolean identity = persister.getGenerator().generatedOnExecution();
+            for (SaveStatistics saveStatistics : bound) {
+                saveStatistics.entityInserted(persister.getEntityName(), identity);
+            }
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+}
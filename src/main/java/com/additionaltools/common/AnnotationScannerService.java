@@ -3,26 +3,58 @@ package com.additionaltools.common;
 import org.reflections.Reflections;
 import org.reflections.scanners.Scanners;
 import org.reflections.util.ConfigurationBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackages;
 import org.springframework.stereotype.Service;
+import org.springframework.util.ClassUtils;
 
 import java.lang.annotation.Annotation;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 
+/**
+ * Finds annotated classes with Reflections.
+ *
+ * <p>The enabling annotations are resolved from the metadata of the registered bean definitions, which already
+ * contains the bootstrap class. Only when no bean definition carries the annotation are the auto-configuration
+ * packages scanned, and the whole classpath is scanned as a last resort. Every result is memoized per annotation and
+ * package for the life of the context.</p>
+ */
 @Service
-public class AnnotationScannerService {
+public class AnnotationScannerService implements BeanFactoryAware {
+
+    private static final Logger log = LoggerFactory.getLogger(AnnotationScannerService.class);
+
+    private final Map<PackageScan, Set<Class<?>>> packageScans = new ConcurrentHashMap<>();
+    private final Map<Class<? extends Annotation>, String> annotatedPackages = new ConcurrentHashMap<>();
+    private volatile Reflections classpathReflections;
+    private BeanFactory beanFactory;
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) {
+        this.beanFactory = beanFactory;
+    }
 
     public Set<Class<?>> findInPackage(String basePackage, Class<? extends Annotation> annotation) {
-        Reflections reflections = new Reflections(basePackage);
-        return reflections.getTypesAnnotatedWith(annotation);
+        return packageScans.computeIfAbsent(new PackageScan(basePackage, annotation),
+                scan -> Set.copyOf(new Reflections(scan.basePackage()).getTypesAnnotatedWith(scan.annotation())));
     }
 
     /**
      * Retrieves the package name of the first class annotated with the specified annotation.
      *
-     * <p>This method scans all packages in the application context to find a class annotated
-     * with the given annotation. It then returns the name of the package where the class is located.
-     * If no class with the specified annotation is found, an {@link IllegalStateException} is thrown.</p>
+     * <p>The bean definitions of the application context are checked first, then the auto-configuration packages
+     * and finally the whole classpath. If no class with the specified annotation is found, an
+     * {@link IllegalStateException} is thrown.</p>
      *
      * @param annotation the annotation class to search for. The method will look for classes
      *                   that are annotated with this annotation.
@@ -31,21 +63,69 @@ public class AnnotationScannerService {
      *                               in the scanned packages.
      */
     public String getPackageNameForAnnotatedClass(Class<? extends Annotation> annotation) {
-        ConfigurationBuilder configurationBuilder = new ConfigurationBuilder()
-                .forPackage("") // Search all packages
-                .setScanners(Scanners.SubTypes, Scanners.TypesAnnotated);
+        return annotatedPackages.computeIfAbsent(annotation, this::resolvePackageName);
+    }
 
-        Reflections reflections = new Reflections(configurationBuilder);
-        Set<Class<?>> startupClass = reflections.getTypesAnnotatedWith(annotation);
-        Class<?> baseClass = startupClass.stream().findFirst()
+    private String resolvePackageName(Class<? extends Annotation> annotation) {
+        return findInBeanDefinitions(annotation)
+                .or(() -> findInAutoConfigurationPackages(annotation))
+                .or(() -> findInClasspath(annotation))
                 .orElseThrow(() -> new IllegalStateException(
-                        "No class annotated with @EnableHashCodeAnalysis was found in the scanned packages. " +
+                        "No class annotated with @" + annotation.getSimpleName() + " was found in the scanned packages. " +
                         "Please ensure that there is at least one class with this annotation and that it is properly included in " +
                         "the package scanning configuration. If you are using a custom configuration, verify that the scanned packages " +
                         "are correctly specified."
                 ));
+    }
 
-        return baseClass.getPackageName();
+    private Optional<String> findInBeanDefinitions(Class<? extends Annotation> annotation) {
+        if (!(beanFactory instanceof ConfigurableListableBeanFactory listableBeanFactory)) {
+            return Optional.empty();
+        }
+        for (String beanName : listableBeanFactory.getBeanDefinitionNames()) {
+            BeanDefinition beanDefinition = listableBeanFactory.getBeanDefinition(beanName);
+            if (beanDefinition instanceof AnnotatedBeanDefinition annotatedBeanDefinition
+                && annotatedBeanDefinition.getMetadata().isAnnotated(annotation.getName())) {
+                return Optional.of(ClassUtils.getPackageName(annotatedBeanDefinition.getMetadata().getClassName()));
+            }
+        }
+        return Optional.empty();
     }
-}
 
+    private Optional<String> findInAutoConfigurationPackages(Class<? extends Annotation> annotation) {
+        if (beanFactory == null || !AutoConfigurationPackages.has(beanFactory)) {
+            return Optional.empty();
+        }
+        return AutoConfigurationPackages.get(beanFactory).stream()
+                .flatMap(basePackage -> findInPackage(basePackage, annotation).stream())
+                .findFirst()
+                .map(Class::getPackageName);
+    }
+
+    private Optional<String> findInClasspath(Class<? extends Annotation> annotation) {
+        log.info("Scanning the whole classpath for @{}", annotation.getSimpleName());
+        return getClasspathReflections().getTypesAnnotatedWith(annotation).stream()
+                .findFirst()
+                .map(Class::getPackageName);
+    }
+
+    private Reflections getClasspathReflections() {
+        Reflections reflections = classpathReflections;
+        if (reflections == null) {
+            synchronized (this) {
+                reflections = classpathReflections;
+                if (reflections == null) {
+                    ConfigurationBuilder configurationBuilder = new ConfigurationBuilder()
+                            .forPackage("") // Search all packages
+                            .setScanners(Scanners.SubTypes, Scanners.TypesAnnotated);
+                    reflections = new Reflections(configurationBuilder);
+                    classpathReflections = reflections;
+                }
+            }
+        }
+        return reflections;
+    }
+
+    private record PackageScan(String basePackage, Class<? extends Annotation> annotation) {
+    }
+}
@@ -0,0 +1,120 @@
+package com.additionaltools.common;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Starts the threads of the background analyses.
+ *
+ * <p>The library is compiled for Java 17, so virtual threads are looked up once with {@link MethodHandles} and used
+ * when the runtime has them, from Java 21. On Java 17 the analyses run on daemon platform threads instead, a fixed
+ * number of them for an executor.</p>
+ */
+public final class BackgroundThreads {
+
+    private static final MethodHandle OF_VIRTUAL;
+    private static final MethodHandle NAME;
+    private static final MethodHandle NUMBERED_NAME;
+    private static final MethodHandle FACTORY;
+    private static final MethodHandle THREAD_PER_TASK_EXECUTOR;
+
+    static {
+        MethodHandle ofVirtual = null;
+        MethodHandle name = null;
+        MethodHandle numberedName = null;
+        MethodHandle factory = null;
+        MethodHandle threadPerTaskExecutor = null;
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = lookup.findStatic(Thread.class, "ofVirtual",
+                    MethodType.methodType(Class.forName("java.lang.Thread$Builder$OfVirtual")));
+            name = lookup.findVirtual(builder, "name", MethodType.methodType(builder, String.class));
+            numberedName = lookup.findVirtual(builder, "name", MethodType.methodType(builder, String.class, long.class));
+            factory = lookup.findVirtual(builder, "factory", MethodType.methodType(ThreadFactory.class));
+            threadPerTaskExecutor = lookup.findStatic(Executors.class, "newThreadPerTaskExecutor",
+                    MethodType.methodType(ExecutorService.class, ThreadFactory.class));
+        } catch (ReflectiveOperationException e) {
+            // before Java 21, platform threads are used
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        NAME = name;
+        NUMBERED_NAME = numberedName;
+        FACTORY = factory;
+        THREAD_PER_TASK_EXECUTOR = threadPerTaskExecutor;
+    }
+
+    private BackgroundThreads() {
+    }
+
+    /**
+     * @return whether the threads are virtual threads
+     */
+    public static boolean isVirtual() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * Starts a thread running the task.
+     *
+     * @param name the name of the thread
+     * @param task the task
+     * @return the started thread
+     */
+    public static Thread start(String name, Runnable task) {
+        Thread thread = newThreadFactory(name, false).newThread(task);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Creates an executor running every task on a virtual thread of its own, or at most {@code parallelism} tasks at a
+     * time on platform threads. Tasks on virtual threads limit their concurrency themselves.
+     *
+     * @param namePrefix  the name of the threads, followed by a sequence number
+     * @param parallelism the number of platform threads
+     * @return the executor, to be shut down by the caller
+     */
+    public static ExecutorService newExecutor(String namePrefix, int parallelism) {
+        if (!isVirtual()) {
+            return Executors.newFixedThreadPool(parallelism, newPlatformThreadFactory(namePrefix, true));
+        }
+        try {
+            return (ExecutorService) THREAD_PER_TASK_EXECUTOR.invoke(newThreadFactory(namePrefix, true));
+        } catch (Throwable e) {
+            throw new IllegalStateException("Unable to create a virtual thread executor", e);
+        }
+    }
+
+    private static ThreadFactory newThreadFactory(String name, boolean numbered) {
+        if (!isVirtual()) {
+            return newPlatformThreadFactory(name, numbered);
+        }
+        try {
+            Object builder = OF_VIRTUAL.invoke();
+            builder = numbered ? NUMBERED_NAME.invoke(builder, name, 0L) : NAME.invoke(builder, name);
+            return (ThreadFactory) FACTORY.invoke(builder);
+        } catch (Throwable e) {
+            throw new IllegalStateException("Unable to create a virtual thread factory", e);
+        }
+    }
+
+    /**
+     * @param numbered whether the name is followed by a sequence number, starting at 0
+     * @return a factory of daemon platform threads, used when the runtime has no virtual threads
+     */
+    static ThreadFactory newPlatformThreadFactory(String name, boolean numbered) {
+        AtomicLong sequence = new AtomicLong();
+        return task -> {
+            Thread thread = new Thread(task, numbered ? name + sequence.getAndIncrement() : name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,82 @@
+package com.additionaltools.common;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Finds the application code that called into the library, Hibernate or Spring.
+ *
+ * <p>The stack is walked lazily with {@link StackWalker} and the walk stops at the first frame whose class belongs
+ * to the base package, so only the frames above it are materialized. Generated Hibernate and Spring proxies of
+ * application classes are skipped, so the initialization of a lazy proxy is attributed to the code calling it.
+ * Every call site is formatted once as {@code className.methodName:lineNumber} and the same string instance is
+ * returned for later calls.</p>
+ */
+public class CallSiteResolver {
+
+    public static final String UNKNOWN_CALL_SITE = "Unknown method";
+    private static final int MAX_CACHED_CALL_SITES = 10_000;
+    private static final StackWalker stackWalker = StackWalker.getInstance();
+    private final String basePath;
+    private final Function<Stream<StackWalker.StackFrame>, Optional<StackWalker.StackFrame>> firstApplicationFrame;
+    private final ConcurrentMap<CallSite, String> callSites = new ConcurrentHashMap<>();
+
+    public CallSiteResolver(String basePath) {
+        this.basePath = basePath;
+        Predicate<StackWalker.StackFrame> inBasePath = frame -> frame.getClassName().startsWith(basePath)
+                                                                && !isGeneratedProxy(frame.getClassName());
+        this.firstApplicationFrame = frames -> frames.filter(inBasePath).findFirst();
+    }
+
+    /**
+     * @return the first call site of the current thread located in the base package, or {@link #UNKNOWN_CALL_SITE}
+     */
+    public String resolve() {
+        return stackWalker.walk(firstApplicationFrame)
+                .map(this::toCallSite)
+                .orElse(UNKNOWN_CALL_SITE);
+    }
+
+    /**
+     * @param callSite a call site returned by {@link #resolve()}, or {@code null}
+     * @return the {@code className.methodName} of the call site without its line number, or
+     * {@link #UNKNOWN_CALL_SITE} for {@code null}
+     */
+    public static String getMethod(String callSite) {
+        if (callSite == null) {
+            return UNKNOWN_CALL_SITE;
+        }
+        int lineNumber = callSite.lastIndexOf(':');
+        return lineNumber < 0 ? callSite : callSite.substring(0, lineNumber);
+    }
+
+    private static boolean isGeneratedProxy(String className) {
+        return className.contains("$HibernateProxy$") || className.contains("$$");
+    }
+
+    public String getBasePath() {
+        return basePath;
+    }
+
+    private String toCallSite(StackWalker.StackFrame frame) {
+        CallSite callSite = new CallSite(frame.getClassName(), frame.getMethodName(), frame.getLineNumber());
+        String cached = callSites.get(callSite);
+        if (cached != null) {
+            return cached;
+        }
+        if (callSites.size() >= MAX_CACHED_CALL_SITES) {
+            return callSite.format();
+        }
+        return callSites.computeIfAbsent(callSite, CallSite::format);
+    }
+
+    private record CallSite(String className, String methodName, int lineNumber) {
+        private String format() {
+            return className + "." + methodName + ":" + lineNumber;
+        }
+    }
+}
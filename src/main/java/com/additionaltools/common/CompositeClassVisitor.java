@@ -0,0 +1,203 @@
+package com.additionaltools.common;
+
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Dispatches one {@link org.objectweb.asm.ClassReader} pass to several visitors.
+ *
+ * <p>Forwards the class, field, method and instruction events used by the entity collectors. Annotation values are
+ * not forwarded, only the annotation descriptors.</p>
+ */
+final class CompositeClassVisitor extends ClassVisitor {
+
+    private final List<ClassVisitor> visitors;
+
+    private CompositeClassVisitor(List<ClassVisitor> visitors) {
+        super(Opcodes.ASM9);
+        this.visitors = visitors;
+    }
+
+    /**
+     * @return the only visitor itself, or a composite of all of them
+     */
+    static ClassVisitor of(List<? extends ClassVisitor> visitors) {
+        return visitors.size() == 1 ? visitors.get(0) : new CompositeClassVisitor(List.copyOf(visitors));
+    }
+
+    @Override
+    public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+        for (ClassVisitor visitor : visitors) {
+            visitor.visit(version, access, name, signature, superName, interfaces);
+        }
+    }
+
+    @Override
+    public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+        for (ClassVisitor visitor : visitors) {
+            visitor.visitAnnotation(descriptor, visible);
+        }
+        return null;
+    }
+
+    @Override
+    public FieldVisitor visitField(int access, String name, String descriptor, String signature, Object value) {
+        List<FieldVisitor> fieldVisitors = new ArrayList<>(visitors.size());
+        for (ClassVisitor visitor : visitors) {
+            FieldVisitor fieldVisitor = visitor.visitField(access, name, descriptor, signature, value);
+            if (fieldVisitor != null) {
+                fieldVisitors.add(fieldVisitor);
+            }
+        }
+        return fieldVisitors.isEmpty() ? null : new CompositeFieldVisitor(fieldVisitors);
+    }
+
+    @Override
+    public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+        List<MethodVisitor> methodVisitors = new ArrayList<>(visitors.size());
+        for (ClassVisitor visitor : visitors) {
+            MethodVisitor methodVisitor = visitor.visitMethod(access, name, descriptor, signature, exceptions);
+            if (methodVisitor != null) {
+                methodVisitors.add(methodVisitor);
+            }
+        }
+        if (methodVisitors.isEmpty()) {
+            return null;
+        }
+        return methodVisitors.size() == 1 ? methodVisitors.get(0) : new CompositeMethodVisitor(methodVisitors);
+    }
+
+    @Override
+    public void visitEnd() {
+        for (ClassVisitor visitor : visitors) {
+            visitor.visitEnd();
+        }
+    }
+
+    private static final class CompositeFieldVisitor extends FieldVisitor {
+        private final List<FieldVisitor> visitors;
+
+        private CompositeFieldVisitor(List<FieldVisitor> visitors) {
+            super(Opcodes.ASM9);
+            this.visitors = visitors;
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+            for (FieldVisitor visitor : visitors) {
+                visitor.visitAnnotation(descriptor, visible);
+            }
+            return null;
+        }
+
+        @Override
+        public void visitEnd() {
+            for (FieldVisitor visitor : visitors) {
+                visitor.visitEnd();
+            }
+        }
+    }
+
+    private static final class CompositeMethodVisitor extends MethodVisitor {
+        private final List<MethodVisitor> visitors;
+
+        private CompositeMethodVisitor(List<MethodVisitor> visitors) {
+            super(Opcodes.ASM9);
+            this.visitors = visitors;
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+            for (MethodVisitor visitor : visitors) {
+                visitor.visitAnnotation(descriptor, visible);
+            }
+            return null;
+        }
+
+        @Override
+        public void visitCode() {
+            for (MethodVisitor visitor : visitors) {
+                visitor.visitCode();
+            }
+        }
+
+        @Override
+        public void visitInsn(int opcode) {
+            for (MethodVisitor visitor : visitors) {
+                visitor.visitInsn(opcode);
+            }
+        }
+
+        @Override
+        public void visitIntInsn(int opcode, int operand) {
+            for (MethodVisitor visitor : visitors) {
+                visitor.visitIntInsn(opcode, operand);
+            }
+        }
+
+        @Override
+        public void visitVarInsn(int opcode, int varIndex) {
+            for (MethodVisitor visitor : visitors) {
+                visitor.visitVarInsn(opcode, varIndex);
+            }
+        }
+
+        @Override
+        public void visitTypeInsn(int opcode, String type) {
+            for (MethodVisitor visitor : visitors) {
+                visitor.visitTypeInsn(opcode, type);
+            }
+        }
+
+        @Override
+        public void visitFieldInsn(int opcode, String owner, String name, String descriptor) {
+            for (MethodVisitor visitor : visitors) {
+                visitor.visitFieldInsn(opcode, owner, name, descriptor);
+            }
+        }
+
+        @Override
+        public void visitMethodInsn(int opcode, String owner, String name, String descriptor, boolean isInterface) {
+            for (MethodVisitor visitor : visitors) {
+                visitor.visitMethodInsn(opcode, owner, name, descriptor, isInterface);
+            }
+        }
+
+        @Override
+        public void visitInvokeDynamicInsn(String name, String descriptor, Handle bootstrapMethodHandle,
+                                           Object... bootstrapMethodArguments) {
+            for (MethodVisitor visitor : visitors) {
+                visitor.visitInvokeDynamicInsn(name, descriptor, bootstrapMethodHandle, bootstrapMethodArguments);
+            }
+        }
+
+        @Override
+        public void visitJumpInsn(int opcode, Label label) {
+            for (MethodVisitor visitor : visitors) {
+                visitor.visitJumpInsn(opcode, label);
+            }
+        }
+
+        @Override
+        public void visitLdcInsn(Object value) {
+            for (MethodVisitor visitor : visitors) {
+                visitor.visitLdcInsn(value);
+            }
+        }
+
+        @Override
+        public void visitEnd() {
+            for (MethodVisitor visitor : visitors) {
+                visitor.visitEnd();
+            }
+        }
+    }
+}
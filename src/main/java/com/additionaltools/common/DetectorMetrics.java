@@ -0,0 +1,49 @@
+package com.additionaltools.common;
+
+/**
+ * Numbers published by the detectors, next to the text sent to the {@code LoggingService}.
+ *
+ * <p>Findings are published per type and per method signature or repository they were detected in, never per
+ * {@code Class.method:line} call site, so the number of time series is bounded by the code base.</p>
+ *
+ * <p>The default implementation does nothing. When Micrometer is on the classpath {@link MicrometerDetectorMetrics}
+ * is registered and bound to the application's {@code MeterRegistry}.</p>
+ */
+public interface DetectorMetrics {
+
+    DetectorMetrics NOOP = new DetectorMetrics() {
+        @Override
+        public void recordFinding(String type, String method) {
+            // no metrics
+        }
+
+        @Override
+        public void recordAdditionalQueries(String type, String method, long additionalQueries) {
+            // no metrics
+        }
+
+        @Override
+        public void recordOverhead(String detector, long nanos) {
+            // no metrics
+        }
+    };
+
+    /**
+     * @param type   the finding type, e.g. {@code N+1_SELECT_DETECTED}
+     * @param method the method signature or repository the finding was detected in
+     */
+    void recordFinding(String type, String method);
+
+    /**
+     * @param type              the finding type
+     * @param method            the method signature or repository the finding was detected in
+     * @param additionalQueries the number of additional queries caused by one occurrence
+     */
+    void recordAdditionalQueries(String type, String method, long additionalQueries);
+
+    /**
+     * @param detector the detector, e.g. {@code nplus1}
+     * @param nanos    the time spent by the detector itself
+     */
+    void recordOverhead(String detector, long nanos);
+}
@@ -0,0 +1,53 @@
+package com.additionaltools.common;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the periodic work of the detectors, e.g. finding summaries and log flushes, on a single daemon thread owned by
+ * the library.
+ *
+ * <p>The detectors do not use {@code @EnableScheduling}, which would switch on the scheduling of the whole
+ * application, and the executor is not exposed as a bean, so it is never picked up as the application's scheduler.
+ * A task that throws is logged and runs again at its next period.</p>
+ */
+public class DetectorScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(DetectorScheduler.class);
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "hiperanalyzer-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * @param name         the task, for logging
+     * @param task         the task to run
+     * @param periodMillis the period, which is also the delay of the first run
+     */
+    public void scheduleAtFixedRate(String name, Runnable task, long periodMillis) {
+        if (periodMillis < 1) {
+            throw new IllegalArgumentException("The period of %s must be positive, got %d".formatted(name, periodMillis));
+        }
+        executor.scheduleAtFixedRate(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                log.warn("Scheduled task {} failed", name, e);
+            }
+        }, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Cancels the tasks, a running task completes without being interrupted.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
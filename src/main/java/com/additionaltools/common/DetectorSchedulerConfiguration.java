@@ -0,0 +1,18 @@
+package com.additionaltools.common;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the {@link DetectorScheduler} shared by the detectors.
+ */
+@Configuration
+public class DetectorSchedulerConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean(DetectorScheduler.class)
+    public DetectorScheduler detectorScheduler() {
+        return new DetectorScheduler();
+    }
+}
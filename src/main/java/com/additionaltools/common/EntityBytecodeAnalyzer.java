@@ -0,0 +1,34 @@
+package com.additionaltools.common;
+
+import org.objectweb.asm.ClassVisitor;
+
+import java.util.List;
+
+/**
+ * A static analysis of the {@code @Entity} bytecode, run by the {@link EntityBytecodeIndex}.
+ *
+ * <p>The index reads every entity class once and passes it to the collectors of all analyzers in a single
+ * {@link org.objectweb.asm.ClassReader#accept} pass, then asks each analyzer for its findings.</p>
+ *
+ * @param <C> the visitor collecting the data the analyzer needs from one entity class
+ */
+public interface EntityBytecodeAnalyzer<C extends ClassVisitor> {
+
+    /**
+     * @return the package whose entities are analyzed
+     */
+    String getBasePath();
+
+    /**
+     * @param entityName the fully qualified name of the entity class about to be read
+     * @return a fresh collector for the entity
+     */
+    C createCollector(String entityName);
+
+    /**
+     * @param entityName the fully qualified name of the entity class
+     * @param collector  the collector that visited the entity class
+     * @return the findings for the entity, each one logged as a warning
+     */
+    List<String> analyze(String entityName, C collector);
+}
@@ -0,0 +1,188 @@
+package com.additionaltools.common;
+
+import com.additionaltools.logging.LoggingService;
+import jakarta.persistence.Entity;
+import org.objectweb.asm.ClassReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.SmartLifecycle;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Runs all {@link EntityBytecodeAnalyzer}s over the {@code @Entity} classes in a single pass.
+ *
+ * <p>The entities of every base path are looked up once through the memoizing {@link AnnotationScannerService}.
+ * Each entity class file is then read once by the {@link EntityBytecodeReader} and visited by the collectors of all
+ * analyzers interested in it with one {@link ClassReader#accept} call, instead of every analyzer scanning the classpath and reading the class itself.</p>
+ *
+ * <p>When the application was analyzed at build time, the findings of the entities whose class files did not change
+ * since are read from the {@link EntityFindingsFile} instead; only the entities it does not cover are read.</p>
+ *
+ * <p>In background mode the analysis does not block the singleton initialization: it starts on a
+ * {@link BackgroundThreads background thread}, virtual from Java 21, when the context is started, as the last
+ * {@link SmartLifecycle} phase, which happens with and without Spring Boot, and {@link #getCompletion()} completes
+ * once all findings have been reported.</p>
+ */
+public class EntityBytecodeIndex implements SmartInitializingSingleton, SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(EntityBytecodeIndex.class);
+    private final AnnotationScannerService annotationScannerService;
+    private final ObjectProvider<EntityBytecodeAnalyzer<?>> analyzerProvider;
+    private final LoggingService loggingService;
+    private final int parallelism;
+    private final boolean background;
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+    private volatile boolean running;
+
+    public EntityBytecodeIndex(AnnotationScannerService annotationScannerService,
+                               ObjectProvider<EntityBytecodeAnalyzer<?>> analyzerProvider,
+                               LoggingService loggingService, int parallelism, boolean background) {
+        this.annotationScannerService = annotationScannerService;
+        this.analyzerProvider = analyzerProvider;
+        this.loggingService = loggingService;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.background = background;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!background) {
+            analyzeAndComplete(analyzerProvider.orderedStream().toList());
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (!background || completion.isDone()) {
+            return;
+        }
+        List<EntityBytecodeAnalyzer<?>> analyzers = analyzerProvider.orderedStream().toList();
+        BackgroundThreads.start("hiperanalyzer-startup-analysis", () -> analyzeAndComplete(analyzers));
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * @return the last phase, so the analysis starts after the application components
+     */
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * @return a future completed once the findings of the startup analysis have been reported, or completed
+     * exceptionally if the analysis failed
+     */
+    public CompletableFuture<Void> getCompletion() {
+        return completion;
+    }
+
+    private void analyzeAndComplete(List<EntityBytecodeAnalyzer<?>> analyzers) {
+        try {
+            analyze(analyzers);
+            completion.complete(null);
+        } catch (RuntimeException e) {
+            completion.completeExceptionally(e);
+            if (!background) {
+                throw e;
+            }
+            log.warn("Entity analysis failed", e);
+        }
+    }
+
+    /**
+     * Reports the findings of the analyzers, precomputed ones for the entities the build-time analysis covers.
+     *
+     * @param analyzers the analyzers to run
+     */
+    public void analyze(List<EntityBytecodeAnalyzer<?>> analyzers) {
+        if (analyzers.isEmpty()) {
+            return;
+        }
+        Map<String, Class<?>> entities = new HashMap<>();
+        Map<String, List<EntityBytecodeAnalyzer<?>>> analyzersByEntity = new HashMap<>();
+        for (EntityBytecodeAnalyzer<?> analyzer : analyzers) {
+            for (Class<?> entity : annotationScannerService.findInPackage(analyzer.getBasePath(), Entity.class)) {
+                entities.put(entity.getName(), entity);
+                analyzersByEntity.computeIfAbsent(entity.getName(), key -> new ArrayList<>()).add(analyzer);
+            }
+        }
+        List<String> entityNames = List.copyOf(entities.keySet());
+        Optional<EntityFindingsFile.Contents> precomputed = EntityFindingsFile.load(getClass().getClassLoader());
+        if (precomputed.isPresent()) {
+            entityNames = reportPrecomputed(precomputed.get(), entities, analyzersByEntity);
+        }
+        EntityBytecodeReader.analyzeAll(entityNames, entityName -> openClassFile(entities.get(entityName)),
+                        analyzersByEntity::get, parallelism)
+                .forEach(this::report);
+    }
+
+    /**
+     * @return the names of the entities the precomputed findings do not cover
+     */
+    private List<String> reportPrecomputed(EntityFindingsFile.Contents precomputed, Map<String, Class<?>> entities,
+                                           Map<String, List<EntityBytecodeAnalyzer<?>>> analyzersByEntity) {
+        Set<String> covered = new HashSet<>();
+        List<String> uncovered = new ArrayList<>();
+        for (Map.Entry<String, Class<?>> entity : entities.entrySet()) {
+            List<String> analyzerNames = analyzersByEntity.get(entity.getKey()).stream()
+                    .map(analyzer -> analyzer.getClass().getName())
+                    .toList();
+            if (precomputed.covers(entity.getKey(), checksum(entity.getValue()), analyzerNames)) {
+                covered.add(entity.getKey());
+            } else {
+                uncovered.add(entity.getKey());
+            }
+        }
+        log.info("Using entity findings precomputed at build time ({}) for {} of {} entities",
+                EntityFindingsFile.LOCATION, covered.size(), entities.size());
+        precomputed.findings().stream()
+                .filter(finding -> covered.contains(finding.entityName()))
+                .filter(finding -> analyzersByEntity.get(finding.entityName()).stream()
+                        .anyMatch(analyzer -> analyzer.getClass().getName().equals(finding.analyzer())))
+                .forEach(this::report);
+        return uncovered;
+    }
+
+    private static InputStream openClassFile(Class<?> entity) {
+        return entity.getClassLoader().getResourceAsStream(entity.getName().replace('.', '/') + ".class");
+    }
+
+    /**
+     * @return the checksum of the class file of the entity, or {@code -1}, which matches no checksum, if it cannot be read
+     */
+    private static long checksum(Class<?> entity) {
+        try (InputStream classFile = openClassFile(entity)) {
+            return classFile == null ? -1 : EntityFindingsFile.checksum(classFile.readAllBytes());
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private void report(EntityFinding finding) {
+        loggingService.addLog(finding.message());
+        log.warn(finding.message());
+    }
+}
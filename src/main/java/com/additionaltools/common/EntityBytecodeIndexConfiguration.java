@@ -0,0 +1,31 @@
+package com.additionaltools.common;
+
+import com.additionaltools.logging.LoggingService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Registers the {@link EntityBytecodeIndex} shared by the static entity analyses.
+ *
+ * <p>{@code hiperanalyzer.analysis.parallelism} sets the number of entities read at a time, by default the number
+ * of available processors. With {@code hiperanalyzer.analysis.background=true} the analysis runs on a virtual thread
+ * once the context is started instead of during the context refresh.</p>
+ */
+@Configuration
+@Import(EmptyLoggingConfiguration.class)
+public class EntityBytecodeIndexConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean(EntityBytecodeIndex.class)
+    public EntityBytecodeIndex entityBytecodeIndex(AnnotationScannerService annotationScannerService,
+                                                   ObjectProvider<EntityBytecodeAnalyzer<?>> analyzerProvider,
+                                                   LoggingService loggingService,
+                                                   @Value("${hiperanalyzer.analysis.parallelism:0}") int parallelism,
+                                                   @Value("${hiperanalyzer.analysis.background:false}") boolean background) {
+        return new EntityBytecodeIndex(annotationScannerService, analyzerProvider, loggingService, parallelism, background);
+    }
+}
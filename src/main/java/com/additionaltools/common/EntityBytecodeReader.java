@@ -0,0 +1,211 @@
+package com.additionaltools.common;
+
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.Opcodes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Reads one entity class file for a set of {@link EntityBytecodeAnalyzer}s.
+ *
+ * <p>Only depends on ASM, so it is shared by the {@link EntityBytecodeIndex} at startup and the build-time analysis
+ * of the {@code n-plus-1-detector-maven-plugin}.</p>
+ *
+ * <p>{@link #analyzeAll} reads and visits every entity on its own {@link BackgroundThreads background thread},
+ * virtual from Java 21, with at most {@code parallelism} entities read at a time. Every entity gets its own collectors, so collectors are confined to one thread and the
+ * analyzers themselves must be stateless. The findings are merged in entity name order, whatever the parallelism.</p>
+ */
+public final class EntityBytecodeReader {
+
+    private static final Logger log = LoggerFactory.getLogger(EntityBytecodeReader.class);
+
+    private EntityBytecodeReader() {
+    }
+
+    /**
+     * Opens the class file of an entity.
+     */
+    @FunctionalInterface
+    public interface ClassFileSource {
+        /**
+         * @param entityName the fully qualified name of the entity class
+         * @return the class file, or {@code null} if it cannot be found
+         * @throws IOException if the class file cannot be opened
+         */
+        InputStream open(String entityName) throws IOException;
+    }
+
+    /**
+     * Analyzes all entities, in parallel when {@code parallelism} is greater than one.
+     *
+     * @param entityNames the fully qualified names of the entity classes
+     * @param classFiles  opens the class file of an entity
+     * @param analyzers   the analyzers to run for an entity
+     * @param parallelism the number of entities read at a time
+     * @return the findings, ordered by entity name and then by analyzer
+     */
+    public static List<EntityFinding> analyzeAll(List<String> entityNames, ClassFileSource classFiles,
+                                                 Function<String, List<? extends EntityBytecodeAnalyzer<?>>> analyzers,
+                                                 int parallelism) {
+        return analyzeAll(entityNames, classFiles, classReader -> true, analyzers, parallelism);
+    }
+
+    /**
+     * Analyzes the classes accepted by the filter, reading every class file only once.
+     *
+     * @param classNames  the fully qualified names of the classes
+     * @param classFiles  opens the class file of a class
+     * @param filter      decides from the read class file whether the class is analyzed, e.g. {@link #isEntity}
+     * @param analyzers   the analyzers to run for a class
+     * @param parallelism the number of classes read at a time
+     * @return the findings, ordered by class name and then by analyzer
+     */
+    public static List<EntityFinding> analyzeAll(List<String> classNames, ClassFileSource classFiles,
+                                                 Predicate<ClassReader> filter,
+                                                 Function<String, List<? extends EntityBytecodeAnalyzer<?>>> analyzers,
+                                                 int parallelism) {
+        List<String> sortedClassNames = classNames.stream().sorted().toList();
+        if (parallelism <= 1 || sortedClassNames.size() <= 1) {
+            return sortedClassNames.stream()
+                    .flatMap(className -> analyzeClass(className, classFiles, filter, analyzers).stream())
+                    .toList();
+        }
+        Semaphore permits = new Semaphore(parallelism);
+        ExecutorService executor = BackgroundThreads.newExecutor("hiperanalyzer-analysis-", parallelism);
+        try {
+            List<Future<List<EntityFinding>>> analyses = new ArrayList<>(sortedClassNames.size());
+            for (String className : sortedClassNames) {
+                analyses.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return analyzeClass(className, classFiles, filter, analyzers);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+            List<EntityFinding> findings = new ArrayList<>();
+            for (Future<List<EntityFinding>> analysis : analyses) {
+                findings.addAll(analysis.get());
+            }
+            return findings;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Entity analysis interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Entity analysis failed", e.getCause());
+        } finally {
+            // every analysis is done unless one failed, the others are not needed then
+            executor.shutdownNow();
+        }
+    }
+
+    private static List<EntityFinding> analyzeClass(String className, ClassFileSource classFiles,
+                                                    Predicate<ClassReader> filter,
+                                                    Function<String, List<? extends EntityBytecodeAnalyzer<?>>> analyzers) {
+        try (InputStream classFile = classFiles.open(className)) {
+            if (classFile == null) {
+                log.warn("Class file of entity {} not found, skipping bytecode analysis", className);
+                return List.of();
+            }
+            ClassReader classReader = new ClassReader(classFile);
+            if (!filter.test(classReader)) {
+                return List.of();
+            }
+            return analyze(className, classReader, analyzers.apply(className));
+        } catch (IOException | RuntimeException e) {
+            log.error("Unable to read the class file of entity {}", className, e);
+            return List.of();
+        }
+    }
+
+    /**
+     * @param classReader the class file
+     * @return whether the class is annotated with {@code @Entity}
+     */
+    public static boolean isEntity(ClassReader classReader) {
+        EntityDetector detector = new EntityDetector();
+        classReader.accept(detector, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+        return detector.entity;
+    }
+
+    /**
+     * Visits the class file with the collectors of all analyzers in a single {@link ClassReader#accept} pass and
+     * collects their findings.
+     *
+     * @param entityName the fully qualified name of the entity class
+     * @param classFile  the class file of the entity
+     * @param analyzers  the analyzers to run
+     * @return the findings, in analyzer order
+     * @throws IOException if the class file cannot be read
+     */
+    public static List<EntityFinding> analyze(String entityName, InputStream classFile,
+                                              List<? extends EntityBytecodeAnalyzer<?>> analyzers) throws IOException {
+        return analyze(entityName, new ClassReader(classFile), analyzers);
+    }
+
+    private static List<EntityFinding> analyze(String entityName, ClassReader classReader,
+                                               List<? extends EntityBytecodeAnalyzer<?>> analyzers) {
+        List<Analysis<?>> analyses = new ArrayList<>(analyzers.size());
+        List<ClassVisitor> collectors = new ArrayList<>(analyzers.size());
+        for (EntityBytecodeAnalyzer<?> analyzer : analyzers) {
+            Analysis<?> analysis = Analysis.start(analyzer, entityName);
+            analyses.add(analysis);
+            collectors.add(analysis.collector());
+        }
+
+        classReader.accept(CompositeClassVisitor.of(collectors), ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+
+        List<EntityFinding> findings = new ArrayList<>();
+        for (Analysis<?> analysis : analyses) {
+            String analyzerName = analysis.analyzer().getClass().getName();
+            try {
+                for (String message : analysis.findings(entityName)) {
+                    findings.add(new EntityFinding(analyzerName, entityName, message));
+                }
+            } catch (RuntimeException e) {
+                log.error("Problem with {} of entity {}", analysis.analyzer().getClass().getSimpleName(), entityName, e);
+            }
+        }
+        return findings;
+    }
+
+    private record Analysis<C extends ClassVisitor>(EntityBytecodeAnalyzer<C> analyzer, C collector) {
+
+        private static <C extends ClassVisitor> Analysis<C> start(EntityBytecodeAnalyzer<C> analyzer, String entityName) {
+            return new Analysis<>(analyzer, analyzer.createCollector(entityName));
+        }
+
+        private List<String> findings(String entityName) {
+            return analyzer.analyze(entityName, collector);
+        }
+    }
+
+    private static final class EntityDetector extends ClassVisitor {
+        private static final String ENTITY_DESCRIPTOR = "Ljakarta/persistence/Entity;";
+        private boolean entity;
+
+        private EntityDetector() {
+            super(Opcodes.ASM9);
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+            entity |= ENTITY_DESCRIPTOR.equals(descriptor);
+            return null;
+        }
+    }
+}
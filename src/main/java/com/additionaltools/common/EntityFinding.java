@@ -0,0 +1,11 @@
+package com.additionaltools.common;
+
+/**
+ * A finding of an {@link EntityBytecodeAnalyzer} for one entity.
+ *
+ * @param analyzer   the class name of the analyzer that reported the finding
+ * @param entityName the fully qualified name of the entity class
+ * @param message    the finding
+ */
+public record EntityFinding(String analyzer, String entityName, String message) {
+}
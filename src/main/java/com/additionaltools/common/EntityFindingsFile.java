@@ -0,0 +1,214 @@
+package com.additionaltools.common;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * The entity findings precomputed at build time by the {@code n-plus-1-detector-maven-plugin}.
+ *
+ * <p>The file is stored at {@value #LOCATION} inside the application jar. After a header line, it lists what was
+ * analyzed: one {@code #analyzer<TAB>analyzer} line per analyzer and one {@code #entity<TAB>entityName<TAB>checksum}
+ * line per entity, with the CRC-32 of the class file the findings were computed from. Every other line holds one
+ * {@link EntityFinding} as {@code analyzer<TAB>entityName<TAB>message}, with backslashes, tabs and line breaks of the
+ * message escaped.</p>
+ *
+ * <p>The findings of an entity are only used while its class file still has the recorded checksum and all the
+ * analyzers run for it were run at build time; other entities are analyzed at startup. Files written before the
+ * analyzed entities were recorded cover no entity.</p>
+ */
+public final class EntityFindingsFile {
+
+    public static final String LOCATION = "META-INF/hiperanalyzer/entity-findings.tsv";
+    private static final String HEADER = "# hiperanalyzer entity findings v2";
+    private static final String ANALYZER = "#analyzer\t";
+    private static final String ENTITY = "#entity\t";
+
+    private EntityFindingsFile() {
+    }
+
+    /**
+     * Writes the findings below the given classes directory.
+     *
+     * @param classesDirectory the root of the compiled classes, e.g. {@code target/classes}
+     * @param analyzers        the class names of the analyzers run for every entity
+     * @param checksums        the {@link #checksum} of the class file of every analyzed entity, by entity name
+     * @param findings         the findings to write, in the order they should be reported
+     * @return the written file
+     * @throws IOException if the file cannot be written
+     */
+    public static Path write(Path classesDirectory, Collection<String> analyzers, Map<String, Long> checksums,
+                             List<EntityFinding> findings) throws IOException {
+        Path file = classesDirectory.resolve(LOCATION);
+        Files.createDirectories(file.getParent());
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.write('\n');
+            for (String analyzer : analyzers) {
+                writer.write(ANALYZER + analyzer + '\n');
+            }
+            for (String entityName : checksums.keySet().stream().sorted().toList()) {
+                writer.write(ENTITY + entityName + '\t' + Long.toHexString(checksums.get(entityName)) + '\n');
+            }
+            for (EntityFinding finding : findings) {
+                writer.write(finding.analyzer());
+                writer.write('\t');
+                writer.write(finding.entityName());
+                writer.write('\t');
+                writer.write(escape(finding.message()));
+                writer.write('\n');
+            }
+        }
+        return file;
+    }
+
+    /**
+     * @param classFile the bytes of a class file
+     * @return the CRC-32 of the class file
+     */
+    public static long checksum(byte[] classFile) {
+        CRC32 crc = new CRC32();
+        crc.update(classFile);
+        return crc.getValue();
+    }
+
+    /**
+     * Loads the findings of every {@value #LOCATION} visible to the class loader.
+     *
+     * @param classLoader the class loader of the application
+     * @return the findings, or an empty optional if no module of the application was analyzed at build time
+     */
+    public static Optional<Contents> load(ClassLoader classLoader) {
+        try {
+            Enumeration<URL> resources = classLoader.getResources(LOCATION);
+            if (!resources.hasMoreElements()) {
+                return Optional.empty();
+            }
+            Map<String, AnalyzedEntity> analyzedEntities = new HashMap<>();
+            List<EntityFinding> findings = new ArrayList<>();
+            while (resources.hasMoreElements()) {
+                try (InputStream inputStream = resources.nextElement().openStream()) {
+                    read(inputStream, analyzedEntities, findings);
+                }
+            }
+            return Optional.of(new Contents(Map.copyOf(analyzedEntities), List.copyOf(findings)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read " + LOCATION, e);
+        }
+    }
+
+    private static void read(InputStream inputStream, Map<String, AnalyzedEntity> analyzedEntities,
+                             List<EntityFinding> findings) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        Set<String> analyzers = new HashSet<>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.startsWith(ANALYZER)) {
+                analyzers.add(line.substring(ANALYZER.length()));
+                continue;
+            }
+            if (line.startsWith(ENTITY)) {
+                String[] columns = line.split("\t");
+                if (columns.length != 3) {
+                    throw new IOException("Malformed line in " + LOCATION + ": " + line);
+                }
+                try {
+                    analyzedEntities.put(columns[1],
+                            new AnalyzedEntity(Long.parseUnsignedLong(columns[2], 16), Set.copyOf(analyzers)));
+                } catch (NumberFormatException e) {
+                    throw new IOException("Malformed line in " + LOCATION + ": " + line, e);
+                }
+                continue;
+            }
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            int analyzerEnd = line.indexOf('\t');
+            int entityEnd = line.indexOf('\t', analyzerEnd + 1);
+            if (analyzerEnd < 0 || entityEnd < 0) {
+                throw new IOException("Malformed line in " + LOCATION + ": " + line);
+            }
+            findings.add(new EntityFinding(line.substring(0, analyzerEnd), line.substring(analyzerEnd + 1, entityEnd),
+                    unescape(line.substring(entityEnd + 1))));
+        }
+    }
+
+    private static String escape(String message) {
+        StringBuilder escaped = new StringBuilder(message.length());
+        for (int i = 0; i < message.length(); i++) {
+            char c = message.charAt(i);
+            switch (c) {
+                case '\\' -> escaped.append("\\\\");
+                case '\t' -> escaped.append("\\t");
+                case '\n' -> escaped.append("\\n");
+                case '\r' -> escaped.append("\\r");
+                default -> escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static String unescape(String message) {
+        StringBuilder unescaped = new StringBuilder(message.length());
+        for (int i = 0; i < message.length(); i++) {
+            char c = message.charAt(i);
+            if (c == '\\' && i + 1 < message.length()) {
+                char next = message.charAt(++i);
+                unescaped.append(switch (next) {
+                    case 't' -> '\t';
+                    case 'n' -> '\n';
+                    case 'r' -> '\r';
+                    default -> next;
+                });
+            } else {
+                unescaped.append(c);
+            }
+        }
+        return unescaped.toString();
+    }
+
+    /**
+     * @param checksum  the {@link #checksum} of the class file the findings were computed from
+     * @param analyzers the class names of the analyzers run for the entity
+     */
+    public record AnalyzedEntity(long checksum, Set<String> analyzers) {
+    }
+
+    /**
+     * The contents of all {@value #LOCATION} files of the application.
+     *
+     * @param analyzedEntities the entities analyzed at build time, by entity name
+     * @param findings         the findings of the analyzed entities, in the order they were written
+     */
+    public record Contents(Map<String, AnalyzedEntity> analyzedEntities, List<EntityFinding> findings) {
+
+        /**
+         * @param entityName the fully qualified name of the entity class
+         * @param checksum   the {@link #checksum} of its current class file
+         * @param analyzers  the class names of the analyzers to run for the entity
+         * @return whether the findings of the file are still those the analyzers would report for the entity
+         */
+        public boolean covers(String entityName, long checksum, Collection<String> analyzers) {
+            AnalyzedEntity analyzedEntity = analyzedEntities.get(entityName);
+            return analyzedEntity != null && analyzedEntity.checksum() == checksum
+                   && analyzedEntity.analyzers().containsAll(analyzers);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.additionaltools.common;
+
+import com.additionaltools.logging.LoggingService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregates repeated findings instead of logging every occurrence.
+ *
+ * <p>Findings are keyed by type, method signature and detail (e.g. the collection role). The first occurrence of a
+ * key is reported in full by the detector, later occurrences only update the counters of the key. Keys that occurred
+ * again since the previous summary are logged as {@code FINDING_SUMMARY} lines every summary interval and at
+ * shutdown.</p>
+ *
+ * <p>Recording only touches striped {@link LongAdder}/{@link LongAccumulator} cells, so concurrent transactions
+ * reporting the same finding do not contend on a shared counter. Every occurrence is also published to the
+ * {@link DetectorMetrics}.</p>
+ */
+public class FindingAggregator {
+
+    private static final Logger log = LoggerFactory.getLogger(FindingAggregator.class);
+    private final LoggingService loggingService;
+    private final DetectorMetrics detectorMetrics;
+    private final ConcurrentMap<FindingKey, FindingStatistics> findings = new ConcurrentHashMap<>();
+
+    public FindingAggregator(LoggingService loggingService, DetectorMetrics detectorMetrics) {
+        this.loggingService = loggingService;
+        this.detectorMetrics = detectorMetrics;
+    }
+
+    /**
+     * Records an occurrence of a finding detected in a method, published to the metrics under its signature.
+     *
+     * @param type      the finding type, e.g. {@code N+1_SELECT_DETECTED}
+     * @param signature the method the finding was detected in
+     * @param detail    what the finding is about, e.g. the collection role
+     * @param extra     the number of additional queries caused by this occurrence
+     * @return {@code true} if this is the first occurrence of the finding and it should be reported in full
+     */
+    public boolean record(String type, String signature, String detail, long extra) {
+        return record(type, signature, detail, extra, signature);
+    }
+
+    /**
+     * Records an occurrence of a finding detected at a call site, published to the metrics under the method or
+     * repository.
+     *
+     * @param type      the finding type, e.g. {@code N+1_SELECT_DETECTED}
+     * @param signature the method or call site the finding was detected in
+     * @param detail    what the finding is about, e.g. the collection role
+     * @param extra     the number of additional queries caused by this occurrence
+     * @param method    the method signature or repository of the finding in the metrics, e.g.
+     *                  {@link CallSiteResolver#getMethod(String)} of the call site
+     * @return {@code true} if this is the first occurrence of the finding and it should be reported in full
+     */
+    public boolean record(String type, String signature, String detail, long extra, String method) {
+        FindingKey key = new FindingKey(type, signature, detail);
+        FindingStatistics statistics = findings.get(key);
+        boolean first = false;
+        if (statistics == null) {
+            FindingStatistics created = new FindingStatistics(System.currentTimeMillis());
+            statistics = findings.putIfAbsent(key, created);
+            if (statistics == null) {
+                statistics = created;
+                first = true;
+            }
+        }
+        statistics.record(extra);
+        detectorMetrics.recordFinding(type, method);
+        detectorMetrics.recordAdditionalQueries(type, method, extra);
+        return first;
+    }
+
+    /**
+     * Logs a summary line for every finding that occurred since the previous summary.
+     */
+    public synchronized void emitSummary() {
+        findings.forEach((key, statistics) -> {
+            long count = statistics.count.sum();
+            long newOccurrences = count - statistics.reportedCount;
+            if (newOccurrences <= 0) {
+                return;
+            }
+            statistics.reportedCount = count;
+            String summary = ("FINDING_SUMMARY: Type: %s; Method: %s; Detail: %s; Occurrences: %d (+%d since last summary); " +
+                              "First seen: %s; Last seen: %s; Additional queries min/avg/max: %d/%.1f/%d")
+                    .formatted(key.type(), key.signature(), key.detail(), count, newOccurrences,
+                            Instant.ofEpochMilli(statistics.firstSeen), Instant.ofEpochMilli(statistics.lastSeen.get()),
+                            statistics.min.get(), (double) statistics.total.sum() / count, statistics.max.get());
+            loggingService.addLog(summary);
+            log.info(summary);
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        emitSummary();
+    }
+
+    private record FindingKey(String type, String signature, String detail) {
+    }
+
+    private static final class FindingStatistics {
+        private final long firstSeen;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder total = new LongAdder();
+        private final LongAccumulator min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+        private final LongAccumulator max = new LongAccumulator(Math::max, Long.MIN_VALUE);
+        private final LongAccumulator lastSeen = new LongAccumulator(Math::max, Long.MIN_VALUE);
+        private long reportedCount;
+
+        private FindingStatistics(long firstSeen) {
+            this.firstSeen = firstSeen;
+        }
+
+        private void record(long extra) {
+            count.increment();
+            total.add(extra);
+            min.accumulate(extra);
+            max.accumulate(extra);
+            lastSeen.accumulate(System.currentTimeMillis());
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.additionaltools.common;
+
+import com.additionaltools.logging.LoggingService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Registers the {@link FindingAggregator} shared by the runtime detectors.
+ *
+ * <p>Summaries are emitted every {@code hiperanalyzer.findings.summary-interval} milliseconds by the
+ * {@link DetectorScheduler}.</p>
+ */
+@Configuration
+@Import({EmptyLoggingConfiguration.class, MetricsConfiguration.class, DetectorSchedulerConfiguration.class})
+public class FindingsConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean(FindingAggregator.class)
+    public FindingAggregator findingAggregator(LoggingService loggingService, DetectorMetrics detectorMetrics,
+                                               DetectorScheduler detectorScheduler,
+                                               @Value("${hiperanalyzer.findings.summary-interval:60000}") long summaryInterval) {
+        FindingAggregator findingAggregator = new FindingAggregator(loggingService, detectorMetrics);
+        detectorScheduler.scheduleAtFixedRate("finding summary", findingAggregator::emitSummary, summaryInterval);
+        return findingAggregator;
+    }
+}
@@ -0,0 +1,39 @@
+package com.additionaltools.common;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Registers the {@link DetectorMetrics}: {@link MicrometerDetectorMetrics} when Micrometer is on the classpath,
+ * {@link DetectorMetrics#NOOP} otherwise.
+ */
+@Configuration
+@Import(MetricsConfiguration.MicrometerMetricsConfiguration.class)
+public class MetricsConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean(DetectorMetrics.class)
+    public DetectorMetrics detectorMetrics() {
+        return DetectorMetrics.NOOP;
+    }
+
+    @Configuration
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+    static class MicrometerMetricsConfiguration {
+
+        /**
+         * @param methodTag whether the findings are tagged with their method signature or repository,
+         *                  {@code hiperanalyzer.metrics.method-tag}
+         */
+        @Bean
+        @ConditionalOnMissingBean(DetectorMetrics.class)
+        public MicrometerDetectorMetrics micrometerDetectorMetrics(
+                @Value("${hiperanalyzer.metrics.method-tag:true}") boolean methodTag) {
+            return new MicrometerDetectorMetrics(methodTag);
+        }
+    }
+}
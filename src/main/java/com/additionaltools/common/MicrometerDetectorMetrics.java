@@ -0,0 +1,108 @@
+package com.additionaltools.common;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the detector metrics to a Micrometer {@link MeterRegistry}.
+ *
+ * <ul>
+ *     <li>{@code hiperanalyzer.findings} - counter tagged with {@code type} and {@code method}</li>
+ *     <li>{@code hiperanalyzer.additional.queries} - distribution of additional queries per occurrence, tagged with
+ *     {@code type} and {@code method}</li>
+ *     <li>{@code hiperanalyzer.overhead} - timer of the time spent by the detectors, tagged with {@code detector}</li>
+ * </ul>
+ *
+ * <p>Spring Boot Actuator binds every {@link MeterBinder} bean to its registry, without Actuator call
+ * {@link #bindTo(MeterRegistry)} yourself. Until then nothing is recorded. Every tag has a bounded set of values, the
+ * finding types, the method signatures and repositories of the application and the detectors, and the meters are
+ * cached per tag values, so recording does not go through the registry lookup. Without the {@code method} tag the
+ * findings are published per type only.</p>
+ */
+public class MicrometerDetectorMetrics implements DetectorMetrics, MeterBinder {
+
+    private final boolean methodTag;
+    private volatile MeterRegistry registry;
+    private final ConcurrentMap<MeterKey, Counter> findings = new ConcurrentHashMap<>();
+    private final ConcurrentMap<MeterKey, DistributionSummary> additionalQueries = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Timer> overhead = new ConcurrentHashMap<>();
+
+    public MicrometerDetectorMetrics() {
+        this(true);
+    }
+
+    /**
+     * @param methodTag whether the findings are tagged with the method signature or repository they were detected in
+     */
+    public MicrometerDetectorMetrics(boolean methodTag) {
+        this.methodTag = methodTag;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void recordFinding(String type, String method) {
+        MeterRegistry meterRegistry = registry;
+        if (meterRegistry == null) {
+            return;
+        }
+        findings.computeIfAbsent(getKey(type, method), key -> Counter.builder("hiperanalyzer.findings")
+                        .description("Findings reported by the detectors")
+                        .tags(key.getTags())
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    @Override
+    public void recordAdditionalQueries(String type, String method, long count) {
+        MeterRegistry meterRegistry = registry;
+        if (meterRegistry == null) {
+            return;
+        }
+        additionalQueries.computeIfAbsent(getKey(type, method), key -> DistributionSummary
+                        .builder("hiperanalyzer.additional.queries")
+                        .description("Additional queries caused by one occurrence of a finding")
+                        .tags(key.getTags())
+                        .register(meterRegistry))
+                .record(count);
+    }
+
+    @Override
+    public void recordOverhead(String detector, long nanos) {
+        MeterRegistry meterRegistry = registry;
+        if (meterRegistry == null) {
+            return;
+        }
+        overhead.computeIfAbsent(detector, key -> Timer.builder("hiperanalyzer.overhead")
+                        .description("Time spent by the detectors themselves")
+                        .tag("detector", key)
+                        .register(meterRegistry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private MeterKey getKey(String type, String method) {
+        return new MeterKey(type, methodTag ? Objects.requireNonNullElse(method, CallSiteResolver.UNKNOWN_CALL_SITE) : null);
+    }
+
+    /**
+     * @param method the method signature or repository, {@code null} without the {@code method} tag
+     */
+    private record MeterKey(String type, String method) {
+        private Tags getTags() {
+            Tags tags = Tags.of("type", type);
+            return method == null ? tags : tags.and("method", method);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.additionaltools.common;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps the overhead of every detector within a budget relative to the transaction time.
+ *
+ * <p>The detectors report the time spent on the application threads with {@link #recordOverhead(String, long)},
+ * which is also published to the {@link DetectorMetrics}. The governor measures the duration of every new transaction
+ * as a {@link TransactionExecutionListener}, which Spring Boot registers with the auto-configured transaction
+ * manager.</p>
+ *
+ * <p>Every evaluation interval the overhead of each detector is compared with the transaction time of the interval.
+ * A detector using more than {@code budget} of it has its sampling rate halved, down to {@code minRate}, a detector
+ * using less than half of the budget has it doubled back up to 1. Detectors ask {@link #shouldRun(String)} before
+ * doing their work, so the overhead follows the sampling rate. Every change of the rate is logged.</p>
+ *
+ * <p>If overhead is recorded but no transaction time ever arrives, the governor is not registered with the transaction
+ * manager and cannot throttle. This is logged once as a warning.</p>
+ */
+public class OverheadGovernor implements TransactionExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(OverheadGovernor.class);
+    private final DetectorMetrics detectorMetrics;
+    private final boolean enabled;
+    private final double budget;
+    private final double minRate;
+    private final ConcurrentMap<String, DetectorBudget> detectorBudgets = new ConcurrentHashMap<>();
+    private final LongAdder transactionNanos = new LongAdder();
+    private final ThreadLocal<TransactionStarts> transactionStarts = ThreadLocal.withInitial(TransactionStarts::new);
+    private final LongSupplier nanoTime;
+    private final AtomicBoolean missingTransactionTimeLogged = new AtomicBoolean();
+    private volatile boolean transactionTimeRecorded;
+
+    /**
+     * @param detectorMetrics the metrics receiving the overhead of the detectors
+     * @param enabled         whether detectors exceeding the budget are throttled
+     * @param budget          the share of the transaction time a detector may use, e.g. {@code 0.02}
+     * @param minRate         the lowest sampling rate a throttled detector is lowered to
+     */
+    public OverheadGovernor(DetectorMetrics detectorMetrics, boolean enabled, double budget, double minRate) {
+        this(detectorMetrics, enabled, budget, minRate, System::nanoTime);
+    }
+
+    OverheadGovernor(DetectorMetrics detectorMetrics, boolean enabled, double budget, double minRate, LongSupplier nanoTime) {
+        this.detectorMetrics = detectorMetrics;
+        this.nanoTime = nanoTime;
+        this.enabled = enabled;
+        this.budget = budget;
+        this.minRate = minRate;
+    }
+
+    /**
+     * @param detector the detector about to do its work
+     * @return {@code true} if the detector should inspect the current operation
+     */
+    public boolean shouldRun(String detector) {
+        double rate = getBudget(detector).samplingRate;
+        return rate >= 1.0 || ThreadLocalRandom.current().nextDouble() < rate;
+    }
+
+    /**
+     * Records time a detector spent on an application thread.
+     *
+     * @param detector the detector
+     * @param nanos    the time spent, in nanoseconds
+     */
+    public void recordOverhead(String detector, long nanos) {
+        getBudget(detector).overheadNanos.add(nanos);
+        detectorMetrics.recordOverhead(detector, nanos);
+    }
+
+    /**
+     * @param detector the detector
+     * @return the current sampling rate of the detector, between {@code minRate} and 1
+     */
+    public double getSamplingRate(String detector) {
+        return getBudget(detector).samplingRate;
+    }
+
+    @Override
+    public void afterBegin(TransactionExecution transaction, Throwable beginFailure) {
+        if (beginFailure == null && transaction.isNewTransaction()) {
+            transactionStarts.get().push(nanoTime.getAsLong());
+        }
+    }
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+        transactionCompleted(transaction);
+    }
+
+    @Override
+    public void afterRollback(TransactionExecution transaction, Throwable rollbackFailure) {
+        transactionCompleted(transaction);
+    }
+
+    /**
+     * Adjusts the sampling rate of every detector to the overhead measured since the previous evaluation.
+     */
+    public void evaluate() {
+        long intervalTransactionNanos = transactionNanos.sumThenReset();
+        if (intervalTransactionNanos > 0) {
+            transactionTimeRecorded = true;
+        }
+        detectorBudgets.forEach((detector, detectorBudget) -> {
+            long overheadNanos = detectorBudget.overheadNanos.sumThenReset();
+            if (!enabled) {
+                return;
+            }
+            if (intervalTransactionNanos == 0) {
+                if (overheadNanos > 0 && !transactionTimeRecorded && missingTransactionTimeLogged.compareAndSet(false, true)) {
+                    log.warn("Detector {} recorded overhead, but no transaction time was measured. The overhead budget is "
+                             + "not applied: register the {} as TransactionExecutionListener of the transaction manager",
+                            detector, OverheadGovernor.class.getSimpleName());
+                }
+                return;
+            }
+            double share = (double) overheadNanos / intervalTransactionNanos;
+            double rate = detectorBudget.samplingRate;
+            if (share > budget && rate > minRate) {
+                detectorBudget.samplingRate = Math.max(rate / 2, minRate);
+                log.warn("Detector {} used {} of the transaction time, over the budget of {}. Sampling rate lowered from {} to {}",
+                        detector, percent(share), percent(budget), percent(rate), percent(detectorBudget.samplingRate));
+            } else if (share < budget / 2 && rate < 1.0) {
+                detectorBudget.samplingRate = Math.min(rate * 2, 1.0);
+                log.info("Detector {} used {} of the transaction time, within the budget of {}. Sampling rate raised from {} to {}",
+                        detector, percent(share), percent(budget), percent(rate), percent(detectorBudget.samplingRate));
+            }
+        });
+    }
+
+    private void transactionCompleted(TransactionExecution transaction) {
+        if (transaction.isNewTransaction()) {
+            TransactionStarts starts = transactionStarts.get();
+            if (starts.depth > 0) {
+                transactionNanos.add(nanoTime.getAsLong() - starts.pop());
+            }
+        }
+    }
+
+    private DetectorBudget getBudget(String detector) {
+        DetectorBudget detectorBudget = detectorBudgets.get(detector);
+        return detectorBudget != null ? detectorBudget : detectorBudgets.computeIfAbsent(detector, key -> new DetectorBudget());
+    }
+
+    private static String percent(double share) {
+        return String.format("%.2f%%", share * 100);
+    }
+
+    private static final class DetectorBudget {
+        private final LongAdder overheadNanos = new LongAdder();
+        private volatile double samplingRate = 1.0;
+    }
+
+    /**
+     * Start times of the new transactions running on a thread, a suspended transaction stays below the one
+     * started with {@code REQUIRES_NEW}.
+     */
+    private static final class TransactionStarts {
+        private long[] starts = new long[4];
+        private int depth;
+
+        private void push(long start) {
+            if (depth == starts.length) {
+                starts = Arrays.copyOf(starts, depth * 2);
+            }
+            starts[depth++] = start;
+        }
+
+        private long pop() {
+            return starts[--depth];
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.additionaltools.common;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Registers the {@link OverheadGovernor} shared by the runtime detectors.
+ *
+ * <p>A detector using more than {@code hiperanalyzer.overhead.budget} of the transaction time is sampled less, down
+ * to {@code hiperanalyzer.overhead.min-rate}. The overhead is evaluated every
+ * {@code hiperanalyzer.overhead.evaluation-interval} milliseconds, {@code hiperanalyzer.overhead.governor.enabled=false}
+ * only measures it.</p>
+ */
+@Configuration
+@Import({MetricsConfiguration.class, DetectorSchedulerConfiguration.class})
+public class OverheadGovernorConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean(OverheadGovernor.class)
+    public OverheadGovernor overheadGovernor(DetectorMetrics detectorMetrics,
+                                             DetectorScheduler detectorScheduler,
+                                             @Value("${hiperanalyzer.overhead.governor.enabled:true}") boolean enabled,
+                                             @Value("${hiperanalyzer.overhead.budget:0.02}") double budget,
+                                             @Value("${hiperanalyzer.overhead.min-rate:0.01}") double minRate,
+                                             @Value("${hiperanalyzer.overhead.evaluation-interval:10000}") long evaluationInterval) {
+        OverheadGovernor overheadGovernor = new OverheadGovernor(detectorMetrics, enabled, budget, minRate);
+        detectorScheduler.scheduleAtFixedRate("overhead evaluation", overheadGovernor::evaluate, evaluationInterval);
+        return overheadGovernor;
+    }
+}
@@ -0,0 +1,14 @@
+package com.additionaltools.common;
+
+/**
+ * Normalized form of a SQL statement and its 64-bit hash.
+ *
+ * <p>Statements that differ only in literal values, the length of {@code IN} lists, whitespace, comments or
+ * keyword case have the same fingerprint.</p>
+ *
+ * @param normalizedSql the normalized statement
+ * @param hash          FNV-1a hash of the normalized statement
+ * @see SqlNormalizer
+ */
+public record SqlFingerprint(String normalizedSql, long hash) {
+}
@@ -0,0 +1,370 @@
+package com.additionaltools.common;
+
+import java.util.Iterator;
+
+/**
+ * Single-pass SQL tokenizer producing {@link SqlFingerprint}s and statements with bound arguments.
+ *
+ * <p>Normalization rules:</p>
+ * <ul>
+ *     <li>string and numeric literals become {@code ?}, a numeric literal together with its unary minus
+ *     ({@code -5} and {@code - 5} after an operator, a parenthesis, a comma or a keyword), so {@code a = -5} and
+ *     {@code a = 5} share a fingerprint while {@code a - 5} keeps its subtraction,</li>
+ *     <li>an {@code IN} list made only of literals and placeholders becomes {@code (?+)},</li>
+ *     <li>comments are removed, whitespace is kept only as a single space between words and parentheses
+ *     ({@code name = ?} becomes {@code name=?}),</li>
+ *     <li>everything outside quoted identifiers is lower-cased.</li>
+ * </ul>
+ *
+ * <p>No regular expressions are used. {@link #hash(String)} does not allocate at all,
+ * {@link #fingerprint(String)} allocates only the normalized string and its buffer.</p>
+ */
+public final class SqlNormalizer {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final String COLLAPSED_LIST = "(?+)";
+    private static final String IN = "in";
+    /**
+     * Keywords a value can follow, a minus after them is the sign of a literal.
+     */
+    private static final String[] VALUE_KEYWORDS = {IN, "select", "where", "and", "or", "not", "on", "having",
+            "when", "then", "else", "case", "between", "like", "is", "by", "set", "values", "limit", "offset",
+            "return"};
+
+    private SqlNormalizer() {
+    }
+
+    public static SqlFingerprint fingerprint(String sql) {
+        // a collapsed list "(?+)" is the only output longer than its input, and the input is at least "(?)"
+        char[] buffer = new char[sql.length() + sql.length() / 3 + 1];
+        int[] normalizedLength = new int[1];
+        long hash = normalize(sql, buffer, normalizedLength);
+        return new SqlFingerprint(new String(buffer, 0, normalizedLength[0]), hash);
+    }
+
+    /**
+     * Computes the same hash as {@link #fingerprint(String)} without building the normalized statement.
+     *
+     * @param sql the statement
+     * @return the fingerprint hash
+     */
+    public static long hash(String sql) {
+        return normalize(sql, null, null);
+    }
+
+    /**
+     * Hashes the text without normalizing it, with the FNV-1a hash of the fingerprints.
+     *
+     * @param text any text, e.g. an execution plan
+     * @return the FNV-1a hash of the characters of the text
+     */
+    public static long hashText(String text) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < text.length(); i++) {
+            hash = (hash ^ text.charAt(i)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * Replaces every placeholder outside literals, quoted identifiers and comments with the next argument.
+     * Placeholders without a matching argument are left as {@code ?}.
+     *
+     * @param sql       the statement with {@code ?} placeholders
+     * @param arguments SQL literals, in placeholder order
+     * @return the statement with bound arguments
+     */
+    public static String bindArguments(String sql, Iterable<String> arguments) {
+        Iterator<String> argumentIterator = arguments.iterator();
+        StringBuilder bound = new StringBuilder(sql.length() + 32);
+        int length = sql.length();
+        int copiedUpTo = 0;
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            int skipped = skipNonCode(sql, i);
+            if (skipped != i) {
+                i = skipped;
+            } else if (c == '?') {
+                bound.append(sql, copiedUpTo, i).append(argumentIterator.hasNext() ? argumentIterator.next() : "?");
+                copiedUpTo = ++i;
+            } else {
+                i++;
+            }
+        }
+        return bound.append(sql, copiedUpTo, length).toString();
+    }
+
+    /**
+     * @param sql the statement
+     * @return the number of {@code ?} placeholders outside literals, quoted identifiers and comments
+     */
+    public static int countPlaceholders(String sql) {
+        int count = 0;
+        int length = sql.length();
+        int i = 0;
+        while (i < length) {
+            int skipped = skipNonCode(sql, i);
+            if (skipped != i) {
+                i = skipped;
+            } else {
+                if (sql.charAt(i) == '?') {
+                    count++;
+                }
+                i++;
+            }
+        }
+        return count;
+    }
+
+    private static long normalize(String sql, char[] buffer, int[] normalizedLength) {
+        Normalization normalization = new Normalization(buffer);
+        int length = sql.length();
+        int i = 0;
+        String previousKeyword = null;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                normalization.pendingSpace = true;
+                i++;
+            } else if (startsComment(sql, i)) {
+                normalization.pendingSpace = true;
+                i = skipComment(sql, i);
+            } else if (c == '\'') {
+                normalization.emit('?');
+                i = skipQuoted(sql, i, '\'');
+                previousKeyword = null;
+            } else if (c == '"' || c == '`') {
+                int end = skipQuoted(sql, i, c);
+                for (int j = i; j < end; j++) {
+                    normalization.emit(sql.charAt(j));
+                }
+                i = end;
+                previousKeyword = null;
+            } else if (isDigit(c) && (normalization.pendingSpace || !isIdentifierPart(normalization.last))) {
+                normalization.emit('?');
+                i = skipNumber(sql, i);
+                previousKeyword = null;
+            } else if (c == '-' && isSignPosition(normalization.last, previousKeyword)
+                       && isDigit(charAt(sql, skipWhitespace(sql, i + 1)))) {
+                normalization.emit('?');
+                i = skipNumber(sql, skipWhitespace(sql, i + 1));
+                previousKeyword = null;
+            } else if (c == '(' && previousKeyword == IN && literalListEnd(sql, i) > 0) {
+                for (int j = 0; j < COLLAPSED_LIST.length(); j++) {
+                    normalization.emit(COLLAPSED_LIST.charAt(j));
+                }
+                i = literalListEnd(sql, i);
+                previousKeyword = null;
+            } else if (isIdentifierPart(c)) {
+                int end = i;
+                while (end < length && isIdentifierPart(sql.charAt(end))) {
+                    normalization.emit(toLowerCase(sql.charAt(end)));
+                    end++;
+                }
+                previousKeyword = valueKeyword(sql, i, end);
+                i = end;
+            } else {
+                normalization.emit(c);
+                i++;
+                previousKeyword = null;
+            }
+        }
+        if (normalizedLength != null) {
+            normalizedLength[0] = normalization.size;
+        }
+        return normalization.hash;
+    }
+
+    /**
+     * A minus is a sign at the start of the statement, after an operator, an opening parenthesis, a comma or a
+     * keyword a value can follow, and a subtraction after an identifier, a literal or a closing parenthesis.
+     *
+     * @param last            the last normalized character, {@code 0} at the start
+     * @param previousKeyword the keyword the last word was, or {@code null}
+     */
+    private static boolean isSignPosition(char last, String previousKeyword) {
+        return last == 0 || previousKeyword != null || !(separatesWords(last) || last == ')');
+    }
+
+    /**
+     * @return the {@link #VALUE_KEYWORDS value keyword} the word from {@code start} to {@code end} is, ignoring case,
+     * or {@code null}
+     */
+    private static String valueKeyword(String sql, int start, int end) {
+        for (String keyword : VALUE_KEYWORDS) {
+            if (keyword.length() == end - start && sql.regionMatches(true, start, keyword, 0, keyword.length())) {
+                return keyword;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the index after the closing parenthesis if the list starting at {@code start} contains only
+     * literals and placeholders, otherwise {@code -1}
+     */
+    private static int literalListEnd(String sql, int start) {
+        int length = sql.length();
+        int i = start + 1;
+        boolean expectValue = true;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (expectValue && (c == '?' || c == '\'' || c == '-' || isDigit(c))) {
+                if (c == '?') {
+                    i++;
+                } else if (c == '\'') {
+                    i = skipQuoted(sql, i, '\'');
+                } else {
+                    int numberStart = c == '-' ? skipWhitespace(sql, i + 1) : i;
+                    if (numberStart >= length || !isDigit(sql.charAt(numberStart))) {
+                        return -1;
+                    }
+                    i = skipNumber(sql, numberStart);
+                }
+                expectValue = false;
+            } else if (!expectValue && c == ',') {
+                expectValue = true;
+                i++;
+            } else if (!expectValue && c == ')') {
+                return i + 1;
+            } else {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private static int skipNonCode(String sql, int i) {
+        char c = sql.charAt(i);
+        if (c == '\'' || c == '"' || c == '`') {
+            return skipQuoted(sql, i, c);
+        }
+        if (startsComment(sql, i)) {
+            return skipComment(sql, i);
+        }
+        return i;
+    }
+
+    private static boolean startsComment(String sql, int i) {
+        if (i + 1 >= sql.length()) {
+            return false;
+        }
+        char c = sql.charAt(i);
+        char next = sql.charAt(i + 1);
+        return (c == '-' && next == '-') || (c == '/' && next == '*');
+    }
+
+    private static int skipComment(String sql, int i) {
+        int length = sql.length();
+        if (sql.charAt(i) == '-') {
+            int end = sql.indexOf('\n', i);
+            return end < 0 ? length : end + 1;
+        }
+        int end = sql.indexOf("*/", i + 2);
+        return end < 0 ? length : end + 2;
+    }
+
+    /**
+     * Skips a quoted literal or identifier, a doubled quote character is an escaped quote.
+     */
+    private static int skipQuoted(String sql, int start, char quote) {
+        int length = sql.length();
+        int i = start + 1;
+        while (i < length) {
+            if (sql.charAt(i) == quote) {
+                if (i + 1 < length && sql.charAt(i + 1) == quote) {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return length;
+    }
+
+    private static int skipWhitespace(String sql, int start) {
+        int i = start;
+        while (i < sql.length() && Character.isWhitespace(sql.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static char charAt(String sql, int i) {
+        return i < sql.length() ? sql.charAt(i) : 0;
+    }
+
+    private static int skipNumber(String sql, int start) {
+        int length = sql.length();
+        int i = start;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (isDigit(c) || c == '.') {
+                i++;
+            } else if ((c == 'e' || c == 'E') && i + 1 < length
+                       && (isDigit(sql.charAt(i + 1)) || sql.charAt(i + 1) == '-' || sql.charAt(i + 1) == '+')) {
+                i += 2;
+            } else {
+                return i;
+            }
+        }
+        return i;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || isDigit(c) || c == '_' || c == '$' || c > 127;
+    }
+
+    /**
+     * @return whether whitespace next to the character is significant
+     */
+    private static boolean separatesWords(char c) {
+        return isIdentifierPart(c) || c == '?' || c == '*' || c == '\'' || c == '"' || c == '`';
+    }
+
+    private static char toLowerCase(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    /**
+     * Output of the normalization: hashes every emitted character and optionally collects it in the buffer.
+     */
+    private static final class Normalization {
+        private final char[] buffer;
+        private int size;
+        private long hash = FNV_OFFSET_BASIS;
+        private char last;
+        private boolean pendingSpace;
+
+        private Normalization(char[] buffer) {
+            this.buffer = buffer;
+        }
+
+        private void emit(char c) {
+            if (pendingSpace) {
+                pendingSpace = false;
+                if ((separatesWords(last) || last == ')') && (separatesWords(c) || c == '(')) {
+                    append(' ');
+                }
+            }
+            append(c);
+        }
+
+        private void append(char c) {
+            hash = (hash ^ c) * FNV_PRIME;
+            last = c;
+            if (buffer != null) {
+                buffer[size++] = c;
+            }
+        }
+    }
+}
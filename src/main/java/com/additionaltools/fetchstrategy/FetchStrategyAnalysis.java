@@ -0,0 +1,176 @@
+package com.additionaltools.fetchstrategy;
+
+import com.additionaltools.logging.LoggingService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.FetchStyle;
+import org.hibernate.engine.FetchTiming;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.metamodel.mapping.AttributeMapping;
+import org.hibernate.metamodel.mapping.AttributeMappingsList;
+import org.hibernate.metamodel.mapping.EntityMappingType;
+import org.hibernate.metamodel.mapping.ForeignKeyDescriptor;
+import org.hibernate.metamodel.mapping.PluralAttributeMapping;
+import org.hibernate.metamodel.mapping.internal.ToOneAttributeMapping;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reports the fetch settings of the mapped entities that cause additional queries.
+ *
+ * <p>The analysis reads the Hibernate mapping model of the {@link EntityManagerFactory}, so it sees the effective
+ * settings, including the JPA defaults and {@code hibernate.default_batch_fetch_size}:</p>
+ * <ul>
+ *     <li>{@code EAGER_TO_ONE}: a {@code @ManyToOne} or {@code @OneToOne} loaded eagerly, which is the JPA
+ *     default for to-one associations,</li>
+ *     <li>{@code COLLECTION_WITHOUT_BATCH_FETCH}: a collection initialized with one query per owner, without
+ *     {@code @BatchSize} or {@code @Fetch(FetchMode.SUBSELECT)},</li>
+ *     <li>{@code ONE_TO_ONE_NOT_LAZY}: the inverse ({@code mappedBy}) side of a {@code @OneToOne}, which cannot be
+ *     proxied and is loaded with its owner even when declared lazy, unless the entity is bytecode enhanced.</li>
+ * </ul>
+ *
+ * <p>Every finding estimates the additional queries per root entity loaded by a query, following the eager
+ * associations of the target entity and dividing by the batch size where batch fetching applies.</p>
+ */
+public class FetchStrategyAnalysis implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(FetchStrategyAnalysis.class);
+    private final SessionFactoryImplementor sessionFactory;
+    private final String basePath;
+    private final LoggingService loggingService;
+
+    public FetchStrategyAnalysis(EntityManagerFactory entityManagerFactory, String basePath, LoggingService loggingService) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.basePath = basePath;
+        this.loggingService = loggingService;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (String finding : analyze()) {
+            loggingService.addLog(finding);
+            log.warn(finding);
+        }
+    }
+
+    /**
+     * Analyzes the entities of the base path.
+     *
+     * @return the findings, ordered by entity and attribute
+     */
+    public List<String> analyze() {
+        List<EntityPersister> persisters = new ArrayList<>();
+        sessionFactory.getMappingMetamodel().forEachEntityDescriptor(persister -> {
+            if (persister.getMappedClass().getName().startsWith(basePath)) {
+                persisters.add(persister);
+            }
+        });
+        persisters.sort(Comparator.comparing(EntityPersister::getEntityName));
+
+        List<String> findings = new ArrayList<>();
+        for (EntityPersister persister : persisters) {
+            persister.forEachAttributeMapping(attribute -> {
+                if (attribute.getDeclaringType() == persister) {
+                    analyzeAttribute(persister, attribute, findings);
+                }
+            });
+        }
+        return findings;
+    }
+
+    private void analyzeAttribute(EntityPersister persister, AttributeMapping attribute, List<String> findings) {
+        String attributeName = persister.getEntityName() + "." + attribute.getAttributeName();
+        if (attribute instanceof ToOneAttributeMapping toOne) {
+            EntityMappingType target = toOne.getAssociatedEntityMappingType();
+            if (isInverseOneToOne(toOne) && !isEnhancedForLazyLoading(persister)) {
+                findings.add("""
+                        ONE_TO_ONE_NOT_LAZY: %s is the inverse (mappedBy) side of a @OneToOne to %s. Hibernate cannot \
+                        create a proxy for it and loads it with every %s, even when it is declared lazy. \
+                        Estimated additional queries per root entity: %s. Consider mapping it unidirectionally from the owning \
+                        side with @MapsId, or enable bytecode enhancement with lazy initialization."""
+                        .formatted(attributeName, target.getEntityName(), persister.getEntityName(),
+                                formatEstimate(toOneQueries(toOne, new HashSet<>(Set.of(persister.getEntityName()))))));
+            } else if (toOne.getMappedFetchOptions().getTiming() == FetchTiming.IMMEDIATE) {
+                findings.add("""
+                        EAGER_TO_ONE: %s (%s to %s) is fetched EAGER, which is the JPA default for to-one associations. \
+                        Every query loading %s without fetching it issues additional selects. \
+                        Estimated additional queries per root entity: %s. Declare it with fetch = FetchType.LAZY and \
+                        fetch it explicitly where it is needed."""
+                        .formatted(attributeName, cardinality(toOne), target.getEntityName(), persister.getEntityName(),
+                                formatEstimate(toOneQueries(toOne, new HashSet<>(Set.of(persister.getEntityName()))))));
+            }
+        } else if (attribute instanceof PluralAttributeMapping plural
+                   && plural.getCollectionDescriptor().getBatchSize() <= 1
+                   && plural.getMappedFetchOptions().getStyle() != FetchStyle.SUBSELECT) {
+            boolean eager = plural.getMappedFetchOptions().getTiming() == FetchTiming.IMMEDIATE;
+            findings.add("""
+                    COLLECTION_WITHOUT_BATCH_FETCH: %s is %s with one query per %s, without @BatchSize, \
+                    hibernate.default_batch_fetch_size or @Fetch(FetchMode.SUBSELECT). \
+                    Estimated additional queries per root entity: 1. %s"""
+                    .formatted(attributeName, eager ? "loaded eagerly" : "initialized", persister.getEntityName(),
+                            eager
+                                    ? "As it is always initialized for all loaded owners, it is a candidate for @Fetch(FetchMode.SUBSELECT)."
+                                    : "Annotate it with @BatchSize or set hibernate.default_batch_fetch_size to initialize the collections of several owners at once."));
+        }
+    }
+
+    /**
+     * Estimates the queries issued per root entity to load a to-one association immediately, including the eager
+     * associations of the target entity.
+     */
+    private double toOneQueries(ToOneAttributeMapping toOne, Set<String> visited) {
+        EntityMappingType target = toOne.getAssociatedEntityMappingType();
+        int batchSize = target.getEntityPersister().getBatchSize();
+        return (1 + eagerQueries(target, visited)) / Math.max(batchSize, 1);
+    }
+
+    /**
+     * Estimates the queries issued for the eager associations of every loaded instance of the entity.
+     */
+    private double eagerQueries(EntityMappingType entity, Set<String> visited) {
+        if (!visited.add(entity.getEntityName())) {
+            return 0;
+        }
+        double queries = 0;
+        AttributeMappingsList attributes = entity.getAttributeMappings();
+        for (int i = 0; i < attributes.size(); i++) {
+            AttributeMapping attribute = attributes.get(i);
+            if (attribute instanceof ToOneAttributeMapping toOne) {
+                boolean immediate = toOne.getMappedFetchOptions().getTiming() == FetchTiming.IMMEDIATE
+                                    || isInverseOneToOne(toOne) && !isEnhancedForLazyLoading(entity.getEntityPersister());
+                if (immediate) {
+                    queries += toOneQueries(toOne, visited);
+                }
+            } else if (attribute instanceof PluralAttributeMapping plural
+                       && plural.getMappedFetchOptions().getTiming() == FetchTiming.IMMEDIATE
+                       && plural.getMappedFetchOptions().getStyle() != FetchStyle.SUBSELECT) {
+                queries += 1.0 / Math.max(plural.getCollectionDescriptor().getBatchSize(), 1);
+            }
+        }
+        return queries;
+    }
+
+    private static boolean isInverseOneToOne(ToOneAttributeMapping toOne) {
+        return toOne.getCardinality() == ToOneAttributeMapping.Cardinality.ONE_TO_ONE
+               && toOne.getSideNature() == ForeignKeyDescriptor.Nature.TARGET;
+    }
+
+    private static boolean isEnhancedForLazyLoading(EntityPersister persister) {
+        return persister.getBytecodeEnhancementMetadata().isEnhancedForLazyLoading();
+    }
+
+    private static String cardinality(ToOneAttributeMapping toOne) {
+        return toOne.getCardinality() == ToOneAttributeMapping.Cardinality.MANY_TO_ONE ? "@ManyToOne" : "@OneToOne";
+    }
+
+    private static String formatEstimate(double queries) {
+        return queries == Math.rint(queries) ? String.valueOf((long) queries) : "%.2f".formatted(queries);
+    }
+}
@@ -0,0 +1,32 @@
+package com.additionaltools.fetchstrategy;
+
+import com.additionaltools.common.AnnotationScannerService;
+import com.additionaltools.common.EmptyLoggingConfiguration;
+import com.additionaltools.logging.LoggingService;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Configuration class to set up FetchStrategyAnalysis based on @EnableFetchStrategyAnalysis annotation.
+ */
+@Import(EmptyLoggingConfiguration.class)
+@Configuration
+public class FetchStrategyAnalysisConfiguration {
+
+    @Bean
+    public FetchStrategyAnalysis fetchStrategyAnalysis(EntityManagerFactory entityManagerFactory,
+                                                       AnnotationScannerService annotationScannerService,
+                                                       LoggingService loggingService) {
+        String basePath = annotationScannerService.getPackageNameForAnnotatedClass(EnableFetchStrategyAnalysis.class);
+        return new FetchStrategyAnalysis(entityManagerFactory, basePath, loggingService);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(AnnotationScannerService.class)
+    public AnnotationScannerService annotationScannerService() {
+        return new AnnotationScannerService();
+    }
+}
@@ -2,7 +2,7 @@ package com.additionaltools.hashcodevalidator;
 
 import com.additionaltools.common.AnnotationScannerService;
 import com.additionaltools.common.EmptyLoggingConfiguration;
-import com.additionaltools.logging.LoggingService;
+import com.additionaltools.common.EntityBytecodeIndexConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -11,14 +11,14 @@ import org.springframework.context.annotation.Import;
 /**
  * Configuration class to set up HashCodeAnalysis based on @EnableHashCodeAnalysis annotation.
  */
-@Import(EmptyLoggingConfiguration.class)
+@Import({EmptyLoggingConfiguration.class, EntityBytecodeIndexConfiguration.class})
 @Configuration
 public class HashCodeAnalysisConfiguration {
 
     @Bean
-    public HashCodeAnalysis hashCodeAnalysis(AnnotationScannerService annotationScannerService, LoggingService loggingService) {
+    public HashCodeAnalysis hashCodeAnalysis(AnnotationScannerService annotationScannerService) {
         String basePath = annotationScannerService.getPackageNameForAnnotatedClass(EnableHashCodeAnalysis.class);
-        return new HashCodeAnalysis(annotationScannerService, basePath, loggingService);
+        return new HashCodeAnalysis(basePath);
     }
 
     @Bean
@@ -26,4 +26,4 @@ public class HashCodeAnalysisConfiguration {
     public AnnotationScannerService annotationScannerService() {
         return new AnnotationScannerService();
     }
-}
\ No newline at end of file
+}
@@ -2,83 +2,272 @@ package com.additionaltools.logging;
 
 
 import jakarta.annotation.PostConstruct;
-import org.springframework.scheduling.annotation.Scheduled;
-import org.springframework.stereotype.Service;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
-@Service
+/**
+ * Writes the findings to {@code HiPerAnalyzerLogs.txt}.
+ *
+ * <p>{@link #addLog(String)} only offers to a bounded queue: when the queue is full the log is dropped and counted,
+ * so a burst of findings never grows the heap or blocks the application. The queue is drained in batches into a
+ * reusable direct buffer and written to a {@link FileChannel} that stays open. The file is rotated when it exceeds
+ * {@code maxFileSize} or is older than {@code rotationInterval}, keeping {@code maxHistory} rotated files.</p>
+ */
 public class FileLoggingService implements LoggingService {
 
-    private static final String FILE_PATH = "HiPerAnalyzerLogs.txt";
-    private final BlockingQueue<String> logQueue = new LinkedBlockingQueue<>();
+    private static final Logger logger = LoggerFactory.getLogger(FileLoggingService.class);
+    private static final int BATCH_SIZE = 256;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final DateTimeFormatter ROTATION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final Path file;
+    private final long maxFileSize;
+    private final Duration rotationInterval;
+    private final int maxHistory;
+    private final Pattern rotatedFileName;
+    private final Clock clock;
+    private final BlockingQueue<String> logQueue;
+    private final AtomicLong droppedLogs = new AtomicLong();
     private final Lock lock = new ReentrantLock();
+    private final List<String> batch = new ArrayList<>(BATCH_SIZE);
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private FileChannel channel;
+    private Instant nextRotation;
+
+    public FileLoggingService(Path file, int queueCapacity, long maxFileSize, Duration rotationInterval, int maxHistory) {
+        this(file, queueCapacity, maxFileSize, rotationInterval, maxHistory, Clock.systemDefaultZone());
+    }
+
+    FileLoggingService(Path file, int queueCapacity, long maxFileSize, Duration rotationInterval, int maxHistory,
+                       Clock clock) {
+        this.file = file.toAbsolutePath();
+        this.clock = clock;
+        this.rotatedFileName = Pattern.compile(Pattern.quote(getBaseName() + "-") + "(\\d{8}-\\d{6})(?:-(\\d+))?"
+                                               + Pattern.quote(getExtension()));
+        this.logQueue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxFileSize = maxFileSize;
+        this.rotationInterval = rotationInterval;
+        this.maxHistory = maxHistory;
+    }
 
     /**
-     * Dodaje log do kolejki.
+     * Adds a log to the queue.
      *
-     * @param log Log do dodania.
+     * @param log the log to add
      */
     @Override
     public void addLog(String log) {
-        logQueue.offer(log);
-    }
-
-        @PostConstruct
-        public void initializeLogFile() {
-            lock.lock();
-            try {
-                File file = new File(FILE_PATH);
-                    addWelcomeMessage(file);
-            } catch (IOException e) {
-                e.printStackTrace();
-            } finally {
-                lock.unlock();
-            }
+        if (!logQueue.offer(log)) {
+            droppedLogs.incrementAndGet();
+        }
     }
 
+    /**
+     * @return the number of logs dropped because the queue was full
+     */
+    public long getDroppedLogs() {
+        return droppedLogs.get();
+    }
 
+    @PostConstruct
+    public void initializeLogFile() {
+        lock.lock();
+        try {
+            openChannel();
+            addWelcomeMessage();
+        } catch (IOException e) {
+            logger.warn("Unable to open {}", file, e);
+        } finally {
+            lock.unlock();
+        }
+    }
 
     @Override
-    @Scheduled(fixedRate = 10000)
     public void flushLogs() {
-        if (!logQueue.isEmpty()) {
-            lock.lock();
-            try (FileWriter fw = new FileWriter(FILE_PATH, true);
-                 PrintWriter writer = new PrintWriter(fw)) {
-                String log;
-                while ((log = logQueue.poll()) != null) {
-                    writer.println(log);
+        if (logQueue.isEmpty() && droppedLogs.get() == 0) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (channel == null) {
+                return;
+            }
+            rotateIfNeeded();
+            long dropped = droppedLogs.getAndSet(0);
+            if (dropped > 0) {
+                writeLine("HiPerAnalyzer: " + dropped + " log(s) dropped, the log queue was full");
+            }
+            while (logQueue.drainTo(batch, BATCH_SIZE) > 0) {
+                for (String log : batch) {
+                    writeLine(log);
                 }
-            } catch (IOException e) {
-                e.printStackTrace();
-            } finally {
-                lock.unlock();
+                batch.clear();
             }
+            writeBuffer();
+        } catch (IOException e) {
+            logger.warn("Unable to write to {}", file, e);
+        } finally {
+            batch.clear();
+            lock.unlock();
         }
     }
 
-    private void addWelcomeMessage(File file) throws IOException {
-        LocalDateTime now = LocalDateTime.now();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-        try (FileWriter fw = new FileWriter(file, false);
-             PrintWriter writer = new PrintWriter(fw)) {
-            writer.println("=== Welcome to HiPerAnalyzer (Hibernate Performance Analyzer)! ===");
-            writer.println("This application logs potential inefficient Hibernate usage.");
-            writer.println("------------------------------------------");
-            writer.println("For more details visit: https://github.com/waldemarGr/n-plus-1-detector");
-            writer.println("------------------------------------------");
-            writer.println("Application started at: " + now.format(formatter));
-            writer.println("------------------------------------------");
+    @PreDestroy
+    public void close() {
+        flushLogs();
+        lock.lock();
+        try {
+            if (channel != null) {
+                channel.force(false);
+                channel.close();
+                channel = null;
+            }
+        } catch (IOException e) {
+            logger.warn("Unable to close {}", file, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void openChannel() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        nextRotation = clock.instant().plus(rotationInterval);
+    }
+
+    private void rotateIfNeeded() throws IOException {
+        if (channel.size() < maxFileSize && clock.instant().isBefore(nextRotation)) {
+            return;
+        }
+        channel.close();
+        String suffix = LocalDateTime.ofInstant(clock.instant(), clock.getZone()).format(ROTATION_SUFFIX);
+        Path rotated = file.resolveSibling(rotatedName(suffix));
+        for (int i = 1; Files.exists(rotated); i++) {
+            rotated = file.resolveSibling(rotatedName(suffix + "-" + i));
         }
+        Files.move(file, rotated);
+        deleteOldestRotatedFiles();
+        openChannel();
+    }
+
+    private String rotatedName(String suffix) {
+        return getBaseName() + "-" + suffix + getExtension();
+    }
+
+    private String getBaseName() {
+        String name = file.getFileName().toString();
+        int extension = name.lastIndexOf('.');
+        return extension < 0 ? name : name.substring(0, extension);
+    }
+
+    private String getExtension() {
+        String name = file.getFileName().toString();
+        int extension = name.lastIndexOf('.');
+        return extension < 0 ? "" : name.substring(extension);
+    }
+
+    /**
+     * Deletes the oldest files named exactly like the rotated files of this log, ordered by the rotation timestamp and
+     * then by the counter added when a timestamp was already taken.
+     */
+    private void deleteOldestRotatedFiles() throws IOException {
+        try (Stream<Path> siblings = Files.list(file.getParent())) {
+            List<RotatedFile> rotated = siblings
+                    .map(this::toRotatedFile)
+                    .filter(Objects::nonNull)
+                    .sorted(Comparator.comparing(RotatedFile::timestamp).thenComparingLong(RotatedFile::counter))
+                    .toList();
+            for (int i = 0; i < rotated.size() - maxHistory; i++) {
+                Files.deleteIfExists(rotated.get(i).path());
+            }
+        }
+    }
+
+    private RotatedFile toRotatedFile(Path path) {
+        Matcher matcher = rotatedFileName.matcher(path.getFileName().toString());
+        if (!matcher.matches()) {
+            return null;
+        }
+        long counter = matcher.group(2) == null ? 0 : Long.parseLong(matcher.group(2));
+        return new RotatedFile(path, matcher.group(1), counter);
+    }
+
+    private void writeLine(String log) throws IOException {
+        encode(CharBuffer.wrap(log));
+        encode(CharBuffer.wrap(System.lineSeparator()));
+    }
+
+    private void encode(CharBuffer chars) throws IOException {
+        encoder.reset();
+        while (true) {
+            CoderResult result = encoder.encode(chars, buffer, true);
+            if (result.isOverflow()) {
+                writeBuffer();
+            } else if (result.isUnderflow()) {
+                break;
+            } else {
+                result.throwException();
+            }
+        }
+        while (encoder.flush(buffer).isOverflow()) {
+            writeBuffer();
+        }
+    }
+
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void addWelcomeMessage() throws IOException {
+        LocalDateTime now = LocalDateTime.now(clock);
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+        writeLine("=== Welcome to HiPerAnalyzer (Hibernate Performance Analyzer)! ===");
+        writeLine("This application logs potential inefficient Hibernate usage.");
+        writeLine("------------------------------------------");
+        writeLine("For more details visit: https://github.com/waldemarGr/n-plus-1-detector");
+        writeLine("------------------------------------------");
+        writeLine("Application started at: " + now.format(formatter));
+        writeLine("------------------------------------------");
+        writeBuffer();
+    }
+
+    /**
+     * @param timestamp the {@code yyyyMMdd-HHmmss} rotation timestamp, ordered like the time it stands for
+     * @param counter   the counter added to the name when the timestamp was taken, 0 without one
+     */
+    private record RotatedFile(Path path, String timestamp, long counter) {
     }
-}
\ No newline at end of file
+}
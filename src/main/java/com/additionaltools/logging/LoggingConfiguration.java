@@ -1,11 +1,18 @@
 package com.additionaltools.logging;
 
+import com.additionaltools.common.DetectorScheduler;
+import com.additionaltools.common.DetectorSchedulerConfiguration;
 import com.additionaltools.nplus1query.SQLStatisticsService;
 import com.additionaltools.nplus1query.TransactionAspect;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
 import org.springframework.context.annotation.Primary;
-import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
 
 /**
  * Configuration class for automatic bean registration.
@@ -13,13 +20,22 @@ import org.springframework.scheduling.annotation.EnableScheduling;
  * <p>This configuration class defines beans for {@link SQLStatisticsService} and {@link TransactionAspect}.
  * It provides the necessary setup to integrate these components into the Spring application context.</p>
  */
-@EnableScheduling
 @Configuration
+@Import(DetectorSchedulerConfiguration.class)
 public class LoggingConfiguration {
 
     @Bean
     @Primary
-    public LoggingService fileLoggingService() {
-        return new FileLoggingService();
+    public LoggingService fileLoggingService(@Value("${hiperanalyzer.logging.file:HiPerAnalyzerLogs.txt}") Path file,
+                                             @Value("${hiperanalyzer.logging.queue-capacity:10000}") int queueCapacity,
+                                             @Value("${hiperanalyzer.logging.max-file-size:10MB}") DataSize maxFileSize,
+                                             @Value("${hiperanalyzer.logging.rotation-interval:1d}") Duration rotationInterval,
+                                             @Value("${hiperanalyzer.logging.max-history:5}") int maxHistory,
+                                             @Value("${hiperanalyzer.logging.flush-interval:10000}") long flushInterval,
+                                             DetectorScheduler detectorScheduler) {
+        FileLoggingService fileLoggingService = new FileLoggingService(file, queueCapacity, maxFileSize.toBytes(),
+                rotationInterval, maxHistory);
+        detectorScheduler.scheduleAtFixedRate("log flush", fileLoggingService::flushLogs, flushInterval);
+        return fileLoggingService;
     }
 }
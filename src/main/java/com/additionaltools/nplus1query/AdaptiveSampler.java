@@ -0,0 +1,116 @@
+package com.additionaltools.nplus1query;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Decides which transactions are inspected for N+1 problems.
+ *
+ * <p>Every transactional method has its own sampling rate. It starts at the configured rate and is halved
+ * each time the method has been analyzed {@code analysesBeforeDecay} times without findings, down to
+ * {@code minRate}. A method whose transaction produced a finding goes back to the configured rate.</p>
+ *
+ * <p>When sampling is disabled every transaction is inspected.</p>
+ */
+public class AdaptiveSampler {
+
+    private static final Logger log = LoggerFactory.getLogger(AdaptiveSampler.class);
+    private final boolean enabled;
+    private final double rate;
+    private final double minRate;
+    private final long analysesBeforeDecay;
+    private final ConcurrentMap<Method, MethodSampling> methodSamplings = new ConcurrentHashMap<>();
+
+    public AdaptiveSampler(boolean enabled, double rate, double minRate, long analysesBeforeDecay) {
+        if (rate <= 0 || rate > 1 || minRate <= 0 || minRate > rate) {
+            throw new IllegalArgumentException(
+                    "Sampling rates must satisfy 0 < minRate <= rate <= 1, got rate=%s, minRate=%s".formatted(rate, minRate));
+        }
+        if (analysesBeforeDecay < 1) {
+            throw new IllegalArgumentException("analysesBeforeDecay must be positive, got " + analysesBeforeDecay);
+        }
+        this.enabled = enabled;
+        this.rate = enabled ? rate : 1.0;
+        this.minRate = enabled ? minRate : 1.0;
+        this.analysesBeforeDecay = analysesBeforeDecay;
+    }
+
+    /**
+     * Returns the sampling state of the given method, creating it on first use.
+     *
+     * @param method    the transactional method
+     * @param signature supplies the printable signature of the method, called once per method
+     * @return the sampling state of the method
+     */
+    public MethodSampling getSampling(Method method, Supplier<String> signature) {
+        MethodSampling sampling = methodSamplings.get(method);
+        if (sampling == null) {
+            sampling = methodSamplings.computeIfAbsent(method, key -> new MethodSampling(signature.get(), rate));
+        }
+        return sampling;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sampling state of a single transactional method.
+     *
+     * <p>Updates are not atomic as a whole; a lost update only delays a rate change by one analysis.</p>
+     */
+    public final class MethodSampling {
+        private final String signature;
+        private final AtomicLong cleanAnalyses = new AtomicLong();
+        private volatile double currentRate;
+
+        private MethodSampling(String signature, double currentRate) {
+            this.signature = signature;
+            this.currentRate = currentRate;
+        }
+
+        public String getSignature() {
+            return signature;
+        }
+
+        public double getCurrentRate() {
+            return currentRate;
+        }
+
+        /**
+         * @return {@code true} if the current transaction of this method should be inspected
+         */
+        public boolean shouldSample() {
+            double sampleRate = currentRate;
+            return sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+        }
+
+        /**
+         * Adjusts the sampling rate after an inspected transaction has been analyzed.
+         *
+         * @param findingsDetected whether the analysis reported any finding
+         */
+        public void recordAnalysis(boolean findingsDetected) {
+            if (!enabled) {
+                return;
+            }
+            if (findingsDetected) {
+                cleanAnalyses.set(0);
+                if (currentRate != rate) {
+                    currentRate = rate;
+                    log.debug("Sampling rate for {} restored to {} after a finding", signature, rate);
+                }
+            } else if (cleanAnalyses.incrementAndGet() % analysesBeforeDecay == 0 && currentRate > minRate) {
+                currentRate = Math.max(minRate, currentRate / 2);
+                log.debug("Sampling rate for {} lowered to {}", signature, currentRate);
+            }
+        }
+    }
+}
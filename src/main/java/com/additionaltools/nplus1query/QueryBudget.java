@@ -0,0 +1,65 @@
+package com.additionaltools.nplus1query;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Limits the statements and fetches of the transaction started by the annotated method.
+ *
+ * <p>Placed on a {@code @Transactional} method, or on a class to apply to all of its transactional methods, e.g.
+ * {@code @QueryBudget(maxStatements = 5, maxCollectionFetches = 0)}. Transactions with a budget are always measured,
+ * regardless of the N+1 sampling, and a budget is only checked for the transaction the method begins, not when it
+ * joins an existing one. On a Spring Data repository method the budget covers the call itself and is checked inside
+ * the transaction of the repository when the call returns, before the commit. Requires
+ * {@link EnableNPlus1QueryDetection}.</p>
+ *
+ * <p>With {@link Action#THROW} the budget is checked before the commit and a {@link QueryBudgetExceededException}
+ * rolls the transaction back; statements flushed by the commit itself are counted only for {@link Action#LOG} and
+ * {@link Action#METRIC}, which are checked after the commit.</p>
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+
+    /**
+     * Value of a limit that is not checked.
+     */
+    int UNLIMITED = -1;
+
+    /**
+     * @return the maximum number of JDBC statements prepared within the transaction
+     */
+    int maxStatements() default UNLIMITED;
+
+    /**
+     * @return the maximum number of collections initialized one by one within the transaction
+     */
+    int maxCollectionFetches() default UNLIMITED;
+
+    /**
+     * @return the maximum number of entities, including lazy to-one proxies, fetched with single selects
+     */
+    int maxEntityFetches() default UNLIMITED;
+
+    /**
+     * @return what happens when a limit is exceeded
+     */
+    Action action() default Action.LOG;
+
+    enum Action {
+        /**
+         * Report a {@code QUERY_BUDGET_EXCEEDED} finding.
+         */
+        LOG,
+        /**
+         * Only publish the {@code QUERY_BUDGET_EXCEEDED} finding to the metrics.
+         */
+        METRIC,
+        /**
+         * Fail and roll back the transaction with a {@link QueryBudgetExceededException}.
+         */
+        THROW
+    }
+}
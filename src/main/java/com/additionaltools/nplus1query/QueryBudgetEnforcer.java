@@ -0,0 +1,151 @@
+package com.additionaltools.nplus1query;
+
+import com.additionaltools.common.DetectorMetrics;
+import com.additionaltools.common.FindingAggregator;
+import com.additionaltools.logging.LoggingService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.MethodClassKey;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Checks the {@link TransactionStatistics} of a transaction against the {@link QueryBudget} of the method that began
+ * it.
+ *
+ * <p>The budget of a method is looked up once, on the method (including the interfaces it implements) and then on
+ * the target class. An exceeded budget is reported as {@code QUERY_BUDGET_EXCEEDED}: through the
+ * {@link FindingAggregator} for {@link QueryBudget.Action#LOG}, only to the {@link DetectorMetrics} for
+ * {@link QueryBudget.Action#METRIC}, and as a {@link QueryBudgetExceededException} before the commit for
+ * {@link QueryBudget.Action#THROW}.</p>
+ */
+public class QueryBudgetEnforcer {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryBudgetEnforcer.class);
+    private static final String FINDING_TYPE = "QUERY_BUDGET_EXCEEDED";
+    private final LoggingService loggingService;
+    private final FindingAggregator findingAggregator;
+    private final DetectorMetrics detectorMetrics;
+    private final ConcurrentMap<MethodClassKey, Optional<QueryBudget>> budgets = new ConcurrentHashMap<>();
+
+    public QueryBudgetEnforcer(LoggingService loggingService, FindingAggregator findingAggregator,
+                               DetectorMetrics detectorMetrics) {
+        this.loggingService = loggingService;
+        this.findingAggregator = findingAggregator;
+        this.detectorMetrics = detectorMetrics;
+    }
+
+    /**
+     * @param method      the invoked method
+     * @param targetClass the class of the invoked object
+     * @return the budget of the method, or {@code null} when it has none
+     */
+    public QueryBudget getBudget(Method method, Class<?> targetClass) {
+        return budgets.computeIfAbsent(new MethodClassKey(method, targetClass), key -> {
+            QueryBudget budget = AnnotatedElementUtils.findMergedAnnotation(method, QueryBudget.class);
+            if (budget == null && targetClass != null) {
+                budget = AnnotatedElementUtils.findMergedAnnotation(targetClass, QueryBudget.class);
+            }
+            return Optional.ofNullable(budget);
+        }).orElse(null);
+    }
+
+    /**
+     * Fails the transaction if it exceeded a budget with {@link QueryBudget.Action#THROW}.
+     *
+     * @param signature             the method that began the transaction
+     * @param budget                the budget of the method
+     * @param transactionStatistics the statistics collected so far
+     * @throws QueryBudgetExceededException if the budget is exceeded
+     */
+    public void beforeCommit(String signature, QueryBudget budget, TransactionStatistics transactionStatistics) {
+        if (budget.action() != QueryBudget.Action.THROW) {
+            return;
+        }
+        List<Violation> violations = getViolations(budget, transactionStatistics);
+        if (!violations.isEmpty()) {
+            throw new QueryBudgetExceededException(formatMessage(signature, violations));
+        }
+    }
+
+    /**
+     * Reports a committed transaction that exceeded a budget with {@link QueryBudget.Action#LOG} or
+     * {@link QueryBudget.Action#METRIC}. A budget with {@link QueryBudget.Action#THROW} that was exceeded only by the
+     * statements flushed at commit is logged.
+     *
+     * @param signature             the method that began the transaction
+     * @param budget                the budget of the method
+     * @param transactionStatistics the statistics of the committed transaction
+     * @return {@code true} if the budget was exceeded
+     */
+    public boolean afterCommit(String signature, QueryBudget budget, TransactionStatistics transactionStatistics) {
+        List<Violation> violations = getViolations(budget, transactionStatistics);
+        if (violations.isEmpty()) {
+            return false;
+        }
+        long excess = 0;
+        StringJoiner exceededLimits = new StringJoiner(", ");
+        for (Violation violation : violations) {
+            excess += violation.actual() - violation.limit();
+            exceededLimits.add(violation.name());
+        }
+        if (budget.action() == QueryBudget.Action.METRIC) {
+            detectorMetrics.recordFinding(FINDING_TYPE, signature);
+            detectorMetrics.recordAdditionalQueries(FINDING_TYPE, signature, excess);
+            if (log.isDebugEnabled()) {
+                log.debug(formatMessage(signature, violations));
+            }
+        } else if (findingAggregator.record(FINDING_TYPE, signature, exceededLimits.toString(), excess)) {
+            String message = formatMessage(signature, violations);
+            loggingService.addLog(message);
+            log.warn(message);
+        }
+        return true;
+    }
+
+    /**
+     * Checks a completed call, failing it for {@link QueryBudget.Action#THROW} and reporting it otherwise.
+     *
+     * @param signature             the called method
+     * @param budget                the budget of the method
+     * @param transactionStatistics the statistics of the call
+     * @throws QueryBudgetExceededException if the budget with {@link QueryBudget.Action#THROW} is exceeded
+     */
+    public void check(String signature, QueryBudget budget, TransactionStatistics transactionStatistics) {
+        beforeCommit(signature, budget, transactionStatistics);
+        afterCommit(signature, budget, transactionStatistics);
+    }
+
+    private static List<Violation> getViolations(QueryBudget budget, TransactionStatistics transactionStatistics) {
+        List<Violation> violations = new ArrayList<>(3);
+        addViolation(violations, "statements", transactionStatistics.getStatementCount(), budget.maxStatements());
+        addViolation(violations, "collection fetches", transactionStatistics.getCollectionFetchCount(),
+                budget.maxCollectionFetches());
+        addViolation(violations, "entity fetches", transactionStatistics.getEntityFetchCount(), budget.maxEntityFetches());
+        return violations;
+    }
+
+    private static void addViolation(List<Violation> violations, String name, long actual, int limit) {
+        if (limit != QueryBudget.UNLIMITED && actual > limit) {
+            violations.add(new Violation(name, actual, limit));
+        }
+    }
+
+    private static String formatMessage(String signature, List<Violation> violations) {
+        StringJoiner exceeded = new StringJoiner(", ");
+        for (Violation violation : violations) {
+            exceeded.add("%s %d > %d".formatted(violation.name(), violation.actual(), violation.limit()));
+        }
+        return (FINDING_TYPE + ": Method: %s; Exceeded: %s").formatted(signature, exceeded);
+    }
+
+    private record Violation(String name, long actual, int limit) {
+    }
+}
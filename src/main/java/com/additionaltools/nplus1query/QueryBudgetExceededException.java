@@ -0,0 +1,14 @@
+package com.additionaltools.nplus1query;
+
+/**
+ * Thrown before the commit of a transaction that exceeded a {@link QueryBudget} with {@link QueryBudget.Action#THROW}.
+ *
+ * <p>Not an {@link IllegalStateException}, which the persistence exception translation of Spring Data repositories
+ * would turn into an {@code InvalidDataAccessApiUsageException}.</p>
+ */
+public class QueryBudgetExceededException extends RuntimeException {
+
+    public QueryBudgetExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,84 @@
+package com.additionaltools.nplus1query;
+
+import com.additionaltools.common.AnnotationScannerService;
+import com.additionaltools.common.CallSiteResolver;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+
+/**
+ * Checks the {@link QueryBudget} of Spring Data repository methods inside the transaction of the repository.
+ *
+ * <p>A repository begins its transaction inside its own proxy, so an aspect around the repository only sees the call
+ * after the transaction has committed. This post processor adds an interceptor to the repository proxy itself, behind
+ * the transaction interceptor of Spring Data: the statistics are bound for the call, and a budget with
+ * {@link QueryBudget.Action#THROW} fails the call before the transaction commits, which rolls it back.</p>
+ */
+public class QueryBudgetRepositoryPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<QueryBudgetEnforcer> queryBudgetEnforcerProvider;
+    private final ObjectProvider<AnnotationScannerService> annotationScannerServiceProvider;
+    private volatile CallSiteResolver callSiteResolver;
+
+    public QueryBudgetRepositoryPostProcessor(ObjectProvider<QueryBudgetEnforcer> queryBudgetEnforcerProvider,
+                                              ObjectProvider<AnnotationScannerService> annotationScannerServiceProvider) {
+        this.queryBudgetEnforcerProvider = queryBudgetEnforcerProvider;
+        this.annotationScannerServiceProvider = annotationScannerServiceProvider;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> repositoryFactoryBean) {
+            repositoryFactoryBean.addRepositoryFactoryCustomizer(repositoryFactory ->
+                    repositoryFactory.addRepositoryProxyPostProcessor((proxyFactory, repositoryInformation) ->
+                            proxyFactory.addAdvice(new QueryBudgetInterceptor(repositoryInformation.getRepositoryInterface()))));
+        }
+        return bean;
+    }
+
+    private CallSiteResolver getCallSiteResolver() {
+        CallSiteResolver resolver = callSiteResolver;
+        if (resolver == null) {
+            String basePath = annotationScannerServiceProvider.getObject()
+                    .getPackageNameForAnnotatedClass(EnableNPlus1QueryDetection.class);
+            resolver = new CallSiteResolver(basePath);
+            callSiteResolver = resolver;
+        }
+        return resolver;
+    }
+
+    private final class QueryBudgetInterceptor implements MethodInterceptor {
+
+        private final Class<?> repositoryInterface;
+
+        private QueryBudgetInterceptor(Class<?> repositoryInterface) {
+            this.repositoryInterface = repositoryInterface;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            Method method = invocation.getMethod();
+            QueryBudgetEnforcer queryBudgetEnforcer = queryBudgetEnforcerProvider.getObject();
+            QueryBudget queryBudget = queryBudgetEnforcer.getBudget(method, repositoryInterface);
+            if (queryBudget == null) {
+                return invocation.proceed();
+            }
+            TransactionStatistics transactionStatistics = new TransactionStatistics(getCallSiteResolver());
+            TransactionStatisticsHolder.bind(transactionStatistics);
+            Object result;
+            try {
+                result = invocation.proceed();
+            } finally {
+                TransactionStatisticsHolder.unbind(transactionStatistics);
+            }
+            queryBudgetEnforcer.check(ClassUtils.getQualifiedMethodName(method, repositoryInterface), queryBudget,
+                    transactionStatistics);
+            return result;
+        }
+    }
+}
@@ -1,104 +1,144 @@
 package com.additionaltools.nplus1query;
 
+import com.additionaltools.common.FindingAggregator;
+import com.additionaltools.common.OverheadGovernor;
 import com.additionaltools.logging.LoggingService;
 import jakarta.persistence.EntityManagerFactory;
 import org.hibernate.SessionFactory;
 import org.hibernate.stat.Statistics;
-import org.hibernate.stat.internal.CollectionStatisticsImpl;
-import org.hibernate.stat.internal.StatisticsImpl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Arrays;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.stream.Stream;
 
 /**
- * Service for managing and analyzing SQL statistics from Hibernate.
+ * Service for analyzing SQL statistics collected by Hibernate.
  *
- * <p>This service retrieves statistics related to SQL queries and collections,
- * and detects potential N+1 query issues.</p>
+ * <p>This service analyzes the {@link TransactionStatistics} collected for a single transaction
+ * and detects potential N+1 query issues: collections initialized one by one and entities, including lazy to-one
+ * proxies, fetched repeatedly with single selects. Repeated findings are aggregated by the {@link FindingAggregator}: only
+ * the first occurrence per method and collection or entity is logged in full.</p>
  */
 public class SQLStatisticsService {
-    private final Statistics statistics;
-    private final StatisticsImpl statisticsImp;
+    private static final String FINDING_TYPE = "N+1_SELECT_DETECTED";
+    static final String DETECTOR = "nplus1";
+    private final long minEntityFetches;
     private final LoggingService loggingService;
+    private final FindingAggregator findingAggregator;
+    private final OverheadGovernor overheadGovernor;
     private static final Logger log = LoggerFactory.getLogger(SQLStatisticsService.class);
 
-    public SQLStatisticsService(EntityManagerFactory entityManagerFactory, LoggingService loggingService) {
-        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
-        this.statistics.setStatisticsEnabled(true);
-        this.statisticsImp = (StatisticsImpl) statistics;
+    /**
+     * @param minEntityFetches the number of fetches of the same entity within a transaction from which they are
+     *                         reported, at least 2. A few fetches are usually plain {@code find} calls, many fetches
+     *                         of the same entity are lazy to-one proxies or eager associations initialized one by one.
+     */
+    public SQLStatisticsService(EntityManagerFactory entityManagerFactory, LoggingService loggingService,
+                                FindingAggregator findingAggregator, OverheadGovernor overheadGovernor,
+                                long minEntityFetches) {
+        if (minEntityFetches < 2) {
+            throw new IllegalArgumentException("The minimum number of entity fetches must be at least 2, got " + minEntityFetches);
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        if (!(statistics instanceof TransactionScopedStatistics)) {
+            log.warn("Hibernate statistics are not transaction scoped ({}), N+1 detection will not report any findings. " +
+                     "Make sure the EntityManagerFactory is created by Spring Boot JPA auto-configuration.",
+                    statistics.getClass().getName());
+        }
         this.loggingService = loggingService;
+        this.findingAggregator = findingAggregator;
+        this.overheadGovernor = overheadGovernor;
+        this.minEntityFetches = minEntityFetches;
     }
 
     /**
      * Prints statistics related to the number of additional query fetches for collections.
      *
-     * <p>This method checks for potential N+1 query problems by analyzing collection fetches.
-     * If such issues are detected, they are logged as warnings.</p>
+     * <p>This method checks for potential N+1 query problems by analyzing collection fetches performed
+     * within a single transaction. If such issues are detected for the first time, they are logged as warnings,
+     * repeated occurrences are only counted and reported in the periodic summary.</p>
      *
-     * @param methodName the name of the method where the statistics are being analyzed
+     * @param methodName            the name of the method where the statistics are being analyzed
+     * @param transactionStatistics the statistics collected for the transaction started by the method
+     * @return {@code true} if a potential N+1 problem was reported
      */
-    public void printStatistics(String methodName) {
-        String[] queries = statistics.getQueries();
-
-        String[] collectionRoleNames = statistics.getCollectionRoleNames();
-
-        List<CollectionStatisticsImpl> statisticsList = Arrays.stream(collectionRoleNames).toList().stream()
-                .map(statisticsImp::getCollectionStatistics)
-                .toList();
-
-        List<CollectionStatisticsImpl> nPlusOneStatisticList = statisticsList.stream()
-                .filter(collectionStatistics -> collectionStatistics.getFetchCount() > 0)
-                .toList();
+    public boolean printStatistics(String methodName, TransactionStatistics transactionStatistics) {
+        long start = System.nanoTime();
+        try {
+            return analyze(methodName, transactionStatistics);
+        } finally {
+            overheadGovernor.recordOverhead(DETECTOR, System.nanoTime() - start);
+        }
+    }
 
-        if (!nPlusOneStatisticList.isEmpty()) {
+    private boolean analyze(String methodName, TransactionStatistics transactionStatistics) {
+        Map<String, Long> collectionFetchCounts = transactionStatistics.getCollectionFetchCounts();
+        Map<String, Long> entityFetchCounts = transactionStatistics.getEntityFetchCounts();
 
-            List<String> fetchDetails = nPlusOneStatisticList.stream()
-                    .map(collectionStatistics -> String.format(
-                            "Number of additional query fetches: %d, Collection: %s",
-                            collectionStatistics.getFetchCount(),
-                            extractCollectionRole(collectionStatistics.toString())
-                    ))
-                    .toList();
+        boolean detected = false;
+        boolean firstOccurrence = false;
+        for (Map.Entry<String, Long> collectionFetch : collectionFetchCounts.entrySet()) {
+            if (collectionFetch.getValue() > 0) {
+                detected = true;
+                firstOccurrence |= findingAggregator.record(FINDING_TYPE, methodName, collectionFetch.getKey(), collectionFetch.getValue());
+            }
+        }
+        for (Map.Entry<String, Long> entityFetch : entityFetchCounts.entrySet()) {
+            if (entityFetch.getValue() >= minEntityFetches) {
+                detected = true;
+                firstOccurrence |= findingAggregator.record(FINDING_TYPE, methodName, entityFetch.getKey(),
+                        getAdditionalSelects(entityFetch.getValue()));
+            }
+        }
 
-            String warning = "N+1_SELECT_DETECTED: Queries: %s; Method: %s; Summary: %s"
-                    .formatted(
-                            Arrays.toString(queries),
-                            methodName,
-                            fetchDetails
-                    );
-            loggingService.addLog(warning);
-            log.warn(warning);
-        } else {
-            log.trace("No N+1 issue detected for method {}", methodName);
+        if (detected) {
+            if (firstOccurrence) {
+                String warning = (FINDING_TYPE + ": Queries: %s; Method: %s; Summary: %s")
+                        .formatted(
+                                transactionStatistics.getQueries(),
+                                methodName,
+                                describeFetches(transactionStatistics)
+                        );
+                loggingService.addLog(warning);
+                log.warn(warning);
+            } else if (log.isDebugEnabled()) {
+                log.debug("{} again in method {}: {}", FINDING_TYPE, methodName, describeFetches(transactionStatistics));
+            }
+            return true;
         }
+        log.trace("No N+1 issue detected for method {}", methodName);
+        return false;
     }
 
     /**
-     * Clears the collected statistics.
+     * @return the selects beyond the first fetch of an entity, which would also be needed without the N+1 problem
      */
-    public void clearStatistics() {
-        statistics.clear();
+    private static long getAdditionalSelects(long entityFetches) {
+        return entityFetches - 1;
     }
 
-    /**
-     * Extracts the collection role from a string representation of collection statistics.
-     *
-     * <p>This method uses a regex pattern to find the collection role within the provided string.
-     * An effort is being made to find a more elegant solution for extracting the collection role.</p>
-     *
-     * @param collectionStatisticsString the string representation of collection statistics
-     * @return the extracted collection role, or the original string if not found
-     */
-    private static String extractCollectionRole(String collectionStatisticsString) {
-        Pattern pattern = Pattern.compile("collectionRole=([^,\\]]+)");
-        Matcher matcher = pattern.matcher(collectionStatisticsString);
-        if (matcher.find()) {
-            return matcher.group(1);
-        }
-        return collectionStatisticsString;
+    private List<String> describeFetches(TransactionStatistics transactionStatistics) {
+        Map<String, String> collectionFetchCallSites = transactionStatistics.getCollectionFetchCallSites();
+        Map<String, String> entityFetchCallSites = transactionStatistics.getEntityFetchCallSites();
+        Stream<String> collectionFetches = transactionStatistics.getCollectionFetchCounts().entrySet().stream()
+                .filter(collectionFetch -> collectionFetch.getValue() > 0)
+                .map(collectionFetch -> String.format(
+                        "Number of additional query fetches: %d, Collection: %s, First fetched at: %s",
+                        collectionFetch.getValue(),
+                        collectionFetch.getKey(),
+                        collectionFetchCallSites.get(collectionFetch.getKey())
+                ));
+        Stream<String> entityFetches = transactionStatistics.getEntityFetchCounts().entrySet().stream()
+                .filter(entityFetch -> entityFetch.getValue() >= minEntityFetches)
+                .map(entityFetch -> String.format(
+                        "Number of additional query fetches: %d, Entity: %s, First fetched at: %s",
+                        getAdditionalSelects(entityFetch.getValue()),
+                        entityFetch.getKey(),
+                        entityFetchCallSites.get(entityFetch.getKey())
+                ));
+        return Stream.concat(collectionFetches, entityFetches).toList();
     }
 }
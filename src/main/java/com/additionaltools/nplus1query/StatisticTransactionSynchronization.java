@@ -7,33 +7,97 @@ import org.springframework.transaction.support.TransactionSynchronization;
  * Custom {@link TransactionSynchronization} implementation for handling statistics
  * after a transaction completes.
  *
- * <p>This class is used to invoke the {@link SQLStatisticsService} to print statistics
- * related to the transaction once it has been committed.</p>
+ * <p>This class owns the {@link TransactionStatistics} bound for the duration of the transaction and
+ * invokes the {@link SQLStatisticsService} to print them once the transaction has been committed. When the method
+ * that began the transaction has a {@link QueryBudget}, the statistics are also checked by the
+ * {@link QueryBudgetEnforcer}, before the commit for {@link QueryBudget.Action#THROW} and after it otherwise.</p>
  */
 public class StatisticTransactionSynchronization implements TransactionSynchronization {
 
-    private final String signatureMethodBeginningTransaction;
+    private final AdaptiveSampler.MethodSampling methodSampling;
+    private final TransactionStatistics transactionStatistics;
     private final SQLStatisticsService sqlStatisticsService;
+    private final boolean sampled;
+    private final QueryBudget queryBudget;
+    private final QueryBudgetEnforcer queryBudgetEnforcer;
 
 
-    public StatisticTransactionSynchronization(String signatureMethodBeginningTransaction, SQLStatisticsService sqlStatisticsService) {
-        this.signatureMethodBeginningTransaction = signatureMethodBeginningTransaction;
+    /**
+     * @param sampled             whether the transaction is analyzed for N+1 problems
+     * @param queryBudget         the budget of the method that began the transaction, or {@code null}
+     * @param queryBudgetEnforcer the enforcer checking the {@code queryBudget}
+     */
+    public StatisticTransactionSynchronization(AdaptiveSampler.MethodSampling methodSampling,
+                                               TransactionStatistics transactionStatistics,
+                                               SQLStatisticsService sqlStatisticsService,
+                                               boolean sampled,
+                                               QueryBudget queryBudget,
+                                               QueryBudgetEnforcer queryBudgetEnforcer) {
+        this.methodSampling = methodSampling;
+        this.transactionStatistics = transactionStatistics;
         this.sqlStatisticsService = sqlStatisticsService;
+        this.sampled = sampled;
+        this.queryBudget = queryBudget;
+        this.queryBudgetEnforcer = queryBudgetEnforcer;
+    }
+
+    /**
+     * Invoked when a nested transaction, e.g. with {@code REQUIRES_NEW}, suspends this one.
+     *
+     * <p>Unbinds the statistics until the transaction is resumed, so that the statements of the nested transaction
+     * are counted only by the nested transaction and not by this one as well.</p>
+     */
+    @Override
+    public void suspend() {
+        TransactionStatisticsHolder.unbind(transactionStatistics);
+    }
+
+    /**
+     * Invoked when the transaction is resumed after a nested transaction completed, binds the statistics again.
+     */
+    @Override
+    public void resume() {
+        TransactionStatisticsHolder.bind(transactionStatistics);
+    }
+
+    /**
+     * Invoked before the transaction commits.
+     *
+     * <p>Fails the transaction with a {@link QueryBudgetExceededException} if it exceeded a {@link QueryBudget} with
+     * {@link QueryBudget.Action#THROW}, which makes Spring roll it back.</p>
+     *
+     * @param readOnly whether the transaction is read-only
+     */
+    @Override
+    public void beforeCommit(boolean readOnly) {
+        if (queryBudget != null) {
+            queryBudgetEnforcer.beforeCommit(methodSampling.getSignature(), queryBudget, transactionStatistics);
+        }
     }
 
     /**
      * Invoked after the transaction has completed.
      *
      * <p>This method is called by the Spring transaction infrastructure after the transaction has
-     * finished. If the transaction was committed, it triggers the {@link SQLStatisticsService}
-     * to print the collected statistics.</p>
+     * finished. It always unbinds the transaction statistics from the current thread and, if the transaction
+     * was committed, checks the {@link QueryBudget} of the method and, if the transaction was sampled, triggers the
+     * {@link SQLStatisticsService} to print the collected statistics and feeds the outcome back to the sampling of
+     * the method that began the transaction.</p>
      *
      * @param status the status of the transaction (committed, rolled back, etc.)
      */
     @Override
     public void afterCompletion(int status) {
-        if (status == STATUS_COMMITTED) {
-            sqlStatisticsService.printStatistics(signatureMethodBeginningTransaction);
+        TransactionStatisticsHolder.unbind(transactionStatistics);
+        if (status != STATUS_COMMITTED) {
+            return;
+        }
+        if (queryBudget != null) {
+            queryBudgetEnforcer.afterCommit(methodSampling.getSignature(), queryBudget, transactionStatistics);
+        }
+        if (sampled) {
+            boolean findingsDetected = sqlStatisticsService.printStatistics(methodSampling.getSignature(), transactionStatistics);
+            methodSampling.recordAnalysis(findingsDetected);
         }
     }
-}
\ No newline at end of file
+}
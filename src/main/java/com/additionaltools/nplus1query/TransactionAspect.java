@@ -1,14 +1,20 @@
 package com.additionaltools.nplus1query;
 
 
+import com.additionaltools.common.CallSiteResolver;
+import com.additionaltools.common.OverheadGovernor;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Before;
 import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.framework.AopProxyUtils;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.interceptor.TransactionAspectSupport;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.lang.reflect.Method;
+
 /**
  * Aspect for monitoring transaction-related statistics.
  *
@@ -20,9 +26,19 @@ import org.springframework.transaction.support.TransactionSynchronizationManager
 public class TransactionAspect {
 
     private final SQLStatisticsService sqlStatisticsService;
+    private final AdaptiveSampler adaptiveSampler;
+    private final CallSiteResolver callSiteResolver;
+    private final OverheadGovernor overheadGovernor;
+    private final QueryBudgetEnforcer queryBudgetEnforcer;
 
-    public TransactionAspect(SQLStatisticsService sqlStatisticsService) {
+    public TransactionAspect(SQLStatisticsService sqlStatisticsService, AdaptiveSampler adaptiveSampler,
+                             CallSiteResolver callSiteResolver, OverheadGovernor overheadGovernor,
+                             QueryBudgetEnforcer queryBudgetEnforcer) {
         this.sqlStatisticsService = sqlStatisticsService;
+        this.adaptiveSampler = adaptiveSampler;
+        this.callSiteResolver = callSiteResolver;
+        this.overheadGovernor = overheadGovernor;
+        this.queryBudgetEnforcer = queryBudgetEnforcer;
     }
 
     /**
@@ -35,19 +51,30 @@ public class TransactionAspect {
     /**
      * Method invoked before a transaction starts.
      *
-     * <p>If this is a new transaction, registers a transaction synchronization and clears statistics.</p>
+     * <p>If this is a new transaction selected by the {@link AdaptiveSampler} and admitted by the
+     * {@link OverheadGovernor}, or if the method has a {@link QueryBudget}, binds fresh {@link TransactionStatistics}
+     * to the current thread and registers a transaction synchronization that reports them once the transaction completes.</p>
      *
      * @param joinPoint the join point providing information about the method being invoked
      */
     @Before("transactionalMethodOrClass()")
     public void beforeTransaction(JoinPoint joinPoint) {
-        String signatureMethodBeginningTransaction = joinPoint.getSignature().toString();
         boolean isNewTransaction = TransactionAspectSupport.currentTransactionStatus().isNewTransaction();
+        if (!isNewTransaction) {
+            return;
+        }
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        AdaptiveSampler.MethodSampling methodSampling = adaptiveSampler.getSampling(
+                method, () -> joinPoint.getSignature().toString());
+        QueryBudget queryBudget = queryBudgetEnforcer.getBudget(method, AopProxyUtils.ultimateTargetClass(joinPoint.getTarget()));
 
-        if (isNewTransaction) {
+        boolean sampled = methodSampling.shouldSample() && overheadGovernor.shouldRun(SQLStatisticsService.DETECTOR);
+        if (sampled || queryBudget != null) {
+            TransactionStatistics transactionStatistics = new TransactionStatistics(callSiteResolver);
             TransactionSynchronizationManager.registerSynchronization(
-                    new StatisticTransactionSynchronization(signatureMethodBeginningTransaction, sqlStatisticsService));
-            sqlStatisticsService.clearStatistics();
+                    new StatisticTransactionSynchronization(methodSampling, transactionStatistics, sqlStatisticsService,
+                            sampled, queryBudget, queryBudgetEnforcer));
+            TransactionStatisticsHolder.bind(transactionStatistics);
         }
     }
-}
\ No newline at end of file
+}
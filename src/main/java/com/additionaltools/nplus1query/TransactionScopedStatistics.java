@@ -0,0 +1,66 @@
+package com.additionaltools.nplus1query;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.internal.StatisticsImpl;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * {@link StatisticsImpl} that additionally records events into the {@link TransactionStatistics}
+ * bound to the current thread.
+ *
+ * <p>The global counters keep working as before, but the detectors read the per-transaction copy, so they
+ * never have to clear the statistics shared by the whole {@link org.hibernate.SessionFactory}.</p>
+ */
+public class TransactionScopedStatistics extends StatisticsImpl {
+
+    public TransactionScopedStatistics(SessionFactoryImplementor sessionFactory) {
+        super(sessionFactory);
+    }
+
+    @Override
+    public void fetchCollection(String role) {
+        super.fetchCollection(role);
+        forEachBound(transactionStatistics -> transactionStatistics.collectionFetched(role));
+    }
+
+    @Override
+    public void fetchEntity(String entityName) {
+        super.fetchEntity(entityName);
+        forEachBound(transactionStatistics -> transactionStatistics.entityFetched(entityName));
+    }
+
+    @Override
+    public void loadEntity(String entityName) {
+        super.loadEntity(entityName);
+        forEachBound(TransactionStatistics::entityLoaded);
+    }
+
+    @Override
+    public void insertEntity(String entityName) {
+        super.insertEntity(entityName);
+        forEachBound(TransactionStatistics::entityInserted);
+    }
+
+    @Override
+    public void prepareStatement() {
+        super.prepareStatement();
+        forEachBound(TransactionStatistics::statementPrepared);
+    }
+
+    @Override
+    public void queryExecuted(String hql, int rows, long time) {
+        super.queryExecuted(hql, rows, time);
+        forEachBound(transactionStatistics -> transactionStatistics.queryExecuted(hql));
+    }
+
+    private static void forEachBound(Consumer<TransactionStatistics> event) {
+        List<TransactionStatistics> bound = TransactionStatisticsHolder.getBound();
+        if (bound != null) {
+            for (TransactionStatistics transactionStatistics : bound) {
+                event.accept(transactionStatistics);
+            }
+        }
+    }
+}
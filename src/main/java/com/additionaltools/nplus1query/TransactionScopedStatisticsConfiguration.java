@@ -0,0 +1,20 @@
+package com.additionaltools.nplus1query;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class registering {@link TransactionScopedStatisticsFactory} in the Hibernate properties.
+ *
+ * <p>The customizer is applied by Spring Boot while the {@code EntityManagerFactory} is being built.</p>
+ */
+@Configuration
+public class TransactionScopedStatisticsConfiguration {
+
+    @Bean
+    public HibernatePropertiesCustomizer transactionScopedStatisticsCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATS_BUILDER, new TransactionScopedStatisticsFactory());
+    }
+}
@@ -0,0 +1,17 @@
+package com.additionaltools.nplus1query;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.spi.StatisticsFactory;
+import org.hibernate.stat.spi.StatisticsImplementor;
+
+/**
+ * {@link StatisticsFactory} registered under {@code hibernate.stats.factory} to make Hibernate use
+ * {@link TransactionScopedStatistics}.
+ */
+public class TransactionScopedStatisticsFactory implements StatisticsFactory {
+
+    @Override
+    public StatisticsImplementor buildStatistics(SessionFactoryImplementor sessionFactory) {
+        return new TransactionScopedStatistics(sessionFactory);
+    }
+}
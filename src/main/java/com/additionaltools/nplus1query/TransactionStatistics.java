@@ -0,0 +1,178 @@
+package com.additionaltools.nplus1query;
+
+import com.additionaltools.common.CallSiteResolver;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hibernate statistics collected for a single transaction.
+ *
+ * <p>An instance is confined to the thread running the transaction, so the counters are plain fields
+ * without any synchronization. It is filled by {@link TransactionScopedStatistics} for as long as it is
+ * bound in {@link TransactionStatisticsHolder}.</p>
+ *
+ * <p>The application call site is resolved only for the first fetch of every collection role and entity name, later
+ * fetches of the same role or entity just increment the counter. Entity fetches include the initialization of lazy
+ * to-one proxies.</p>
+ */
+public class TransactionStatistics {
+
+    private final CallSiteResolver callSiteResolver;
+    private final Map<String, Counter> collectionFetches = new HashMap<>();
+    private final Map<String, Counter> entityFetches = new HashMap<>();
+    private final Set<String> queries = new LinkedHashSet<>();
+    private long statements;
+    private long entityLoads;
+    private long entityInserts;
+
+    public TransactionStatistics(CallSiteResolver callSiteResolver) {
+        this.callSiteResolver = callSiteResolver;
+    }
+
+    void collectionFetched(String role) {
+        increment(collectionFetches, role);
+    }
+
+    void entityFetched(String entityName) {
+        increment(entityFetches, entityName);
+    }
+
+    void queryExecuted(String query) {
+        queries.add(query);
+    }
+
+    void statementPrepared() {
+        statements++;
+    }
+
+    void entityLoaded() {
+        entityLoads++;
+    }
+
+    void entityInserted() {
+        entityInserts++;
+    }
+
+    /**
+     * @return the number of JDBC statements prepared within the transaction
+     */
+    public long getStatementCount() {
+        return statements;
+    }
+
+    /**
+     * @return the number of entities loaded within the transaction, by queries as well as by single selects
+     */
+    public long getEntityLoadCount() {
+        return entityLoads;
+    }
+
+    /**
+     * @return the number of entities inserted within the transaction
+     */
+    public long getEntityInsertCount() {
+        return entityInserts;
+    }
+
+    /**
+     * @return the number of collection fetches of all roles within the transaction
+     */
+    public long getCollectionFetchCount() {
+        return sum(collectionFetches);
+    }
+
+    /**
+     * @return the number of entity fetches of all entity names within the transaction
+     */
+    public long getEntityFetchCount() {
+        return sum(entityFetches);
+    }
+
+    /**
+     * Returns the number of collection fetches per collection role.
+     *
+     * @return collection role mapped to the number of fetches performed within the transaction
+     */
+    public Map<String, Long> getCollectionFetchCounts() {
+        return toCounts(collectionFetches);
+    }
+
+    /**
+     * Returns the application call site of the first fetch per collection role.
+     *
+     * @return collection role mapped to the call site that first fetched it within the transaction
+     */
+    public Map<String, String> getCollectionFetchCallSites() {
+        return toCallSites(collectionFetches);
+    }
+
+    /**
+     * Returns the number of entity fetches per entity name.
+     *
+     * @return entity name mapped to the number of selects loading a single entity within the transaction
+     */
+    public Map<String, Long> getEntityFetchCounts() {
+        return toCounts(entityFetches);
+    }
+
+    /**
+     * Returns the application call site of the first fetch per entity name.
+     *
+     * @return entity name mapped to the call site that first fetched it within the transaction
+     */
+    public Map<String, String> getEntityFetchCallSites() {
+        return toCallSites(entityFetches);
+    }
+
+    /**
+     * Returns the distinct queries executed within the transaction, in execution order.
+     *
+     * @return the executed queries
+     */
+    public Set<String> getQueries() {
+        return Collections.unmodifiableSet(queries);
+    }
+
+    private void increment(Map<String, Counter> counters, String name) {
+        Counter counter = counters.get(name);
+        if (counter == null) {
+            counter = new Counter(callSiteResolver.resolve());
+            counters.put(name, counter);
+        }
+        counter.value++;
+    }
+
+    private static long sum(Map<String, Counter> counters) {
+        long sum = 0;
+        for (Counter counter : counters.values()) {
+            sum += counter.value;
+        }
+        return sum;
+    }
+
+    private static Map<String, String> toCallSites(Map<String, Counter> counters) {
+        Map<String, String> callSites = new LinkedHashMap<>();
+        counters.forEach((name, counter) -> callSites.put(name, counter.firstCallSite));
+        return callSites;
+    }
+
+    private static Map<String, Long> toCounts(Map<String, Counter> counters) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        counters.forEach((name, counter) -> counts.put(name, counter.value));
+        return counts;
+    }
+
+    private static final class Counter {
+        private final String firstCallSite;
+        private long value;
+
+        private Counter(String firstCallSite) {
+            this.firstCallSite = firstCallSite;
+        }
+    }
+}
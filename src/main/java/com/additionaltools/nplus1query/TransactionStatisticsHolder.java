@@ -0,0 +1,45 @@
+package com.additionaltools.nplus1query;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the {@link TransactionStatistics} bound to the current thread.
+ *
+ * <p>More than one instance can be bound at the same time (for example a transaction and a nested
+ * measurement), every bound instance receives the same events. The statistics of a transaction are unbound while a
+ * nested transaction suspends it, so only the innermost transaction receives the events of its statements.</p>
+ */
+public final class TransactionStatisticsHolder {
+
+    private static final ThreadLocal<List<TransactionStatistics>> boundStatistics = new ThreadLocal<>();
+
+    private TransactionStatisticsHolder() {
+    }
+
+    public static void bind(TransactionStatistics transactionStatistics) {
+        List<TransactionStatistics> bound = boundStatistics.get();
+        if (bound == null) {
+            bound = new ArrayList<>(2);
+            boundStatistics.set(bound);
+        }
+        bound.add(transactionStatistics);
+    }
+
+    public static void unbind(TransactionStatistics transactionStatistics) {
+        List<TransactionStatistics> bound = boundStatistics.get();
+        if (bound != null) {
+            bound.remove(transactionStatistics);
+            if (bound.isEmpty()) {
+                boundStatistics.remove();
+            }
+        }
+    }
+
+    /**
+     * @return statistics bound to the current thread, or {@code null} when nothing is bound
+     */
+    static List<TransactionStatistics> getBound() {
+        return boundStatistics.get();
+    }
+}
@@ -1,8 +1,18 @@
 package com.additionaltools.nplus1query;
 
+import com.additionaltools.common.AnnotationScannerService;
+import com.additionaltools.common.CallSiteResolver;
+import com.additionaltools.common.DetectorMetrics;
 import com.additionaltools.common.EmptyLoggingConfiguration;
+import com.additionaltools.common.FindingAggregator;
+import com.additionaltools.common.FindingsConfiguration;
+import com.additionaltools.common.OverheadGovernor;
+import com.additionaltools.common.OverheadGovernorConfiguration;
 import com.additionaltools.logging.LoggingService;
 import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
@@ -10,10 +20,12 @@ import org.springframework.context.annotation.Import;
 /**
  * Configuration class for automatic bean registration.
  *
- * <p>This configuration class defines beans for {@link SQLStatisticsService} and {@link TransactionAspect}.
+ * <p>This configuration class defines beans for {@link SQLStatisticsService}, {@link QueryBudgetEnforcer},
+ * {@link QueryBudgetRepositoryPostProcessor} and {@link TransactionAspect}.
  * It provides the necessary setup to integrate these components into the Spring application context.</p>
  */
-@Import(EmptyLoggingConfiguration.class)
+@Import({EmptyLoggingConfiguration.class, FindingsConfiguration.class, OverheadGovernorConfiguration.class,
+        TransactionScopedStatisticsConfiguration.class})
 @Configuration
 public class TransactionalStatisticConfiguration {
     /**
@@ -23,11 +35,67 @@ public class TransactionalStatisticConfiguration {
      * which is used to initialize the service for managing and analyzing SQL statistics.</p>
      *
      * @param entityManagerFactory the {@link EntityManagerFactory} used to create the SQLStatisticsService
+     * @param findingAggregator    the {@link FindingAggregator} deduplicating repeated findings
+     * @param overheadGovernor     the {@link OverheadGovernor} receiving the analysis overhead
+     * @param minEntityFetches     the number of fetches of the same entity within a transaction from which they are
+     *                             reported, {@code hiperanalyzer.nplus1.min-entity-fetches}
      * @return a configured instance of {@link SQLStatisticsService}
      */
     @Bean
-    public SQLStatisticsService sqlStatisticsService(EntityManagerFactory entityManagerFactory, LoggingService loggingService) {
-        return new SQLStatisticsService(entityManagerFactory, loggingService);
+    public SQLStatisticsService sqlStatisticsService(EntityManagerFactory entityManagerFactory, LoggingService loggingService,
+                                                     FindingAggregator findingAggregator, OverheadGovernor overheadGovernor,
+                                                     @Value("${hiperanalyzer.nplus1.min-entity-fetches:3}") long minEntityFetches) {
+        return new SQLStatisticsService(entityManagerFactory, loggingService, findingAggregator, overheadGovernor,
+                minEntityFetches);
+    }
+
+    /**
+     * Creates the {@link AdaptiveSampler} deciding which transactions are inspected.
+     *
+     * <p>Sampling is disabled by default, so every transaction is inspected. It is configured with the
+     * {@code hiperanalyzer.nplus1.sampling.*} properties.</p>
+     *
+     * @param enabled             whether transactions are sampled at all
+     * @param rate                the initial sampling rate of every transactional method, between 0 and 1
+     * @param minRate             the lowest rate a method without findings decays to
+     * @param analysesBeforeDecay the number of clean analyses after which the rate of a method is halved
+     * @return a configured instance of {@link AdaptiveSampler}
+     */
+    @Bean
+    public AdaptiveSampler adaptiveSampler(@Value("${hiperanalyzer.nplus1.sampling.enabled:false}") boolean enabled,
+                                           @Value("${hiperanalyzer.nplus1.sampling.rate:1.0}") double rate,
+                                           @Value("${hiperanalyzer.nplus1.sampling.min-rate:0.01}") double minRate,
+                                           @Value("${hiperanalyzer.nplus1.sampling.analyses-before-decay:100}") long analysesBeforeDecay) {
+        return new AdaptiveSampler(enabled, rate, minRate, analysesBeforeDecay);
+    }
+
+    /**
+     * Creates the {@link QueryBudgetEnforcer} checking the transactions of methods annotated with {@link QueryBudget}.
+     *
+     * @param findingAggregator the {@link FindingAggregator} deduplicating repeated findings
+     * @param detectorMetrics   the {@link DetectorMetrics} receiving the budgets with {@link QueryBudget.Action#METRIC}
+     * @return a configured instance of {@link QueryBudgetEnforcer}
+     */
+    @Bean
+    public QueryBudgetEnforcer queryBudgetEnforcer(LoggingService loggingService, FindingAggregator findingAggregator,
+                                                   DetectorMetrics detectorMetrics) {
+        return new QueryBudgetEnforcer(loggingService, findingAggregator, detectorMetrics);
+    }
+
+    /**
+     * Creates the {@link QueryBudgetRepositoryPostProcessor} checking the {@link QueryBudget} of Spring Data repository
+     * methods inside the transaction of the repository.
+     *
+     * @param queryBudgetEnforcerProvider      the {@link QueryBudgetEnforcer}, looked up on the first repository call
+     * @param annotationScannerServiceProvider the service locating the package annotated with
+     *                                         {@link EnableNPlus1QueryDetection}
+     * @return a configured instance of {@link QueryBudgetRepositoryPostProcessor}
+     */
+    @Bean
+    public static QueryBudgetRepositoryPostProcessor queryBudgetRepositoryPostProcessor(
+            ObjectProvider<QueryBudgetEnforcer> queryBudgetEnforcerProvider,
+            ObjectProvider<AnnotationScannerService> annotationScannerServiceProvider) {
+        return new QueryBudgetRepositoryPostProcessor(queryBudgetEnforcerProvider, annotationScannerServiceProvider);
     }
 
     /**
@@ -37,10 +105,26 @@ public class TransactionalStatisticConfiguration {
      * which is used to monitor and collect statistics during transactional operations.</p>
      *
      * @param sqlStatisticsService the {@link SQLStatisticsService} used by the {@link TransactionAspect}
+     * @param adaptiveSampler      the {@link AdaptiveSampler} selecting the inspected transactions
+     * @param annotationScannerService the service locating the package annotated with {@link EnableNPlus1QueryDetection},
+     *                                 used to attribute collection fetches to application code
+     * @param overheadGovernor         the {@link OverheadGovernor} throttling the detection when it exceeds its budget
+     * @param queryBudgetEnforcer      the {@link QueryBudgetEnforcer} checking the {@link QueryBudget} of the method
      * @return a configured instance of {@link TransactionAspect}
      */
     @Bean
-    public TransactionAspect transactionAspect(SQLStatisticsService sqlStatisticsService) {
-        return new TransactionAspect(sqlStatisticsService);
+    public TransactionAspect transactionAspect(SQLStatisticsService sqlStatisticsService, AdaptiveSampler adaptiveSampler,
+                                               AnnotationScannerService annotationScannerService,
+                                               OverheadGovernor overheadGovernor,
+                                               QueryBudgetEnforcer queryBudgetEnforcer) {
+        String basePath = annotationScannerService.getPackageNameForAnnotatedClass(EnableNPlus1QueryDetection.class);
+        return new TransactionAspect(sqlStatisticsService, adaptiveSampler, new CallSiteResolver(basePath), overheadGovernor,
+                queryBudgetEnforcer);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(AnnotationScannerService.class)
+    public AnnotationScannerService annotationScannerService() {
+        return new AnnotationScannerService();
     }
 }
\ No newline at end of file
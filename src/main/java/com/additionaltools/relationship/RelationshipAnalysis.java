@@ -1,72 +1,44 @@
 package com.additionaltools.relationship;
 
-import com.additionaltools.common.AnnotationScannerService;
-import com.additionaltools.logging.LoggingService;
-import jakarta.annotation.PostConstruct;
-import jakarta.persistence.Entity;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.asm.ClassReader;
+import com.additionaltools.common.EntityBytecodeAnalyzer;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.util.*;
+import java.util.List;
 
 
-public class RelationshipAnalysis {
-    private final AnnotationScannerService annotationScannerService;
+public class RelationshipAnalysis implements EntityBytecodeAnalyzer<RelationshipCollector> {
     private final String basePath;
-    private static final Logger log = LoggerFactory.getLogger(RelationshipAnalysis.class);
-    private final LoggingService loggingService;
 
-    RelationshipAnalysis(AnnotationScannerService annotationScannerService, String basePath, LoggingService loggingService) {
-        this.annotationScannerService = annotationScannerService;
+    public RelationshipAnalysis(String basePath) {
         this.basePath = basePath;
-        this.loggingService = loggingService;
     }
 
-    @PostConstruct
-    public void printStatistics() {
+    @Override
+    public String getBasePath() {
+        return basePath;
+    }
 
-        try {
-            Optional.ofNullable(collectEntityOptimizationData()).stream()
-                    .filter(Objects::nonNull)
-                    .flatMap(Collection::stream)
-                    .forEach(info -> {
-                        String message = """
-                                INEFFICIENT_COLLECTION_TYPE: Entity %s contains a field %s of type %s with a %s relationship annotation. \
-                                Consider using a Set for improved performance and more efficient SQL queries."""
-                                .formatted(info.entityName(), info.fieldName(), info.currentFieldType(), info.relationshipType());
-                        loggingService.addLog(message);
-                        log.warn(message);
-                    });
-        } catch (Exception e) {
-            log.error("Problem with RelationshipAnalysis", e);
-        }
+    @Override
+    public RelationshipCollector createCollector(String entityName) {
+        return new RelationshipCollector(entityName);
     }
 
     /**
-     * Should be a set type
-     * Prepares the analysis data for entity field optimization.
+     * Reports the entity fields that should be optimized.
      *
-     * <p>This method scans for entities in the specified package, analyzes their relationships,
-     * and collects information about fields that should be optimized. It returns a set of
-     * {@link EntityFieldOptimizationInfo} containing the collected data.
+     * <p>The {@link RelationshipCollector} has visited the entity and collected the relationship fields typed
+     * as {@code List}, {@code Collection} or an array, which should be a set type.</p>
      *
-     * @return a set of {@link EntityFieldOptimizationInfo} with details about entity fields
-     * that require optimization.
-     * @throws IOException if an I/O error occurs during class reading.
+     * @param entityName the fully qualified name of the entity class
+     * @param collector  the collector that visited the entity class
+     * @return one finding per {@link EntityFieldOptimizationInfo}
      */
-    public Set<EntityFieldOptimizationInfo> collectEntityOptimizationData() throws IOException {
-        Set<EntityFieldOptimizationInfo> entityFieldWithListInfos = new HashSet<>();
-        Set<Class<?>> entitiesInPackage = annotationScannerService.findInPackage(basePath, Entity.class);
-        for (Class<?> entity : entitiesInPackage) {
-            InputStream resourceAsStream = entity.getResourceAsStream(entity.getSimpleName() + ".class");
-            ClassReader classReader = new ClassReader(resourceAsStream);
-            RelationshipCollector collector = new RelationshipCollector(entity.getName());
-            classReader.accept(collector, 0);
-            entityFieldWithListInfos.addAll(collector.getEntityFieldWithListInfos());
-        }
-        return entityFieldWithListInfos;
+    @Override
+    public List<String> analyze(String entityName, RelationshipCollector collector) {
+        return collector.getEntityFieldWithListInfos().stream()
+                .map(info -> """
+                        INEFFICIENT_COLLECTION_TYPE: Entity %s contains a field %s of type %s with a %s relationship annotation. \
+                        Consider using a Set for improved performance and more efficient SQL queries."""
+                        .formatted(info.entityName(), info.fieldName(), info.currentFieldType(), info.relationshipType()))
+                .toList();
     }
 }
@@ -0,0 +1,76 @@
+package com.additionaltools.repeatedquery;
+
+import com.additionaltools.common.CallSiteResolver;
+import com.additionaltools.sqlexplainplan.StatementListener;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Executions per statement shape collected for a single transaction.
+ *
+ * <p>An instance is confined to the thread running the transaction, so the counters are plain fields without any
+ * synchronization. Shapes are keyed by the {@link com.additionaltools.common.SqlFingerprint} hash. Only the first
+ * statement and its call site are kept per shape, later executions just update the counters.</p>
+ */
+class QueryShapeStatistics {
+
+    private final CallSiteResolver callSiteResolver;
+    private final Map<Long, QueryShape> shapes = new HashMap<>();
+
+    QueryShapeStatistics(CallSiteResolver callSiteResolver) {
+        this.callSiteResolver = callSiteResolver;
+    }
+
+    void statementExecuted(long fingerprint, String sql, long elapsedNanos) {
+        QueryShape shape = shapes.get(fingerprint);
+        if (shape == null) {
+            shape = new QueryShape(sql, callSiteResolver.resolve());
+            shapes.put(fingerprint, shape);
+        }
+        shape.executions++;
+        if (elapsedNanos == StatementListener.UNKNOWN) {
+            shape.timed = false;
+        } else {
+            shape.totalNanos += elapsedNanos;
+        }
+    }
+
+    Collection<QueryShape> getShapes() {
+        return shapes.values();
+    }
+
+    static final class QueryShape {
+        private final String firstSql;
+        private final String firstCallSite;
+        private long executions;
+        private long totalNanos;
+        private boolean timed = true;
+
+        private QueryShape(String firstSql, String firstCallSite) {
+            this.firstSql = firstSql;
+            this.firstCallSite = firstCallSite;
+        }
+
+        String getFirstSql() {
+            return firstSql;
+        }
+
+        String getFirstCallSite() {
+            return firstCallSite;
+        }
+
+        long getExecutions() {
+            return executions;
+        }
+
+        /**
+         * @return the total execution time, or {@link StatementListener#UNKNOWN} when the capture path did not
+         * measure every execution
+         */
+        long getTotalNanos() {
+            return timed ? totalNanos : StatementListener.UNKNOWN;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.additionaltools.repeatedquery;
+
+import com.additionaltools.common.AnnotationScannerService;
+import com.additionaltools.common.CallSiteResolver;
+import com.additionaltools.common.EmptyLoggingConfiguration;
+import com.additionaltools.common.FindingAggregator;
+import com.additionaltools.common.FindingsConfiguration;
+import com.additionaltools.common.OverheadGovernor;
+import com.additionaltools.common.OverheadGovernorConfiguration;
+import com.additionaltools.logging.LoggingService;
+import com.additionaltools.sqlexplainplan.StatementCaptureConfiguration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Configuration class to set up the {@link RepeatedQueryDetector} based on @EnableRepeatedQueryDetection annotation.
+ *
+ * <p>A statement shape is reported when it is executed more than {@code hiperanalyzer.repeated-query.threshold}
+ * times within one transaction.</p>
+ */
+@Import({EmptyLoggingConfiguration.class, FindingsConfiguration.class, OverheadGovernorConfiguration.class,
+        StatementCaptureConfiguration.class})
+@Configuration
+public class RepeatedQueryDetectionConfiguration {
+
+    @Bean
+    public RepeatedQueryDetector repeatedQueryDetector(AnnotationScannerService annotationScannerService,
+                                                       LoggingService loggingService,
+                                                       FindingAggregator findingAggregator,
+                                                       OverheadGovernor overheadGovernor,
+                                                       @Value("${hiperanalyzer.repeated-query.threshold:10}") int threshold) {
+        String basePath = annotationScannerService.getPackageNameForAnnotatedClass(EnableRepeatedQueryDetection.class);
+        return new RepeatedQueryDetector(new CallSiteResolver(basePath), loggingService, findingAggregator,
+                overheadGovernor, threshold);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(AnnotationScannerService.class)
+    public AnnotationScannerService annotationScannerService() {
+        return new AnnotationScannerService();
+    }
+}
@@ -0,0 +1,137 @@
+package com.additionaltools.repeatedquery;
+
+import com.additionaltools.common.CallSiteResolver;
+import com.additionaltools.common.FindingAggregator;
+import com.additionaltools.common.OverheadGovernor;
+import com.additionaltools.common.SqlNormalizer;
+import com.additionaltools.logging.LoggingService;
+import com.additionaltools.sqlexplainplan.SqlDefinition;
+import com.additionaltools.sqlexplainplan.StatementListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Detects statement shapes executed repeatedly within one transaction.
+ *
+ * <p>Repository calls in a loop ({@code findById}, a {@code @Query} per element or {@code JdbcTemplate} queries when
+ * statements are captured at the {@code DataSource}) do not show up in the Hibernate collection statistics, but they
+ * execute the same statement shape over and over. Every captured statement is counted per
+ * {@link SqlNormalizer#hash(String)} in {@link QueryShapeStatistics} bound to the current transaction as a resource,
+ * and after the commit every shape executed more than {@code threshold} times is reported with the call site of its
+ * first execution and the total time spent.</p>
+ *
+ * <p>Statements executed outside a transaction with synchronization are not counted. Transactions not admitted by the
+ * {@link OverheadGovernor} are not counted either. The statistics of a transaction are unbound while a nested
+ * transaction, e.g. with {@code REQUIRES_NEW}, suspends it, so the statements of the nested transaction are counted
+ * and reported for the nested transaction only.</p>
+ */
+public class RepeatedQueryDetector implements StatementListener {
+
+    private static final Logger log = LoggerFactory.getLogger(RepeatedQueryDetector.class);
+    private static final String FINDING_TYPE = "REPEATED_QUERY_DETECTED";
+    private static final String DETECTOR = "repeated-query";
+    private static final Object NOT_SAMPLED = new Object();
+    private final CallSiteResolver callSiteResolver;
+    private final LoggingService loggingService;
+    private final FindingAggregator findingAggregator;
+    private final OverheadGovernor overheadGovernor;
+    private final int threshold;
+
+    public RepeatedQueryDetector(CallSiteResolver callSiteResolver, LoggingService loggingService,
+                                 FindingAggregator findingAggregator, OverheadGovernor overheadGovernor, int threshold) {
+        this.callSiteResolver = callSiteResolver;
+        this.loggingService = loggingService;
+        this.findingAggregator = findingAggregator;
+        this.overheadGovernor = overheadGovernor;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public void statementExecuted(SqlDefinition sqlDefinition, long elapsedNanos, long rowCount) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        long start = System.nanoTime();
+        Object resource = TransactionSynchronizationManager.getResource(this);
+        if (resource == NOT_SAMPLED) {
+            return;
+        }
+        QueryShapeStatistics statistics = (QueryShapeStatistics) resource;
+        if (statistics == null) {
+            if (!overheadGovernor.shouldRun(DETECTOR)) {
+                TransactionSynchronizationManager.bindResource(this, NOT_SAMPLED);
+                TransactionSynchronizationManager.registerSynchronization(new ReportingSynchronization(NOT_SAMPLED));
+                return;
+            }
+            statistics = new QueryShapeStatistics(callSiteResolver);
+            TransactionSynchronizationManager.bindResource(this, statistics);
+            TransactionSynchronizationManager.registerSynchronization(new ReportingSynchronization(statistics));
+        }
+        statistics.statementExecuted(SqlNormalizer.hash(sqlDefinition.sql()), sqlDefinition.sql(), elapsedNanos);
+        overheadGovernor.recordOverhead(DETECTOR, System.nanoTime() - start);
+    }
+
+    private void report(QueryShapeStatistics statistics) {
+        long start = System.nanoTime();
+        for (QueryShapeStatistics.QueryShape shape : statistics.getShapes()) {
+            if (shape.getExecutions() <= threshold) {
+                continue;
+            }
+            String query = SqlNormalizer.fingerprint(shape.getFirstSql()).normalizedSql();
+            boolean firstOccurrence = findingAggregator.record(FINDING_TYPE, shape.getFirstCallSite(), query,
+                    shape.getExecutions() - 1, CallSiteResolver.getMethod(shape.getFirstCallSite()));
+            if (firstOccurrence) {
+                String warning = (FINDING_TYPE + ": Query: %s; Executions: %d; Total time: %s; First executed at: %s")
+                        .formatted(query, shape.getExecutions(), formatTotalTime(shape.getTotalNanos()),
+                                shape.getFirstCallSite());
+                loggingService.addLog(warning);
+                log.warn(warning);
+            } else if (log.isDebugEnabled()) {
+                log.debug("{} again at {}: {} executions of {}", FINDING_TYPE, shape.getFirstCallSite(),
+                        shape.getExecutions(), query);
+            }
+        }
+        overheadGovernor.recordOverhead(DETECTOR, System.nanoTime() - start);
+    }
+
+    private static String formatTotalTime(long totalNanos) {
+        return totalNanos == UNKNOWN
+                ? "unknown (set hiperanalyzer.explain.capture=jdbc to measure it)"
+                : String.format("%.3f ms", totalNanos / 1_000_000.0);
+    }
+
+    /**
+     * Keeps the resource of a transaction bound while it is active and reports its statistics after the commit.
+     */
+    private final class ReportingSynchronization implements TransactionSynchronization {
+
+        private final Object resource;
+
+        /**
+         * @param resource the {@link QueryShapeStatistics} of the transaction, or {@link RepeatedQueryDetector#NOT_SAMPLED}
+         */
+        private ReportingSynchronization(Object resource) {
+            this.resource = resource;
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResourceIfPossible(RepeatedQueryDetector.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(RepeatedQueryDetector.this, resource);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(RepeatedQueryDetector.this);
+            if (status == STATUS_COMMITTED && resource instanceof QueryShapeStatistics statistics) {
+                report(statistics);
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.additionaltools.sqlexplainplan;
+
+import org.springframework.context.annotation.Import;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Custom annotation to enable PlanRegressionConfiguration, used together with {@link EnableQueryPlanAnalysis}.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Import(PlanRegressionConfiguration.class)
+public @interface EnablePlanRegressionDetection {
+}
@@ -0,0 +1,50 @@
+package com.additionaltools.sqlexplainplan;
+
+import java.util.List;
+
+/**
+ * The execution plan of a statement, parsed by an {@link Explainer}.
+ *
+ * @param root the {@link PlanNode.Operation#QUERY} node of the statement
+ * @param text the plan as printed by the database, for logging
+ */
+public record ExecutionPlan(PlanNode root, String text) {
+
+    /**
+     * Cached for statements that could not be explained, so they are not explained again until the plan expires.
+     */
+    public static final ExecutionPlan UNAVAILABLE =
+            new ExecutionPlan(PlanNode.of(PlanNode.Operation.QUERY, List.of()), "");
+
+    /**
+     * Renders the operations, tables and indexes of the plan without the row estimates, which change with the data,
+     * e.g. {@code QUERY(NESTED_LOOP(INDEX_SCAN ORDERS index=FK_ORDERS_CUSTOMER, FULL_SCAN CUSTOMERS))}.
+     *
+     * @return the shape of the plan, equal for plans the database executes the same way
+     */
+    public String getShape() {
+        StringBuilder shape = new StringBuilder();
+        appendShape(root, shape);
+        return shape.toString();
+    }
+
+    private static void appendShape(PlanNode node, StringBuilder shape) {
+        shape.append(node.operation());
+        if (node.table() != null) {
+            shape.append(' ').append(node.table());
+        }
+        if (node.index() != null) {
+            shape.append(" index=").append(node.index());
+        }
+        if (!node.children().isEmpty()) {
+            shape.append('(');
+            for (int i = 0; i < node.children().size(); i++) {
+                if (i > 0) {
+                    shape.append(", ");
+                }
+                appendShape(node.children().get(i), shape);
+            }
+            shape.append(')');
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.additionaltools.sqlexplainplan;
+
+import com.additionaltools.common.CallSiteResolver;
+import com.additionaltools.common.FindingAggregator;
+import com.additionaltools.common.OverheadGovernor;
+import com.additionaltools.common.SqlNormalizer;
+import com.additionaltools.logging.LoggingService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Explains captured statements on a bounded background executor.
+ *
+ * <p>Every statement shape, identified by its {@link com.additionaltools.common.SqlFingerprint}, is explained once
+ * per {@link ExecutionPlanCache} time-to-live, off the thread
+ * that executed it. When the queue is full the statement is skipped and counted, the application thread
+ * never waits for an EXPLAIN. The call site is resolved only for statements that are actually explained.</p>
+ *
+ * <p>Every plan is checked by the {@link PlanRules} and each {@link PlanFinding} is reported with its severity through
+ * the {@link FindingAggregator}, keyed by the call site, the table and the normalized statement. The plan itself is
+ * only logged at debug level. With a {@link PlanDigestStore} the shape of every plan is compared with the shape
+ * recorded for the statement, also by previous runs, and a change that is not an improvement is reported as a
+ * {@link PlanFinding.Type#PLAN_REGRESSION} or {@link PlanFinding.Type#PLAN_CHANGE} with both plans.</p>
+ */
+public class ExecutionPlanAnalyzer implements StatementListener {
+
+    private static final String DETECTOR = "explain";
+    private static final ThreadLocal<Boolean> EXPLAIN_THREAD = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionPlanAnalyzer.class);
+    private final Explainer explainer;
+    private final ExecutionPlanCache executionPlanCache;
+    private final PlanRules planRules;
+    private final PlanDigestStore planDigestStore;
+    private final CallSiteResolver callSiteResolver;
+    private final LoggingService loggingService;
+    private final FindingAggregator findingAggregator;
+    private final OverheadGovernor overheadGovernor;
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong droppedStatements = new AtomicLong();
+
+    /**
+     * @param planDigestStore the store of the plan shapes, {@code null} to not detect plan changes
+     */
+    public ExecutionPlanAnalyzer(Explainer explainer, ExecutionPlanCache executionPlanCache, PlanRules planRules,
+                                 PlanDigestStore planDigestStore, CallSiteResolver callSiteResolver, LoggingService loggingService,
+                                 FindingAggregator findingAggregator, OverheadGovernor overheadGovernor,
+                                 int threads, int queueCapacity) {
+        this.explainer = explainer;
+        this.executionPlanCache = executionPlanCache;
+        this.planRules = planRules;
+        this.planDigestStore = planDigestStore;
+        this.callSiteResolver = callSiteResolver;
+        this.loggingService = loggingService;
+        this.findingAggregator = findingAggregator;
+        this.overheadGovernor = overheadGovernor;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new ExplainThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * @return {@code true} when called from a thread running EXPLAIN statements, which must not be captured
+     */
+    public static boolean isExplainThread() {
+        return EXPLAIN_THREAD.get();
+    }
+
+    /**
+     * Schedules the completed statement for explaining unless its plan is already cached or the
+     * {@link OverheadGovernor} throttles the analysis.
+     */
+    @Override
+    public void statementExecuted(SqlDefinition sqlDefinition, long elapsedNanos, long rowCount) {
+        if (!overheadGovernor.shouldRun(DETECTOR)) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            schedule(sqlDefinition, elapsedNanos, rowCount);
+        } finally {
+            overheadGovernor.recordOverhead(DETECTOR, System.nanoTime() - start);
+        }
+    }
+
+    private void schedule(SqlDefinition sqlDefinition, long elapsedNanos, long rowCount) {
+        long fingerprint = SqlNormalizer.hash(sqlDefinition.sql());
+        if (!executionPlanCache.tryReserve(fingerprint)) {
+            return;
+        }
+        SqlDefinition attributed = sqlDefinition.withMethodExecution(callSiteResolver.resolve());
+        try {
+            executor.execute(() -> explain(fingerprint, attributed, elapsedNanos, rowCount));
+        } catch (RejectedExecutionException e) {
+            executionPlanCache.release(fingerprint);
+            long dropped = droppedStatements.incrementAndGet();
+            logger.debug("EXPLAIN queue is full, skipped statement (skipped so far: {})", dropped);
+        }
+    }
+
+    /**
+     * @return the number of statements skipped because the EXPLAIN queue was full
+     */
+    public long getDroppedStatements() {
+        return droppedStatements.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void explain(long fingerprint, SqlDefinition sqlDefinition, long elapsedNanos, long rowCount) {
+        String sqlWithArguments = sqlDefinition.getSqlWithArguments();
+        ExecutionPlan executionPlan;
+        try {
+            executionPlan = explainer.explainQuery(sqlWithArguments);
+        } catch (Exception e) {
+            executionPlanCache.put(fingerprint, ExecutionPlan.UNAVAILABLE);
+            logger.warn("Unable to explain query '{}'", sqlWithArguments, e);
+            return;
+        }
+        executionPlanCache.put(fingerprint, executionPlan);
+        sqlDefinition.explanations().add(executionPlan);
+        logger.debug("Execution plan of '{}':{}{}", sqlWithArguments, System.lineSeparator(), executionPlan.text());
+
+        String query = SqlNormalizer.fingerprint(sqlDefinition.sql()).normalizedSql();
+        for (PlanFinding finding : planRules.evaluate(executionPlan)) {
+            report(finding, sqlDefinition, query, sqlWithArguments, elapsedNanos, rowCount);
+        }
+        if (planDigestStore != null && !executionPlan.root().children().isEmpty()) {
+            String shape = executionPlan.getShape();
+            PlanDigestStore.PlanDigest previous = planDigestStore.record(fingerprint, shape);
+            PlanFinding change = previous != null ? planRules.evaluateChange(previous, shape) : null;
+            if (change != null) {
+                report(change, sqlDefinition, query, sqlWithArguments, elapsedNanos, rowCount);
+            }
+        }
+    }
+
+    private void report(PlanFinding finding, SqlDefinition sqlDefinition, String query, String sqlWithArguments,
+                        long elapsedNanos, long rowCount) {
+        String type = finding.type().name();
+        if (findingAggregator.record(type, sqlDefinition.methodExecution(), finding.target() + " in " + query, 0,
+                CallSiteResolver.getMethod(sqlDefinition.methodExecution()))) {
+            String warning = (type + ": Severity: %s; Method: %s%s; Target: %s; %s; Query: %s. %s")
+                    .formatted(finding.severity(), sqlDefinition.methodExecution(),
+                            describeExecution(elapsedNanos, rowCount), finding.target(), finding.detail(),
+                            sqlWithArguments, finding.type().getAdvice());
+            loggingService.addLog(warning);
+            logger.warn(warning);
+        }
+    }
+
+    private static String describeExecution(long elapsedNanos, long rowCount) {
+        if (elapsedNanos == UNKNOWN) {
+            return "";
+        }
+        String rows = rowCount == UNKNOWN ? "" : String.format(", %d row(s)", rowCount);
+        return String.format(" (%.3f ms%s)", elapsedNanos / 1_000_000.0, rows);
+    }
+
+    private static final class ExplainThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Runnable explainRunnable = () -> {
+                EXPLAIN_THREAD.set(Boolean.TRUE);
+                runnable.run();
+            };
+            Thread thread = new Thread(explainRunnable, "hiperanalyzer-explain-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
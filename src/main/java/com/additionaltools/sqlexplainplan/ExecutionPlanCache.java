@@ -0,0 +1,91 @@
+package com.additionaltools.sqlexplainplan;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU cache of execution plans with a time-to-live, keyed by the {@link com.additionaltools.common.SqlFingerprint} hash
+ * of the statement.
+ *
+ * <p>A statement is reserved before it is explained, so concurrent executions of the same statement
+ * trigger only one EXPLAIN. A reservation behaves like a cached plan until it expires.</p>
+ */
+public class ExecutionPlanCache {
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final Clock clock;
+    private final LinkedHashMap<Long, CachedPlan> plans;
+
+    public ExecutionPlanCache(int maxSize, Duration ttl) {
+        this(maxSize, ttl, Clock.systemUTC());
+    }
+
+    ExecutionPlanCache(int maxSize, Duration ttl, Clock clock) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size must be positive, got " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+        this.plans = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedPlan> eldest) {
+                return size() > ExecutionPlanCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Reserves the statement for explaining.
+     *
+     * @param fingerprint the fingerprint hash of the statement
+     * @return {@code true} if the statement shape has no valid plan and the caller should explain it
+     */
+    public synchronized boolean tryReserve(long fingerprint) {
+        long now = clock.millis();
+        CachedPlan cachedPlan = plans.get(fingerprint);
+        if (cachedPlan != null && now - cachedPlan.createdAt() < ttlMillis) {
+            return false;
+        }
+        plans.put(fingerprint, new CachedPlan(null, now));
+        return true;
+    }
+
+    /**
+     * Drops a reservation that will not be completed, so the statement can be explained again.
+     *
+     * @param fingerprint the fingerprint hash of the statement
+     */
+    public synchronized void release(long fingerprint) {
+        CachedPlan cachedPlan = plans.get(fingerprint);
+        if (cachedPlan != null && cachedPlan.plan() == null) {
+            plans.remove(fingerprint);
+        }
+    }
+
+    public synchronized void put(long fingerprint, ExecutionPlan plan) {
+        plans.put(fingerprint, new CachedPlan(plan, clock.millis()));
+    }
+
+    /**
+     * @param fingerprint the fingerprint hash of the statement
+     * @return the cached plan, or {@code null} if the statement was not explained yet or the plan expired
+     */
+    public synchronized ExecutionPlan get(long fingerprint) {
+        CachedPlan cachedPlan = plans.get(fingerprint);
+        if (cachedPlan == null || clock.millis() - cachedPlan.createdAt() >= ttlMillis) {
+            return null;
+        }
+        return cachedPlan.plan();
+    }
+
+    public synchronized int size() {
+        return plans.size();
+    }
+
+    private record CachedPlan(ExecutionPlan plan, long createdAt) {
+    }
+}
@@ -3,14 +3,14 @@ package com.additionaltools.sqlexplainplan;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.List;
-import java.util.Map;
-
 public interface Explainer {
     Logger logger = LoggerFactory.getLogger(Explainer.class);
 
-    List<Map<String, Object>> explainQuery(String query);
-
-    String getPrintableTable(List<Map<String, Object>> tables);
+    /**
+     * Explains the query without executing it.
+     *
+     * @param query the query with its arguments bound as literals
+     * @return the plan of the query, parsed into a {@link PlanNode} tree
+     */
+    ExecutionPlan explainQuery(String query);
 }
-
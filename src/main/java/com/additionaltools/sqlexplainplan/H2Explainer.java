@@ -1,22 +1,100 @@
 package com.additionaltools.sqlexplainplan;
 
-import org.apache.logging.log4j.util.Strings;
 import org.springframework.jdbc.core.JdbcTemplate;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.function.ToLongBiFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+/**
+ * Parses the plan H2 prints for {@code EXPLAIN}: the query with a comment naming the access path below every table.
+ *
+ * <p>A {@code PUBLIC.ORDERS.tableScan} comment is a full scan, an index with a condition, e.g.
+ * {@code PUBLIC.PRIMARY_KEY_8: ID = ?1}, a lookup and an index without one a full index scan. H2 joins the tables
+ * of the outer query in the printed order by nested loops. It sorts the rows unless the plan ends with an
+ * {@code index sorted} comment and groups them in a hash table unless it says {@code group sorted}. H2 does not
+ * estimate rows per operation, scans and range lookups are estimated with the {@code ROW_COUNT_ESTIMATE} of the
+ * table, as an upper bound, and lookups of a single key are left unknown. Subqueries are not parsed.</p>
+ */
 public class H2Explainer implements Explainer {
 
+    private static final Pattern TABLE = Pattern.compile(
+            "^(?:FROM|(?:(?:INNER|CROSS|NATURAL|(?:LEFT|RIGHT|FULL)(?: OUTER)?) )?JOIN) \"?([^\\s\".]+)\"?\\.\"?([^\\s\".]+)\"?");
+    private static final Pattern ACCESS_PATH = Pattern.compile("^/\\* ([^\\s:*]+)(?:: (.*?))?\\s*(?:\\*/)?$");
+    private static final Pattern EQUALITY = Pattern.compile("^[^\\s=<>!]+ = [^<>]+$");
+    private static final String TABLE_SCAN = ".tableScan";
+    private final JdbcTemplate jdbcTemplate;
+
     public H2Explainer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public ExecutionPlan explainQuery(String query) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN %s".formatted(query), String.class);
+        return new ExecutionPlan(parse(plan, this::getRowCountEstimate), plan);
+    }
+
+    /**
+     * @param rowCountEstimates the row count estimate of a table by its schema and name
+     */
+    static PlanNode parse(String plan, ToLongBiFunction<String, String> rowCountEstimates) {
+        String[] lines = plan.split("\\R");
+        List<PlanNode> accesses = new ArrayList<>();
+        boolean orderBy = false;
+        boolean indexSorted = false;
+        boolean groupBy = false;
+        boolean groupSorted = false;
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i];
+            orderBy |= line.startsWith("ORDER BY");
+            groupBy |= line.startsWith("GROUP BY");
+            indexSorted |= line.equals("/* index sorted */");
+            groupSorted |= line.equals("/* group sorted */");
+            Matcher table = TABLE.matcher(line);
+            if (table.find() && i + 1 < lines.length) {
+                accesses.add(parseAccess(table.group(1), table.group(2), lines[i + 1].trim(), rowCountEstimates));
+            }
+        }
+        if (accesses.isEmpty()) {
+            return PlanNode.of(PlanNode.Operation.QUERY, List.of());
+        }
+        PlanNode node = accesses.size() == 1 ? accesses.get(0) : PlanNode.of(PlanNode.Operation.NESTED_LOOP, accesses);
+        if (groupBy && !groupSorted) {
+            node = PlanNode.of(PlanNode.Operation.TEMPORARY, List.of(node));
+        }
+        if (orderBy && !indexSorted) {
+            node = PlanNode.of(PlanNode.Operation.SORT, List.of(node));
+        }
+        return PlanNode.of(PlanNode.Operation.QUERY, List.of(node));
     }
 
-    public List<Map<String, Object>> explainQuery(String query) {
-        return (List<Map<String, Object>>) Map.of();
+    private static PlanNode parseAccess(String schema, String table, String comment,
+                                        ToLongBiFunction<String, String> rowCountEstimates) {
+        Matcher accessPath = ACCESS_PATH.matcher(comment);
+        if (!accessPath.find()) {
+            return PlanNode.access(PlanNode.Operation.OTHER, table, null, PlanNode.UNKNOWN_ROWS);
+        }
+        String path = accessPath.group(1);
+        if (path.endsWith(TABLE_SCAN)) {
+            return PlanNode.access(PlanNode.Operation.FULL_SCAN, table, null, rowCountEstimates.applyAsLong(schema, table));
+        }
+        String index = path.substring(path.lastIndexOf('.') + 1);
+        String condition = accessPath.group(2);
+        if (condition == null) {
+            return PlanNode.access(PlanNode.Operation.INDEX_SCAN, table, index, rowCountEstimates.applyAsLong(schema, table));
+        }
+        long rows = EQUALITY.matcher(condition.trim()).matches()
+                ? PlanNode.UNKNOWN_ROWS
+                : rowCountEstimates.applyAsLong(schema, table);
+        return PlanNode.access(PlanNode.Operation.INDEX_LOOKUP, table, index, rows);
     }
 
-    @Override
-    public String getPrintableTable(List<Map<String, Object>> tables) {
-        return Strings.EMPTY;
+    private long getRowCountEstimate(String schema, String table) {
+        List<Long> estimates = jdbcTemplate.queryForList(
+                "SELECT ROW_COUNT_ESTIMATE FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_SCHEMA = ? AND TABLE_NAME = ?",
+                Long.class, schema, table);
+        return estimates.isEmpty() || estimates.get(0) == null ? PlanNode.UNKNOWN_ROWS : estimates.get(0);
     }
 }
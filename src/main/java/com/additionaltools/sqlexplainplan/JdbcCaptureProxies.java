@@ -0,0 +1,268 @@
+package com.additionaltools.sqlexplainplan;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * JDK proxies for the JDBC objects, used by {@link StatementCapturingDataSourcePostProcessor}.
+ *
+ * <p>A statement is reported once it completed: updates and batches right after executing, queries when their
+ * {@link ResultSet} (or the statement) is closed, so the number of rows read is known. {@link Statement#getConnection()}
+ * and {@link ResultSet#getStatement()} return the proxies, so statements created through them are captured as well.</p>
+ */
+final class JdbcCaptureProxies {
+
+    private JdbcCaptureProxies() {
+    }
+
+    static Connection connection(Connection connection, StatementListener statementListener) {
+        return proxy(Connection.class, new ConnectionHandler(connection, statementListener));
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(JdbcCaptureProxies.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    /**
+     * @return a proxy of a result set that is not counted, only returning the statement proxy
+     */
+    private static ResultSet resultSet(ResultSet resultSet, Statement statement) {
+        return proxy(ResultSet.class, (proxy, method, args) -> switch (method.getName()) {
+            case "getStatement" -> statement;
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            default -> JdbcCaptureProxies.invoke(resultSet, method, args);
+        });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private static final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+        private final StatementListener statementListener;
+
+        private ConnectionHandler(Connection target, StatementListener statementListener) {
+            this.target = target;
+            this.statementListener = statementListener;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("equals".equals(name)) {
+                return proxy == args[0];
+            } else if ("hashCode".equals(name)) {
+                return System.identityHashCode(proxy);
+            }
+            Object result = JdbcCaptureProxies.invoke(target, method, args);
+            if (ExecutionPlanAnalyzer.isExplainThread()) {
+                return result;
+            }
+            Connection connection = (Connection) proxy;
+            if (result instanceof CallableStatement statement) {
+                return proxy(CallableStatement.class,
+                        new StatementHandler(statement, connection, (String) args[0], statementListener));
+            } else if (result instanceof PreparedStatement statement) {
+                return proxy(PreparedStatement.class,
+                        new StatementHandler(statement, connection, (String) args[0], statementListener));
+            } else if (result instanceof Statement statement) {
+                return proxy(Statement.class, new StatementHandler(statement, connection, null, statementListener));
+            }
+            return result;
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+        private static final Object[] NO_PARAMETERS = new Object[0];
+
+        private final Statement target;
+        private final Connection connection;
+        private final String preparedSql;
+        private final StatementListener statementListener;
+        private Object[] parameters = NO_PARAMETERS;
+        private int parameterCount;
+        private List<Object> firstBatchParameters;
+        private String firstBatchSql;
+        private PendingQuery pendingQuery;
+
+        private StatementHandler(Statement target, Connection connection, String preparedSql,
+                                 StatementListener statementListener) {
+            this.target = target;
+            this.connection = connection;
+            this.preparedSql = preparedSql;
+            this.statementListener = statementListener;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                setParameter(index, "setNull".equals(name) ? null : args[1]);
+                return JdbcCaptureProxies.invoke(target, method, args);
+            }
+            switch (name) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "clearParameters":
+                    parameterCount = 0;
+                    break;
+                case "addBatch":
+                    if (firstBatchSql == null) {
+                        firstBatchSql = args == null ? preparedSql : (String) args[0];
+                        firstBatchParameters = currentParameters();
+                    }
+                    break;
+                case "clearBatch":
+                    firstBatchSql = null;
+                    firstBatchParameters = null;
+                    break;
+                case "close":
+                    completePendingQuery();
+                    break;
+                case "execute":
+                case "executeQuery":
+                case "executeUpdate":
+                case "executeLargeUpdate":
+                case "executeBatch":
+                case "executeLargeBatch":
+                    return execute((Statement) proxy, name, method, args);
+                case "getConnection":
+                    return connection;
+                case "getResultSet":
+                    Object resultSet = JdbcCaptureProxies.invoke(target, method, args);
+                    if (!(resultSet instanceof ResultSet rs)) {
+                        return resultSet;
+                    }
+                    return pendingQuery != null ? pendingQuery.wrap(rs, (Statement) proxy) : resultSet(rs, (Statement) proxy);
+                case "getGeneratedKeys":
+                    Object generatedKeys = JdbcCaptureProxies.invoke(target, method, args);
+                    return generatedKeys instanceof ResultSet rs ? resultSet(rs, (Statement) proxy) : generatedKeys;
+                default:
+                    break;
+            }
+            return JdbcCaptureProxies.invoke(target, method, args);
+        }
+
+        private Object execute(Statement proxy, String name, Method method, Object[] args) throws Throwable {
+            completePendingQuery();
+            boolean batch = name.endsWith("Batch");
+            String sql = batch ? firstBatchSql : args == null ? preparedSql : (String) args[0];
+            List<Object> arguments = batch ? firstBatchParameters : currentParameters();
+            long start = System.nanoTime();
+            Object result = JdbcCaptureProxies.invoke(target, method, args);
+            long elapsedNanos = System.nanoTime() - start;
+            if (sql == null) {
+                return result;
+            }
+            SqlDefinition sqlDefinition = new SqlDefinition(sql, arguments, null, new ArrayList<>());
+            if (batch) {
+                firstBatchSql = null;
+                firstBatchParameters = null;
+                statementListener.statementExecuted(sqlDefinition, elapsedNanos, sumUpdateCounts(result));
+            } else if (result instanceof ResultSet resultSet) {
+                pendingQuery = new PendingQuery(sqlDefinition, elapsedNanos);
+                return pendingQuery.wrap(resultSet, proxy);
+            } else if (result instanceof Number updateCount) {
+                statementListener.statementExecuted(sqlDefinition, elapsedNanos, updateCount.longValue());
+            } else if (Boolean.TRUE.equals(result)) {
+                // execute() produced a result set, rows are counted once it is read through getResultSet()
+                pendingQuery = new PendingQuery(sqlDefinition, elapsedNanos);
+            } else {
+                statementListener.statementExecuted(sqlDefinition, elapsedNanos, target.getLargeUpdateCount());
+            }
+            return result;
+        }
+
+        private void setParameter(int index, Object value) {
+            if (index > parameters.length) {
+                parameters = Arrays.copyOf(parameters, Math.max(index, parameters.length * 2));
+            }
+            parameters[index - 1] = value;
+            parameterCount = Math.max(parameterCount, index);
+        }
+
+        private List<Object> currentParameters() {
+            return parameterCount == 0 ? new ArrayList<>() : new ArrayList<>(Arrays.asList(parameters).subList(0, parameterCount));
+        }
+
+        private void completePendingQuery() {
+            if (pendingQuery != null) {
+                pendingQuery.complete();
+                pendingQuery = null;
+            }
+        }
+
+        private static long sumUpdateCounts(Object result) {
+            long rows = 0;
+            if (result instanceof int[] counts) {
+                for (int count : counts) {
+                    rows += Math.max(count, 0);
+                }
+            } else if (result instanceof long[] counts) {
+                for (long count : counts) {
+                    rows += Math.max(count, 0);
+                }
+            }
+            return rows;
+        }
+
+        private final class PendingQuery {
+            private final SqlDefinition sqlDefinition;
+            private final long elapsedNanos;
+            private long rowCount;
+            private boolean completed;
+
+            private PendingQuery(SqlDefinition sqlDefinition, long elapsedNanos) {
+                this.sqlDefinition = sqlDefinition;
+                this.elapsedNanos = elapsedNanos;
+            }
+
+            private ResultSet wrap(ResultSet resultSet, Statement statement) {
+                return proxy(ResultSet.class, (proxy, method, args) -> {
+                    String name = method.getName();
+                    if ("next".equals(name)) {
+                        Object hasNext = JdbcCaptureProxies.invoke(resultSet, method, args);
+                        if (Boolean.TRUE.equals(hasNext)) {
+                            rowCount++;
+                        }
+                        return hasNext;
+                    } else if ("close".equals(name)) {
+                        complete();
+                    } else if ("getStatement".equals(name)) {
+                        return statement;
+                    } else if ("equals".equals(name)) {
+                        return proxy == args[0];
+                    } else if ("hashCode".equals(name)) {
+                        return System.identityHashCode(proxy);
+                    }
+                    return JdbcCaptureProxies.invoke(resultSet, method, args);
+                });
+            }
+
+            private void complete() {
+                if (!completed) {
+                    completed = true;
+                    statementListener.statementExecuted(sqlDefinition, elapsedNanos, rowCount);
+                }
+            }
+        }
+    }
+}
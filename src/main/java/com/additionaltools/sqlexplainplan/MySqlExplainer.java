@@ -2,48 +2,122 @@ package com.additionaltools.sqlexplainplan;
 
 import org.springframework.jdbc.core.JdbcTemplate;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
+/**
+ * Parses the tabular {@code EXPLAIN} output of MySQL.
+ *
+ * <p>The rows of one {@code id} form a query block, its tables are joined in row order by a nested loop, or by a
+ * hash join when MySQL uses a join buffer. {@code Using temporary} and {@code Using filesort} in the {@code Extra}
+ * column of any table wrap the block in a {@link PlanNode.Operation#TEMPORARY} and a
+ * {@link PlanNode.Operation#SORT} node.</p>
+ */
 public class MySqlExplainer implements Explainer {
+
+    private static final Set<String> INDEX_LOOKUP_TYPES = Set.of("system", "const", "eq_ref", "ref", "fulltext",
+            "ref_or_null", "index_merge", "unique_subquery", "index_subquery", "range");
     private final JdbcTemplate jdbcTemplate;
 
     public MySqlExplainer(JdbcTemplate jdbcTemplate) {
         this.jdbcTemplate = jdbcTemplate;
     }
 
-    public List<Map<String, Object>> explainQuery(String query) {
-        return jdbcTemplate.queryForList("EXPLAIN %s".formatted(query));
+    public ExecutionPlan explainQuery(String query) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList("EXPLAIN %s".formatted(query));
+        return new ExecutionPlan(parse(rows), getText(rows));
     }
 
-    public String getPrintableTable(List<Map<String, Object>> tables) {
-        int keyWidth = 20;
-        StringBuilder logBuilder = new StringBuilder();
-
-        for (int i = 0; i < tables.size(); i++) {
-            Map<String, Object> map = tables.get(i);
-            logBuilder.append("Lvl ").append(i + 1).append("\n");
-            String separator = "+".repeat(keyWidth + 4) + "+";
-            logBuilder.append(separator).append("\n");
-            String header = String.format("| %-" + keyWidth + "s | %s |", "Key", "Value");
-            logBuilder.append(header).append("\n");
-            logBuilder.append(separator).append("\n");
+    static PlanNode parse(List<Map<String, Object>> rows) {
+        Map<String, List<Map<String, Object>>> blocks = new LinkedHashMap<>();
+        for (Map<String, Object> row : rows) {
+            Map<String, Object> columns = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            columns.putAll(row);
+            blocks.computeIfAbsent(String.valueOf(columns.get("id")), id -> new ArrayList<>()).add(columns);
+        }
+        List<PlanNode> queryBlocks = new ArrayList<>(blocks.size());
+        for (List<Map<String, Object>> block : blocks.values()) {
+            PlanNode queryBlock = parseBlock(block);
+            if (queryBlock != null) {
+                queryBlocks.add(queryBlock);
+            }
+        }
+        return PlanNode.of(PlanNode.Operation.QUERY, queryBlocks);
+    }
 
-            for (Map.Entry<String, Object> entry : map.entrySet()) {
-                String key = truncate(entry.getKey(), keyWidth);
-                String value = entry.getValue() != null ? entry.getValue().toString() : "null";
-                String row = String.format("| %-" + keyWidth + "s | %s |", key, value);
-                logBuilder.append(row).append("\n");
+    /**
+     * @return the plan of the query block, {@code null} if it reads no table, e.g. {@code No tables used}
+     */
+    private static PlanNode parseBlock(List<Map<String, Object>> block) {
+        List<PlanNode> accesses = new ArrayList<>(block.size());
+        boolean joinBuffer = false;
+        boolean filesort = false;
+        boolean temporary = false;
+        for (Map<String, Object> columns : block) {
+            String extra = getString(columns, "Extra");
+            if (extra != null) {
+                joinBuffer |= extra.contains("Using join buffer");
+                filesort |= extra.contains("Using filesort");
+                temporary |= extra.contains("Using temporary");
+            }
+            String table = getString(columns, "table");
+            if (table != null) {
+                accesses.add(PlanNode.access(getOperation(table, getString(columns, "type")), table,
+                        getString(columns, "key"), getRows(columns)));
             }
-            logBuilder.append(separator).append("\n\n");
         }
-        return logBuilder.toString();
+        if (accesses.isEmpty()) {
+            return null;
+        }
+        PlanNode node = accesses.size() == 1
+                ? accesses.get(0)
+                : PlanNode.of(joinBuffer ? PlanNode.Operation.JOIN : PlanNode.Operation.NESTED_LOOP, accesses);
+        if (temporary) {
+            node = PlanNode.of(PlanNode.Operation.TEMPORARY, List.of(node));
+        }
+        if (filesort) {
+            node = PlanNode.of(PlanNode.Operation.SORT, List.of(node));
+        }
+        return node;
+    }
+
+    /**
+     * Derived tables, subqueries and unions, e.g. {@code <derived2>}, are the results of other query blocks.
+     */
+    private static PlanNode.Operation getOperation(String table, String type) {
+        if (type == null || table.startsWith("<")) {
+            return PlanNode.Operation.OTHER;
+        }
+        if (type.equals("ALL")) {
+            return PlanNode.Operation.FULL_SCAN;
+        }
+        if (type.equals("index")) {
+            return PlanNode.Operation.INDEX_SCAN;
+        }
+        return INDEX_LOOKUP_TYPES.contains(type) ? PlanNode.Operation.INDEX_LOOKUP : PlanNode.Operation.OTHER;
+    }
+
+    private static long getRows(Map<String, Object> columns) {
+        Object rows = columns.get("rows");
+        return rows instanceof Number number ? number.longValue() : PlanNode.UNKNOWN_ROWS;
+    }
+
+    private static String getString(Map<String, Object> columns, String column) {
+        Object value = columns.get(column);
+        return value != null ? value.toString() : null;
     }
 
-    private String truncate(String value, int length) {
-        if (value.length() <= length) {
-            return value;
+    private static String getText(List<Map<String, Object>> rows) {
+        StringBuilder text = new StringBuilder();
+        for (Map<String, Object> row : rows) {
+            StringBuilder line = new StringBuilder();
+            row.forEach((column, value) -> line.append(line.isEmpty() ? "" : " | ").append(column).append('=').append(value));
+            text.append(line).append(System.lineSeparator());
         }
-        return value.substring(0, length - 1) + "…";
+        return text.toString();
     }
 }
@@ -1,31 +1,162 @@
 package com.additionaltools.sqlexplainplan;
 
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Explains the query into {@code PLAN_TABLE} and parses the plan formatted by {@code DBMS_XPLAN.DISPLAY}.
+ *
+ * <p>Every row of the plan table becomes a {@link PlanNode} below the closest preceding row with a less indented
+ * {@code Operation}, the {@code Rows} column, e.g. {@code 100K}, is the row estimate. The {@code Name} of an
+ * {@code INDEX} operation is its index, of any other operation its table.</p>
+ */
 public class OracleExplainer implements Explainer {
+
+    private static final List<String> OPERATIONS = List.of("SELECT STATEMENT", "NESTED LOOPS", "HASH JOIN",
+            "MERGE JOIN", "TABLE ACCESS", "INDEX", "SORT", "WINDOW", "HASH", "TEMP TABLE TRANSFORMATION",
+            "LOAD AS SELECT");
+    private static final String ROW_UNITS = "KMGTPE";
     private final JdbcTemplate jdbcTemplate;
+    private final AtomicLong statementIds = new AtomicLong();
 
     public OracleExplainer(JdbcTemplate jdbcTemplate) {
         this.jdbcTemplate = jdbcTemplate;
     }
 
-    public List<Map<String, Object>> explainQuery(String query) {
-        jdbcTemplate.queryForList("EXPLAIN PLAN FOR %s".formatted(query));
-        return jdbcTemplate.queryForList("SELECT * FROM TABLE(DBMS_XPLAN.DISPLAY)");
+    /**
+     * Explains the query and reads the plan back on the same connection, {@code PLAN_TABLE} is session scoped.
+     */
+    public ExecutionPlan explainQuery(String query) {
+        String statementId = "hiperanalyzer-" + statementIds.incrementAndGet();
+        return jdbcTemplate.execute((ConnectionCallback<ExecutionPlan>) connection -> {
+            JdbcTemplate sameConnection = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+            sameConnection.execute("EXPLAIN PLAN SET STATEMENT_ID = '%s' FOR %s".formatted(statementId, query));
+            try {
+                List<String> lines = sameConnection.queryForList(
+                        "SELECT PLAN_TABLE_OUTPUT FROM TABLE(DBMS_XPLAN.DISPLAY('PLAN_TABLE', ?, 'TYPICAL'))",
+                        String.class, statementId);
+                return new ExecutionPlan(parse(lines), String.join(System.lineSeparator(), lines));
+            } finally {
+                sameConnection.update("DELETE FROM PLAN_TABLE WHERE STATEMENT_ID = ?", statementId);
+            }
+        });
+    }
+
+    /**
+     * @param lines the lines printed by {@code DBMS_XPLAN.DISPLAY}
+     */
+    static PlanNode parse(List<String> lines) {
+        List<PlanRow> rows = new ArrayList<>();
+        Map<String, Integer> columns = null;
+        for (String line : lines) {
+            if (!line.startsWith("|")) {
+                continue;
+            }
+            String[] cells = line.split("\\|", -1);
+            if (columns == null) {
+                columns = getColumns(cells);
+            } else if (cells.length > columns.get("Rows") && cells[1].trim().matches("\\*?\\s*\\d+")) {
+                rows.add(PlanRow.of(cells[columns.get("Operation")], cells[columns.get("Name")].trim(),
+                        parseRows(cells[columns.get("Rows")].trim())));
+            }
+        }
+        if (rows.isEmpty()) {
+            return PlanNode.of(PlanNode.Operation.QUERY, List.of());
+        }
+        return toNode(rows, new int[1]);
+    }
+
+    /**
+     * @return the cell index of the {@code Operation}, {@code Name} and {@code Rows} columns, {@code null} if the
+     * line is not the header of the plan table
+     */
+    private static Map<String, Integer> getColumns(String[] cells) {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < cells.length; i++) {
+            columns.put(cells[i].trim(), i);
+        }
+        return columns.keySet().containsAll(List.of("Operation", "Name", "Rows")) ? columns : null;
+    }
+
+    /**
+     * Builds the node of the row at {@code next[0]} with the following rows indented below it as its children.
+     */
+    private static PlanNode toNode(List<PlanRow> rows, int[] next) {
+        PlanRow row = rows.get(next[0]++);
+        List<PlanNode> children = new ArrayList<>();
+        while (next[0] < rows.size() && rows.get(next[0]).depth() > row.depth()) {
+            children.add(toNode(rows, next));
+        }
+        String operation = row.operation();
+        String options = "";
+        for (String knownOperation : OPERATIONS) {
+            if (operation.equals(knownOperation) || operation.startsWith(knownOperation + " ")) {
+                options = operation.substring(knownOperation.length()).trim();
+                operation = knownOperation;
+                break;
+            }
+        }
+        String name = row.name().isEmpty() ? null : row.name();
+        boolean index = operation.equals("INDEX");
+        return new PlanNode(getOperation(operation, options), index ? null : name, index ? name : null, row.rows(),
+                children);
     }
 
-    @Override
-    public String getPrintableTable(List<Map<String, Object>> tables) {
-        StringBuilder logMessage = new StringBuilder();
-        for (Map<String, Object> table : tables) {
-            for (Map.Entry<String, Object> entry : table.entrySet()) {
-                logMessage.append(entry.getValue());
+    /**
+     * @return the rows of a {@code Rows} cell, e.g. {@code 100K}, or {@link PlanNode#UNKNOWN_ROWS} if it is empty
+     */
+    private static long parseRows(String rows) {
+        if (rows.isEmpty()) {
+            return PlanNode.UNKNOWN_ROWS;
+        }
+        int unit = ROW_UNITS.indexOf(rows.charAt(rows.length() - 1));
+        try {
+            if (unit < 0) {
+                return Long.parseLong(rows);
+            }
+            long value = Long.parseLong(rows.substring(0, rows.length() - 1));
+            for (int i = 0; i <= unit; i++) {
+                value = PlanNode.multiply(value, 1000);
             }
-            logMessage.append(System.lineSeparator());
+            return value;
+        } catch (NumberFormatException e) {
+            return PlanNode.UNKNOWN_ROWS;
+        }
+    }
+
+    private static PlanNode.Operation getOperation(String operation, String options) {
+        String option = options != null ? options : "";
+        return switch (operation) {
+            case "SELECT STATEMENT" -> PlanNode.Operation.QUERY;
+            case "NESTED LOOPS" -> PlanNode.Operation.NESTED_LOOP;
+            case "HASH JOIN", "MERGE JOIN" -> PlanNode.Operation.JOIN;
+            case "TABLE ACCESS" -> option.equals("FULL") ? PlanNode.Operation.FULL_SCAN : PlanNode.Operation.OTHER;
+            case "INDEX" -> option.contains("FULL SCAN") ? PlanNode.Operation.INDEX_SCAN : PlanNode.Operation.INDEX_LOOKUP;
+            case "SORT" -> option.equals("AGGREGATE") ? PlanNode.Operation.OTHER : PlanNode.Operation.SORT;
+            case "WINDOW" -> option.equals("SORT") ? PlanNode.Operation.SORT : PlanNode.Operation.OTHER;
+            case "HASH" -> option.contains("GROUP BY") || option.equals("UNIQUE")
+                    ? PlanNode.Operation.TEMPORARY : PlanNode.Operation.OTHER;
+            case "TEMP TABLE TRANSFORMATION", "LOAD AS SELECT" -> PlanNode.Operation.TEMPORARY;
+            default -> PlanNode.Operation.OTHER;
+        };
+    }
+
+    /**
+     * @param depth     the indentation of the {@code Operation} cell, one space per level of the plan
+     * @param operation the operation and its options, e.g. {@code TABLE ACCESS FULL}
+     */
+    private record PlanRow(int depth, String operation, String name, long rows) {
+
+        static PlanRow of(String operation, String name, long rows) {
+            String stripped = operation.stripLeading();
+            return new PlanRow(operation.length() - stripped.length(), stripped.strip(), name, rows);
         }
-       return logMessage.toString();
     }
 }
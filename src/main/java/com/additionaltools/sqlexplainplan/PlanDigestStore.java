@@ -0,0 +1,191 @@
+package com.additionaltools.sqlexplainplan;
+
+import com.additionaltools.common.SqlNormalizer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Remembers the plan shape of every statement across restarts, in an append-only file.
+ *
+ * <p>Every line holds a digest as {@code fingerprint<TAB>shapeHash<TAB>recordedAt<TAB>shape}, with the
+ * {@link com.additionaltools.common.SqlFingerprint} hash of the statement and the
+ * {@link SqlNormalizer#hashText(String) FNV-1a hash} of its {@link ExecutionPlan#getShape()}. A later line for a
+ * fingerprint supersedes the earlier ones. The file is read into an in-memory index when the store opens and only
+ * changed digests are appended, through a {@link FileChannel} that stays open. When the superseded lines outnumber
+ * the current ones, the file is compacted by writing the index to a temporary file moved over the store. Lines that
+ * cannot be parsed or whose shape does not match its hash, e.g. cut off by a crash, are skipped, and a last line
+ * without a line break is terminated before the next digest is appended.</p>
+ */
+public class PlanDigestStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlanDigestStore.class);
+    private static final int MIN_COMPACTION_LINES = 1000;
+
+    private final Path file;
+    private final Clock clock;
+    private final Map<Long, PlanDigest> digests = new HashMap<>();
+    private FileChannel channel;
+    private int lines;
+
+    public PlanDigestStore(Path file) {
+        this(file, Clock.systemUTC());
+    }
+
+    PlanDigestStore(Path file, Clock clock) {
+        this.file = file.toAbsolutePath();
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    public synchronized void open() {
+        try {
+            read();
+            if (lines - digests.size() > Math.max(digests.size(), MIN_COMPACTION_LINES)) {
+                compact();
+            }
+            openChannel();
+        } catch (IOException e) {
+            logger.warn("Unable to open the plan store {}, plan changes are only detected until the application stops",
+                    file, e);
+        }
+    }
+
+    /**
+     * Records the current plan shape of a statement.
+     *
+     * @param fingerprint the fingerprint hash of the statement
+     * @param shape       the {@link ExecutionPlan#getShape() shape} of its plan
+     * @return the digest the shape replaced, or {@code null} if the statement is new or its plan did not change
+     */
+    public synchronized PlanDigest record(long fingerprint, String shape) {
+        String line = shape.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+        long shapeHash = SqlNormalizer.hashText(line);
+        PlanDigest previous = digests.get(fingerprint);
+        if (previous != null && previous.shapeHash() == shapeHash && previous.shape().equals(line)) {
+            return null;
+        }
+        PlanDigest digest = new PlanDigest(shapeHash, clock.instant(), line);
+        digests.put(fingerprint, digest);
+        append(fingerprint, digest);
+        return previous;
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.force(false);
+            channel.close();
+        } catch (IOException e) {
+            logger.warn("Unable to close the plan store {}", file, e);
+        } finally {
+            channel = null;
+        }
+    }
+
+    private void read() throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines++;
+                String[] columns = line.split("\t", 4);
+                if (columns.length != 4) {
+                    logger.debug("Skipping malformed line in {}: {}", file, line);
+                    continue;
+                }
+                try {
+                    long shapeHash = Long.parseUnsignedLong(columns[1], 16);
+                    if (shapeHash != SqlNormalizer.hashText(columns[3])) {
+                        logger.debug("Skipping line with a cut off shape in {}: {}", file, line);
+                        continue;
+                    }
+                    digests.put(Long.parseUnsignedLong(columns[0], 16), new PlanDigest(shapeHash,
+                            Instant.ofEpochMilli(Long.parseLong(columns[2])), columns[3]));
+                } catch (NumberFormatException e) {
+                    logger.debug("Skipping malformed line in {}: {}", file, line);
+                }
+            }
+        }
+    }
+
+    private void compact() throws IOException {
+        Path compacted = file.resolveSibling(file.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(compacted, StandardCharsets.UTF_8)) {
+            for (Map.Entry<Long, PlanDigest> entry : digests.entrySet()) {
+                writer.write(format(entry.getKey(), entry.getValue()));
+            }
+        }
+        Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        lines = digests.size();
+    }
+
+    private void openChannel() throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size();
+        ByteBuffer last = ByteBuffer.allocate(1);
+        if (size > 0 && channel.read(last, size - 1) == 1 && last.get(0) != '\n') {
+            // terminates a line cut off by a crash, so that the next digest starts on a line of its own
+            channel.write(ByteBuffer.wrap(new byte[]{'\n'}), size);
+        }
+        channel.position(channel.size());
+    }
+
+    private void append(long fingerprint, PlanDigest digest) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(format(fingerprint, digest).getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (++lines - digests.size() > Math.max(digests.size(), MIN_COMPACTION_LINES)) {
+                channel.close();
+                channel = null;
+                compact();
+                openChannel();
+            }
+        } catch (IOException e) {
+            logger.warn("Unable to write to the plan store {}", file, e);
+            close();
+        }
+    }
+
+    private static String format(long fingerprint, PlanDigest digest) {
+        return "%016x\t%016x\t%d\t%s\n".formatted(fingerprint, digest.shapeHash(), digest.recordedAt().toEpochMilli(),
+                digest.shape());
+    }
+
+    /**
+     * @param shapeHash  the FNV-1a hash of the shape
+     * @param recordedAt when the shape was first seen
+     * @param shape      the {@link ExecutionPlan#getShape() shape} of the plan
+     */
+    public record PlanDigest(long shapeHash, Instant recordedAt, String shape) {
+    }
+}
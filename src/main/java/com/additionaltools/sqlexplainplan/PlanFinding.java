@@ -0,0 +1,37 @@
+package com.additionaltools.sqlexplainplan;
+
+/**
+ * A problem found in an {@link ExecutionPlan} by the {@link PlanRules}.
+ *
+ * @param type     the rule that found it
+ * @param severity how much the problem is expected to cost
+ * @param target   the table, index or operation the problem is about
+ * @param detail   the estimates the rule decided on, e.g. {@code Estimated rows: 50000}, or both plans of a
+ *                 {@link Type#PLAN_REGRESSION} or {@link Type#PLAN_CHANGE}
+ */
+public record PlanFinding(Type type, Severity severity, String target, String detail) {
+
+    public enum Severity {
+        LOW, MEDIUM, HIGH
+    }
+
+    public enum Type {
+        FULL_TABLE_SCAN("Add an index on the filtered columns or limit the rows read."),
+        NO_INDEX_USED("Add an index on the join columns of the inner table."),
+        FILESORT("Add an index matching the ORDER BY columns or sort fewer rows."),
+        TEMPORARY_TABLE("Add an index matching the GROUP BY or DISTINCT columns."),
+        NESTED_LOOP_BLOWUP("Check the join conditions and filter the outer table before joining."),
+        PLAN_REGRESSION("Check the indexes and optimizer statistics of the tables, e.g. after a schema migration."),
+        PLAN_CHANGE("Check that the new plan is intended, e.g. after adding an index or a schema migration.");
+
+        private final String advice;
+
+        Type(String advice) {
+            this.advice = advice;
+        }
+
+        public String getAdvice() {
+            return advice;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.additionaltools.sqlexplainplan;
+
+import java.util.List;
+
+/**
+ * A node of an {@link ExecutionPlan} tree, independent of the database that produced it.
+ *
+ * @param operation     what the node does
+ * @param table         the table read by the node, {@code null} for nodes working on the rows of their children
+ * @param index         the index the node reads, {@code null} if it reads none
+ * @param estimatedRows the rows the database expects the node to produce per execution, or {@link #UNKNOWN_ROWS}
+ * @param children      the inputs of the node, for a nested loop the outer input first
+ */
+public record PlanNode(Operation operation,
+                       String table,
+                       String index,
+                       long estimatedRows,
+                       List<PlanNode> children) {
+
+    public static final long UNKNOWN_ROWS = -1;
+
+    public PlanNode {
+        children = List.copyOf(children);
+    }
+
+    /**
+     * @return a node reading a table, without children
+     */
+    public static PlanNode access(Operation operation, String table, String index, long estimatedRows) {
+        return new PlanNode(operation, table, index, estimatedRows, List.of());
+    }
+
+    /**
+     * @return a node working on the rows of its children, without an own row estimate
+     */
+    public static PlanNode of(Operation operation, List<PlanNode> children) {
+        return new PlanNode(operation, null, null, UNKNOWN_ROWS, children);
+    }
+
+    /**
+     * Estimates the rows the node reads in total. Rows missing from the plan count as one, the inner inputs of a
+     * nested loop are multiplied by the rows of the outer input.
+     *
+     * @return the estimated rows read, saturated at {@link Long#MAX_VALUE}
+     */
+    public long getEstimatedRowsRead() {
+        if (operation == Operation.NESTED_LOOP) {
+            long rows = 1;
+            for (PlanNode child : children) {
+                rows = multiply(rows, child.getEstimatedRowsRead());
+            }
+            return rows;
+        }
+        if (estimatedRows != UNKNOWN_ROWS) {
+            return estimatedRows;
+        }
+        long rows = 1;
+        for (PlanNode child : children) {
+            rows = Math.max(rows, child.getEstimatedRowsRead());
+        }
+        return rows;
+    }
+
+    /**
+     * @return the product, saturated at {@link Long#MAX_VALUE}
+     */
+    static long multiply(long left, long right) {
+        try {
+            return Math.multiplyExact(left, right);
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    public enum Operation {
+        /** A query block, the root of the plan and of every subquery. */
+        QUERY,
+        /** A join reading its inner inputs once per row of the outer input. */
+        NESTED_LOOP,
+        /** A hash or merge join, reading every input once. */
+        JOIN,
+        /** A table read in full. */
+        FULL_SCAN,
+        /** An index read in full. */
+        INDEX_SCAN,
+        /** An index read for a key or range. */
+        INDEX_LOOKUP,
+        /** Rows sorted without an index, MySQL {@code Using filesort}. */
+        SORT,
+        /** Rows grouped or deduplicated in a temporary table or hash area, MySQL {@code Using temporary}. */
+        TEMPORARY,
+        /** Any other operation. */
+        OTHER
+    }
+}
@@ -0,0 +1,19 @@
+package com.additionaltools.sqlexplainplan;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * Stores the plan shapes for the {@link ExecutionPlanAnalyzer}, which then reports the plans that changed.
+ */
+@Configuration
+public class PlanRegressionConfiguration {
+
+    @Bean
+    public PlanDigestStore planDigestStore(@Value("${hiperanalyzer.explain.plan-store.file:HiPerAnalyzerPlans.tsv}") Path file) {
+        return new PlanDigestStore(file);
+    }
+}
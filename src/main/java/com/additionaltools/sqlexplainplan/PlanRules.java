@@ -0,0 +1,161 @@
+package com.additionaltools.sqlexplainplan;
+
+import com.additionaltools.sqlexplainplan.PlanFinding.Severity;
+import com.additionaltools.sqlexplainplan.PlanFinding.Type;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Finds the costly operations of an {@link ExecutionPlan} from the row estimates of the database.
+ *
+ * <ul>
+ *     <li>{@link Type#FULL_TABLE_SCAN} - a table, or all entries of one of its indexes, read in full, estimated to
+ *     hold at least {@code fullScanRows} rows; {@link Severity#HIGH} from ten times as many</li>
+ *     <li>{@link Type#NO_INDEX_USED} - a table read in full for every row of the outer input of a nested loop,
+ *     at least {@code fullScanRows} rows in total; always {@link Severity#HIGH}</li>
+ *     <li>{@link Type#FILESORT} and {@link Type#TEMPORARY_TABLE} - at least {@code fullScanRows} rows sorted or
+ *     grouped without an index; {@link Severity#MEDIUM} from ten times as many</li>
+ *     <li>{@link Type#NESTED_LOOP_BLOWUP} - a nested loop estimated to combine at least {@code nestedLoopRows}
+ *     rows; always {@link Severity#HIGH}, nested loops inside it are not reported again</li>
+ * </ul>
+ *
+ * <p>Rows the plan does not estimate count as one, so the rules never report an operation the estimates do not
+ * show to be costly.</p>
+ *
+ * <p>{@link #evaluateChange(PlanDigestStore.PlanDigest, String)} compares the shapes of two plans of a statement for a
+ * {@link Type#PLAN_REGRESSION} or a {@link Type#PLAN_CHANGE}.</p>
+ */
+public class PlanRules {
+
+    private static final long ESCALATION_FACTOR = 10;
+    private static final Pattern FULL_SCAN = Pattern.compile("FULL_SCAN ([^\\s(),]+)");
+    private final long fullScanRows;
+    private final long nestedLoopRows;
+
+    public PlanRules(long fullScanRows, long nestedLoopRows) {
+        if (fullScanRows < 1 || nestedLoopRows < 1) {
+            throw new IllegalArgumentException("Row thresholds must be positive, got %d and %d"
+                    .formatted(fullScanRows, nestedLoopRows));
+        }
+        this.fullScanRows = fullScanRows;
+        this.nestedLoopRows = nestedLoopRows;
+    }
+
+    public List<PlanFinding> evaluate(ExecutionPlan executionPlan) {
+        List<PlanFinding> findings = new ArrayList<>();
+        visit(executionPlan.root(), 1, false, false, findings);
+        return findings;
+    }
+
+    /**
+     * A changed plan is a {@link Severity#HIGH} {@link Type#PLAN_REGRESSION} when it reads a table in full that the
+     * previous plan did not, and a {@link Severity#LOW} {@link Type#PLAN_CHANGE} when it reads the same tables in
+     * full, e.g. through another index or join order. A plan that only stopped reading tables in full is an
+     * improvement and not reported.
+     *
+     * @param previous     the digest of the previous plan
+     * @param currentShape the {@link ExecutionPlan#getShape() shape} of the current plan, different from the previous one
+     * @return the finding with both plans as its detail, or {@code null} for an improvement
+     */
+    public PlanFinding evaluateChange(PlanDigestStore.PlanDigest previous, String currentShape) {
+        Set<String> previousFullScans = getFullScans(previous.shape());
+        Set<String> currentFullScans = getFullScans(currentShape);
+        Set<String> newFullScans = new LinkedHashSet<>(currentFullScans);
+        newFullScans.removeAll(previousFullScans);
+        String detail = "Previous plan (recorded at %s): %s; Current plan: %s".formatted(previous.recordedAt(),
+                previous.shape(), currentShape);
+        if (!newFullScans.isEmpty()) {
+            return new PlanFinding(Type.PLAN_REGRESSION, Severity.HIGH, String.join(", ", newFullScans), detail);
+        }
+        if (previousFullScans.size() > currentFullScans.size()) {
+            return null;
+        }
+        return new PlanFinding(Type.PLAN_CHANGE, Severity.LOW, "plan", detail);
+    }
+
+    private static Set<String> getFullScans(String shape) {
+        Set<String> tables = new LinkedHashSet<>();
+        Matcher fullScan = FULL_SCAN.matcher(shape);
+        while (fullScan.find()) {
+            tables.add(fullScan.group(1));
+        }
+        return tables;
+    }
+
+    /**
+     * @param executions      how often the node is executed, the rows of the outer inputs of the enclosing loops
+     * @param inner           whether the node is an inner input of a nested loop
+     * @param blowupReported  whether an enclosing nested loop was reported already
+     */
+    private void visit(PlanNode node, long executions, boolean inner, boolean blowupReported, List<PlanFinding> findings) {
+        long rows = node.getEstimatedRowsRead();
+        switch (node.operation()) {
+            case FULL_SCAN -> {
+                long rowsRead = PlanNode.multiply(executions, rows);
+                if (inner && rowsRead >= fullScanRows) {
+                    findings.add(new PlanFinding(Type.NO_INDEX_USED, Severity.HIGH, node.table(),
+                            "Executions: %d; Estimated rows per execution: %d".formatted(executions, rows)));
+                } else if (!inner && rows >= fullScanRows) {
+                    findings.add(new PlanFinding(Type.FULL_TABLE_SCAN, escalate(Severity.MEDIUM, Severity.HIGH, rows),
+                            node.table(), "Estimated rows: %d".formatted(rows)));
+                }
+            }
+            case INDEX_SCAN -> {
+                if (rows >= fullScanRows && node.table() != null) {
+                    findings.add(new PlanFinding(Type.FULL_TABLE_SCAN, escalate(Severity.MEDIUM, Severity.HIGH, rows),
+                            node.table(), "Estimated rows: %d; Read in full through index %s".formatted(rows, node.index())));
+                }
+            }
+            case SORT, TEMPORARY -> {
+                if (rows >= fullScanRows) {
+                    Type type = node.operation() == PlanNode.Operation.SORT ? Type.FILESORT : Type.TEMPORARY_TABLE;
+                    findings.add(new PlanFinding(type, escalate(Severity.LOW, Severity.MEDIUM, rows),
+                            String.join(", ", getTables(node)), "Estimated rows: %d".formatted(rows)));
+                }
+            }
+            case NESTED_LOOP -> {
+                if (!blowupReported && rows >= nestedLoopRows) {
+                    findings.add(new PlanFinding(Type.NESTED_LOOP_BLOWUP, Severity.HIGH,
+                            String.join(" x ", getTables(node)), "Estimated row combinations: %d".formatted(rows)));
+                    blowupReported = true;
+                }
+                long childExecutions = executions;
+                for (int i = 0; i < node.children().size(); i++) {
+                    PlanNode child = node.children().get(i);
+                    visit(child, childExecutions, inner || i > 0, blowupReported, findings);
+                    childExecutions = PlanNode.multiply(childExecutions, child.getEstimatedRowsRead());
+                }
+                return;
+            }
+            default -> {
+            }
+        }
+        for (PlanNode child : node.children()) {
+            visit(child, executions, inner, blowupReported, findings);
+        }
+    }
+
+    private Severity escalate(Severity severity, Severity escalated, long rows) {
+        return rows >= PlanNode.multiply(fullScanRows, ESCALATION_FACTOR) ? escalated : severity;
+    }
+
+    private static Set<String> getTables(PlanNode node) {
+        Set<String> tables = new LinkedHashSet<>();
+        collectTables(node, tables);
+        return tables;
+    }
+
+    private static void collectTables(PlanNode node, Set<String> tables) {
+        if (node.table() != null) {
+            tables.add(node.table());
+        }
+        for (PlanNode child : node.children()) {
+            collectTables(child, tables);
+        }
+    }
+}
@@ -1,70 +1,56 @@
 package com.additionaltools.sqlexplainplan;
 
 import ch.qos.logback.classic.spi.ILoggingEvent;
-import ch.qos.logback.core.AppenderBase;
-import com.additionaltools.logging.LoggingService;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
 
-import java.util.*;
+import java.util.ArrayList;
 
 /**
  * Custom appender for capturing SQL queries and their execution plans.
  * <p>
  * This appender listens to Hibernate's SQL logging and captures executed SQL queries along with their
- * bound parameters. It then generates an execution plan using the provided {@link Explainer} and logs the results.
+ * bound parameters. Completed statements are handed to the {@link StatementListener}s, e.g. the
+ * {@link ExecutionPlanAnalyzer}, which generates their execution plans in the background and logs the results.
+ * This is the default capture path, {@code hiperanalyzer.explain.capture=jdbc} captures statements at the
+ * {@code DataSource} instead and does not need DEBUG/TRACE Hibernate logging.
+ * </p>
+ * <p>
+ * Hibernate logs a statement and its bind parameters on the thread executing it, so the in-flight statements are
+ * kept in the thread-confined {@link SqlDefinitionHolder} and the appender does not need to be synchronized.
  * </p>
  */
-public class SQLAppender extends AppenderBase<ILoggingEvent> {
+public class SQLAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+
+    private static final String SQL_LOGGER = "org.hibernate.SQL";
+    private static final String BIND_LOGGER = "org.hibernate.orm.jdbc.bind";
 
-    private static final Logger logger = LoggerFactory.getLogger(SQLAppender.class);
-    private final String basePath;
-    private final Explainer explainer;
-    private final LoggingService loggingService;
+    private final StatementListener statementListener;
 
-    public SQLAppender(String basePath, Explainer explainer, LoggingService loggingService) {
-        this.explainer = explainer;
-        this.basePath = basePath;
-        this.loggingService = loggingService;
+    public SQLAppender(StatementListener statementListener) {
+        this.statementListener = statementListener;
     }
 
     @Override
     protected void append(ILoggingEvent eventObject) {
-        SqlDefinitionHolder sqlDefinitionHolder = SqlDefinitionHolder.getInstance();
-        if (eventObject.getLoggerName().equals("org.hibernate.SQL")) {
+        SqlDefinitionHolder sqlDefinitionHolder = SqlDefinitionHolder.forCurrentThread();
+        String loggerName = eventObject.getLoggerName();
+        if (SQL_LOGGER.equals(loggerName)) {
             String sql = eventObject.getFormattedMessage();
-            SqlDefinition sqlDefinition = new SqlDefinition(sql, new LinkedList<>(), getCallerMethod(basePath), new ArrayList<>());
+            SqlDefinition sqlDefinition = new SqlDefinition(sql, new ArrayList<>(), null, new ArrayList<>());
             sqlDefinitionHolder.addSqlDef(sqlDefinition);
-        }
-        if (eventObject.getLoggerName().equals("org.hibernate.orm.jdbc.bind")) {
-            String argument = eventObject.getFormattedMessage();
+        } else if (BIND_LOGGER.equals(loggerName)) {
             SqlDefinition last = sqlDefinitionHolder.getLast();
-            last.arguments().add(argument);
+            if (last == null) {
+                // the statement was already completed, e.g. further rows of a JDBC batch
+                return;
+            }
+            last.arguments().add(new SqlDefinition.BindLogArgument(eventObject.getFormattedMessage()));
         }
 
-        if (sqlDefinitionHolder.getLast().isCompleted()) {
-            SqlDefinition last = sqlDefinitionHolder.getLast();
-            List<Map<String, Object>> oracleExecutionPlans = explainer.explainQuery(last.getSqlWithArguments());
-            last.explanations().addAll(oracleExecutionPlans);
-            String printableTable = explainer.getPrintableTable(oracleExecutionPlans);
-
-            String logMessage = String.format(
-                    """
-                            EXECUTION_PLANS:Method '%s' was executed. The associated SQL query, with bound arguments, is: '%s'.\s
-                            %s
-                            """,
-                    last.methodExecution(), last.getSqlWithArguments(), printableTable);
-            logger.info(logMessage);
-            loggingService.addLog(logMessage);
+        SqlDefinition last = sqlDefinitionHolder.getLast();
+        if (last != null && last.isCompleted()) {
+            sqlDefinitionHolder.removeLast();
+            statementListener.statementExecuted(last, StatementListener.UNKNOWN, StatementListener.UNKNOWN);
         }
     }
-
-    private String getCallerMethod(String basePath) {
-        StackTraceElement[] stackTrace = Thread.currentThread().getStackTrace();
-        return Arrays.stream(stackTrace)
-                .map(stackTraceElement -> stackTraceElement.getClassName() + ":" + stackTraceElement.getLineNumber())
-                .filter(methodName -> methodName.contains(basePath))
-                .findFirst().orElse("Unknown method");
-    }
 }
-
@@ -1,48 +1,60 @@
 package com.additionaltools.sqlexplainplan;
 
-import java.util.Iterator;
+import com.additionaltools.common.SqlNormalizer;
+
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
-import java.util.Map;
-import java.util.Queue;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.UUID;
 
+/**
+ * A captured statement.
+ *
+ * @param sql             the statement with {@code ?} placeholders
+ * @param arguments       bound values in placeholder order: JDBC parameter values, or {@link BindLogArgument}s
+ *                        captured from the Hibernate bind logger
+ * @param methodExecution the application call site, {@code null} until it is resolved
+ * @param explanations    the execution plan, filled in once the statement has been explained
+ */
 public record SqlDefinition(String sql,
-                            Queue<String> arguments,
+                            List<Object> arguments,
                             String methodExecution,
-                            List<Map<String, Object>> explanations) {
+                            List<ExecutionPlan> explanations) {
 
-    public String getSqlWithArguments() {
-        Pattern pattern = Pattern.compile("\\?");
-        Matcher matcher = pattern.matcher(sql);
+    public SqlDefinition withMethodExecution(String methodExecution) {
+        return new SqlDefinition(sql, arguments, methodExecution, explanations);
+    }
 
-        StringBuilder sqlWithArgs = new StringBuilder();
-        Iterator<String> argIterator = arguments.iterator();
-        while (matcher.find()) {
-            String arg = argIterator.hasNext() ? argIterator.next() : "?";
-            String formattedArg = formatArgument(arg);
-            matcher.appendReplacement(sqlWithArgs, formattedArg);
+    public String getSqlWithArguments() {
+        List<String> formattedArguments = new ArrayList<>(arguments.size());
+        for (Object argument : arguments) {
+            formattedArguments.add(argument instanceof BindLogArgument bindLogArgument
+                    ? formatArgument(bindLogArgument.message())
+                    : toLiteral(argument));
         }
-        matcher.appendTail(sqlWithArgs);
-        return sqlWithArgs.toString();
+        return SqlNormalizer.bindArguments(sql, formattedArguments);
     }
 
     public long countQueryPlaceholders() {
-        return sql.chars().filter(value -> value == '?').count();
+        return SqlNormalizer.countPlaceholders(sql);
     }
 
+    /**
+     * Converts a Hibernate bind log message, e.g. {@code binding parameter (1:VARCHAR) <- [value]},
+     * into a SQL literal.
+     */
     private String formatArgument(String arg) {
-        // Wzór regex do wyodrębnienia wartości z nawiasów kwadratowych
-        Pattern pattern = Pattern.compile("\\[([^]]*)]");
-        Matcher matcher = pattern.matcher(arg);
+        int valueStart = arg.indexOf('[');
+        int valueEnd = arg.lastIndexOf(']');
 
-        if (matcher.find()) {
-            String value = matcher.group(1);
+        if (valueStart >= 0 && valueEnd > valueStart) {
+            String value = arg.substring(valueStart + 1, valueEnd);
 
             // Sprawdzanie typu argumentu
             if (arg.contains("VARCHAR")) {
                 // Tekstowy argument
-                return "'" + value.replace("'", "''") + "'";
+                return quote(value);
             } else if (arg.contains("INTEGER") || arg.contains("BIGINT")) {
                 // Liczbowy argument
                 return value;
@@ -51,6 +63,25 @@ public record SqlDefinition(String sql,
         return "?";
     }
 
+    /**
+     * Converts a JDBC parameter value into a SQL literal, values without a literal form stay a placeholder.
+     */
+    private String toLiteral(Object value) {
+        if (value == null) {
+            return "NULL";
+        } else if (value instanceof Number || value instanceof Boolean) {
+            return value.toString();
+        } else if (value instanceof CharSequence || value instanceof Character || value instanceof Enum<?>
+                   || value instanceof UUID || value instanceof Date || value instanceof Temporal) {
+            return quote(value.toString());
+        }
+        return "?";
+    }
+
+    private static String quote(String value) {
+        return "'" + value.replace("'", "''") + "'";
+    }
+
     public boolean isCompleted() {
         return countQueryPlaceholders() == arguments().size();
     }
@@ -64,4 +95,12 @@ public record SqlDefinition(String sql,
                ", explanations=" + explanations +
                '}';
     }
+
+    /**
+     * A bind parameter as logged by {@code org.hibernate.orm.jdbc.bind}, converted to a literal only when needed.
+     *
+     * @param message the formatted log message
+     */
+    public record BindLogArgument(String message) {
+    }
 }
@@ -1,30 +1,82 @@
 package com.additionaltools.sqlexplainplan;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Thread-confined, bounded buffer of statements whose bind parameters are still being captured.
+ *
+ * <p>Every thread has its own holder, so bind parameters are always attached to a statement executed by the same
+ * thread. The holder keeps at most {@value #CAPACITY} statements; when it is full the oldest incomplete statement is
+ * overwritten. Completed statements are removed with {@link #removeLast()} and are no longer referenced, so memory
+ * use does not grow with uptime.</p>
+ *
+ * <p>Only the most recent statement accepts bind parameters. Hibernate binds parameters right after logging the
+ * statement, so once it is removed, further parameters (e.g. the next rows of a JDBC batch) are not attached to an
+ * older, incomplete statement.</p>
+ */
 public class SqlDefinitionHolder {
 
-    private static final SqlDefinitionHolder instance = new SqlDefinitionHolder();
-    private final LinkedList<SqlDefinition> sqlDefinitions = new LinkedList<>();
+    static final int CAPACITY = 16;
+    private static final ThreadLocal<SqlDefinitionHolder> holders = ThreadLocal.withInitial(SqlDefinitionHolder::new);
+    private final SqlDefinition[] sqlDefinitions = new SqlDefinition[CAPACITY];
+    private int next;
+    private int size;
+    private boolean lastOpen;
 
     private SqlDefinitionHolder() {
     }
 
-    public static SqlDefinitionHolder getInstance() {
-        return instance;
+    /**
+     * @return the holder of the current thread
+     */
+    public static SqlDefinitionHolder forCurrentThread() {
+        return holders.get();
     }
 
-
+    /**
+     * @return the in-flight statements, oldest first
+     */
     public List<SqlDefinition> getSqlDefinitions() {
-        return sqlDefinitions;
+        List<SqlDefinition> inFlight = new ArrayList<>(size);
+        for (int i = size; i > 0; i--) {
+            inFlight.add(sqlDefinitions[index(next - i)]);
+        }
+        return inFlight;
     }
 
     public void addSqlDef(SqlDefinition sqlDefinition) {
-        this.sqlDefinitions.add(sqlDefinition);
+        sqlDefinitions[next] = sqlDefinition;
+        next = index(next + 1);
+        size = Math.min(size + 1, CAPACITY);
+        lastOpen = true;
     }
 
+    /**
+     * @return the most recent statement if it was not removed yet, otherwise {@code null}
+     */
     public SqlDefinition getLast() {
-        return this.sqlDefinitions.getLast();
+        return lastOpen ? sqlDefinitions[index(next - 1)] : null;
+    }
+
+    /**
+     * Removes the most recent in-flight statement, typically once it has been completed and handed off.
+     *
+     * @return the removed statement, or {@code null} if there is none
+     */
+    public SqlDefinition removeLast() {
+        if (!lastOpen) {
+            return null;
+        }
+        lastOpen = false;
+        next = index(next - 1);
+        SqlDefinition last = sqlDefinitions[next];
+        sqlDefinitions[next] = null;
+        size--;
+        return last;
+    }
+
+    private static int index(int position) {
+        return Math.floorMod(position, CAPACITY);
     }
-}
\ No newline at end of file
+}
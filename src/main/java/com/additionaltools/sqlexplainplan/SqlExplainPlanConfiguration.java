@@ -1,13 +1,15 @@
 package com.additionaltools.sqlexplainplan;
 
-import ch.qos.logback.classic.Level;
-import ch.qos.logback.classic.Logger;
-import ch.qos.logback.classic.LoggerContext;
 import com.additionaltools.common.AnnotationScannerService;
+import com.additionaltools.common.CallSiteResolver;
 import com.additionaltools.common.EmptyLoggingConfiguration;
+import com.additionaltools.common.FindingAggregator;
+import com.additionaltools.common.FindingsConfiguration;
+import com.additionaltools.common.OverheadGovernor;
+import com.additionaltools.common.OverheadGovernorConfiguration;
 import com.additionaltools.logging.LoggingService;
-import jakarta.annotation.PostConstruct;
-import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
@@ -15,11 +17,12 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 import org.springframework.jdbc.core.JdbcTemplate;
 
-@Import(EmptyLoggingConfiguration.class)
+import java.time.Duration;
+
+@Import({EmptyLoggingConfiguration.class, FindingsConfiguration.class, OverheadGovernorConfiguration.class,
+        StatementCaptureConfiguration.class})
 @Configuration
 public class SqlExplainPlanConfiguration {
-    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(SqlExplainPlanConfiguration.class);
-
 
     @Bean
     public String basePath(AnnotationScannerService annotationScannerService) {
@@ -34,19 +37,26 @@ public class SqlExplainPlanConfiguration {
 
 
     @Bean
-    public SQLAppender sqlAppender(String basePath, Explainer explainer, LoggingService loggingService) {
-        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
-        SQLAppender sqlAppender = new SQLAppender(basePath, explainer, loggingService);
-        sqlAppender.setContext(context);
-        sqlAppender.start();
-
-        Logger hibernateSqlLogger = context.getLogger("org.hibernate.SQL");
-        Logger hibernateBindLogger = context.getLogger("org.hibernate.orm.jdbc.bind");
-
-        hibernateSqlLogger.addAppender(sqlAppender);
-        hibernateBindLogger.addAppender(sqlAppender);
+    public ExecutionPlanCache executionPlanCache(@Value("${hiperanalyzer.explain.cache.max-size:1000}") int maxSize,
+                                                 @Value("${hiperanalyzer.explain.cache.ttl:1h}") Duration ttl) {
+        return new ExecutionPlanCache(maxSize, ttl);
+    }
 
-        return sqlAppender;
+    @Bean
+    public ExecutionPlanAnalyzer executionPlanAnalyzer(Explainer explainer,
+                                                       ExecutionPlanCache executionPlanCache,
+                                                       ObjectProvider<PlanDigestStore> planDigestStore,
+                                                       String basePath,
+                                                       LoggingService loggingService,
+                                                       FindingAggregator findingAggregator,
+                                                       OverheadGovernor overheadGovernor,
+                                                       @Value("${hiperanalyzer.explain.threads:1}") int threads,
+                                                       @Value("${hiperanalyzer.explain.queue-capacity:100}") int queueCapacity,
+                                                       @Value("${hiperanalyzer.explain.full-scan-rows:1000}") long fullScanRows,
+                                                       @Value("${hiperanalyzer.explain.nested-loop-rows:100000}") long nestedLoopRows) {
+        return new ExecutionPlanAnalyzer(explainer, executionPlanCache, new PlanRules(fullScanRows, nestedLoopRows),
+                planDigestStore.getIfAvailable(), new CallSiteResolver(basePath), loggingService, findingAggregator,
+                overheadGovernor, threads, queueCapacity);
     }
 
     @Bean
@@ -66,40 +76,4 @@ public class SqlExplainPlanConfiguration {
     public Explainer h2Explainer(JdbcTemplate jdbcTemplate) {
         return new H2Explainer(jdbcTemplate);
     }
-
-    @PostConstruct
-    public void init() {
-        configureLoggingLevels();
-    }
-
-    private void configureLoggingLevels() {
-        updateLoggingLevel("org.hibernate.SQL", "DEBUG");
-        updateLoggingLevel("org.hibernate.orm.jdbc.bind", "TRACE");
-    }
-
-    private void updateLoggingLevel(String loggerName, String desiredLevel) {
-        LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
-        Logger logger = loggerContext.getLogger(loggerName);
-        Level currentLevel = logger.getLevel();
-        Level newLevel = parseLogLevel(desiredLevel);
-
-        if (currentLevel == null || !currentLevel.equals(newLevel)) {
-            logger.setLevel(newLevel);
-            log.info("Updated logging level for {} from {} to {}", loggerName, currentLevel, newLevel);
-        } else {
-            log.info("Logging level for {} is already set to {}", loggerName, newLevel);
-        }
-    }
-
-    private Level parseLogLevel(String level) {
-        return switch (level.toUpperCase()) {
-            case "DEBUG" -> Level.DEBUG;
-            case "TRACE" -> Level.TRACE;
-            case "INFO" -> Level.INFO;
-            case "WARN" -> Level.WARN;
-            case "ERROR" -> Level.ERROR;
-            default -> throw new IllegalArgumentException("Unsupported logging level: " + level);
-        };
-    }
-
-}
\ No newline at end of file
+}
@@ -0,0 +1,81 @@
+package com.additionaltools.sqlexplainplan;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Captures the executed statements and hands them to every {@link StatementListener} bean.
+ *
+ * <p>By default the statements are read from the Hibernate SQL and bind loggers by the {@link SQLAppender}, with
+ * {@code hiperanalyzer.explain.capture=jdbc} they are captured at the {@code DataSource} instead.</p>
+ */
+@Configuration
+public class StatementCaptureConfiguration {
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(StatementCaptureConfiguration.class);
+
+    @Bean
+    public static StatementListeners statementListeners(ObjectProvider<StatementListener> statementListenerProvider) {
+        return new StatementListeners(statementListenerProvider);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "hiperanalyzer.explain.capture", havingValue = "jdbc")
+    public static StatementCapturingDataSourcePostProcessor statementCapturingDataSourcePostProcessor(StatementListeners statementListeners) {
+        return new StatementCapturingDataSourcePostProcessor(statementListeners);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "hiperanalyzer.explain.capture", havingValue = "logging", matchIfMissing = true)
+    public SQLAppender sqlAppender(StatementListeners statementListeners) {
+        configureLoggingLevels();
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        SQLAppender sqlAppender = new SQLAppender(statementListeners);
+        sqlAppender.setContext(context);
+        sqlAppender.start();
+
+        Logger hibernateSqlLogger = context.getLogger("org.hibernate.SQL");
+        Logger hibernateBindLogger = context.getLogger("org.hibernate.orm.jdbc.bind");
+
+        hibernateSqlLogger.addAppender(sqlAppender);
+        hibernateBindLogger.addAppender(sqlAppender);
+
+        return sqlAppender;
+    }
+
+    private void configureLoggingLevels() {
+        updateLoggingLevel("org.hibernate.SQL", "DEBUG");
+        updateLoggingLevel("org.hibernate.orm.jdbc.bind", "TRACE");
+    }
+
+    private void updateLoggingLevel(String loggerName, String desiredLevel) {
+        LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+        Logger logger = loggerContext.getLogger(loggerName);
+        Level currentLevel = logger.getLevel();
+        Level newLevel = parseLogLevel(desiredLevel);
+
+        if (currentLevel == null || !currentLevel.equals(newLevel)) {
+            logger.setLevel(newLevel);
+            log.info("Updated logging level for {} from {} to {}", loggerName, currentLevel, newLevel);
+        } else {
+            log.info("Logging level for {} is already set to {}", loggerName, newLevel);
+        }
+    }
+
+    private Level parseLogLevel(String level) {
+        return switch (level.toUpperCase()) {
+            case "DEBUG" -> Level.DEBUG;
+            case "TRACE" -> Level.TRACE;
+            case "INFO" -> Level.INFO;
+            case "WARN" -> Level.WARN;
+            case "ERROR" -> Level.ERROR;
+            default -> throw new IllegalArgumentException("Unsupported logging level: " + level);
+        };
+    }
+
+}
@@ -0,0 +1,90 @@
+package com.additionaltools.sqlexplainplan;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.sql.Connection;
+import java.util.Arrays;
+
+/**
+ * Wraps every {@link DataSource} bean so that executed statements are captured at the JDBC level.
+ *
+ * <p>Used with {@code hiperanalyzer.explain.capture=jdbc}. Unlike the {@link SQLAppender} this needs neither
+ * DEBUG/TRACE logging of {@code org.hibernate.SQL} and {@code org.hibernate.orm.jdbc.bind} nor message formatting
+ * per statement: the SQL, the raw parameter values, the execution time and the row count are taken from the JDBC
+ * calls themselves and are handed to the {@link StatementListener}.</p>
+ *
+ * <p>The data source is proxied by class when its class can be subclassed, so it can still be injected as e.g.
+ * {@code HikariDataSource}. A final class, a class without a visible constructor, a class with a final
+ * {@code getConnection} method or a JDK proxy is proxied by the {@link DataSource} interface instead. A data source
+ * that is already capturing is returned as it is.</p>
+ */
+public class StatementCapturingDataSourcePostProcessor implements BeanPostProcessor {
+
+    private final StatementListener statementListener;
+
+    public StatementCapturingDataSourcePostProcessor(StatementListener statementListener) {
+        this.statementListener = statementListener;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource) || isCapturing(bean)) {
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        if (canProxyTargetClass(bean.getClass())) {
+            proxyFactory.setProxyTargetClass(true);
+        } else {
+            proxyFactory.setInterfaces(DataSource.class);
+        }
+        proxyFactory.addAdvice(new ConnectionCapturingInterceptor(statementListener));
+        return proxyFactory.getProxy(bean.getClass().getClassLoader());
+    }
+
+    private static boolean isCapturing(Object bean) {
+        return bean instanceof Advised advised && Arrays.stream(advised.getAdvisors())
+                .map(Advisor::getAdvice)
+                .anyMatch(ConnectionCapturingInterceptor.class::isInstance);
+    }
+
+    /**
+     * @return whether a subclass of the data source class can be generated that intercepts {@code getConnection}
+     */
+    static boolean canProxyTargetClass(Class<?> dataSourceClass) {
+        if (Modifier.isFinal(dataSourceClass.getModifiers())) {
+            return false;
+        }
+        boolean visibleConstructor = Arrays.stream(dataSourceClass.getDeclaredConstructors())
+                .map(Constructor::getModifiers)
+                .anyMatch(modifiers -> !Modifier.isPrivate(modifiers));
+        if (!visibleConstructor) {
+            return false;
+        }
+        try {
+            return !Modifier.isFinal(dataSourceClass.getMethod("getConnection").getModifiers())
+                    && !Modifier.isFinal(dataSourceClass.getMethod("getConnection", String.class, String.class).getModifiers());
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private record ConnectionCapturingInterceptor(StatementListener statementListener) implements MethodInterceptor {
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            Object result = invocation.proceed();
+            if (result instanceof Connection connection && "getConnection".equals(invocation.getMethod().getName())) {
+                return JdbcCaptureProxies.connection(connection, statementListener);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.additionaltools.sqlexplainplan;
+
+/**
+ * Receives statements captured from the Hibernate loggers or from the JDBC {@code DataSource}.
+ *
+ * <p>Listeners are called synchronously on the thread that executed the statement and must return quickly.</p>
+ */
+public interface StatementListener {
+
+    /**
+     * Value of {@code elapsedNanos} and {@code rowCount} when the capture path cannot measure it.
+     */
+    long UNKNOWN = -1;
+
+    /**
+     * @param sqlDefinition the executed statement with its bound arguments
+     * @param elapsedNanos  the execution time, or {@link #UNKNOWN}
+     * @param rowCount      the number of rows read or updated, or {@link #UNKNOWN}
+     */
+    void statementExecuted(SqlDefinition sqlDefinition, long elapsedNanos, long rowCount);
+}
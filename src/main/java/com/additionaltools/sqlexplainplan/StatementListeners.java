@@ -0,0 +1,37 @@
+package com.additionaltools.sqlexplainplan;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+
+import java.util.List;
+
+/**
+ * Dispatches captured statements to every {@link StatementListener} bean.
+ *
+ * <p>The listeners are looked up once all singletons are instantiated, statements executed earlier (e.g. by
+ * schema initialization) are ignored. This also keeps the capture path free of dependencies on beans that need
+ * the {@code DataSource} themselves.</p>
+ */
+public class StatementListeners implements StatementListener, SmartInitializingSingleton {
+
+    private final ObjectProvider<StatementListener> listenerProvider;
+    private volatile List<StatementListener> listeners = List.of();
+
+    public StatementListeners(ObjectProvider<StatementListener> listenerProvider) {
+        this.listenerProvider = listenerProvider;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        listeners = listenerProvider.orderedStream()
+                .filter(listener -> listener != this)
+                .toList();
+    }
+
+    @Override
+    public void statementExecuted(SqlDefinition sqlDefinition, long elapsedNanos, long rowCount) {
+        for (StatementListener listener : listeners) {
+            listener.statementExecuted(sqlDefinition, elapsedNanos, rowCount);
+        }
+    }
+}
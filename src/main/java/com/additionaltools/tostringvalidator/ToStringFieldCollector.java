@@ -1,14 +1,14 @@
 package com.additionaltools.tostringvalidator;
 
 
-import org.springframework.asm.ClassVisitor;
-import org.springframework.asm.MethodVisitor;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.MethodVisitor;
 
 import java.util.HashSet;
 import java.util.Set;
 
-import static org.springframework.asm.Opcodes.ACC_PUBLIC;
-import static org.springframework.asm.Opcodes.ASM9;
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ASM9;
 
 /**
  * The {@code HashCodeFieldCollector} class is a custom {@link ClassVisitor} that visits bytecode of classes
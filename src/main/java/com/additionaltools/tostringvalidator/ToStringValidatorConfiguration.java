@@ -2,7 +2,7 @@ package com.additionaltools.tostringvalidator;
 
 import com.additionaltools.common.AnnotationScannerService;
 import com.additionaltools.common.EmptyLoggingConfiguration;
-import com.additionaltools.logging.LoggingService;
+import com.additionaltools.common.EntityBytecodeIndexConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -12,14 +12,14 @@ import org.springframework.context.annotation.Import;
  * Configuration class to set up HashCodeAnalysis based on @EnableHashCodeAnalysis annotation.
  */
 
-@Import(EmptyLoggingConfiguration.class)
+@Import({EmptyLoggingConfiguration.class, EntityBytecodeIndexConfiguration.class})
 @Configuration
 public class ToStringValidatorConfiguration {
 
     @Bean
-    public ToStringAnalysis toStringAnalysis(AnnotationScannerService annotationScannerService, LoggingService loggingService) {
+    public ToStringAnalysis toStringAnalysis(AnnotationScannerService annotationScannerService) {
         String basePath = annotationScannerService.getPackageNameForAnnotatedClass(EnableToStringValidator.class);
-        return new ToStringAnalysis(annotationScannerService, basePath, loggingService);
+        return new ToStringAnalysis(basePath);
     }
 
     @Bean
@@ -27,4 +27,4 @@ public class ToStringValidatorConfiguration {
     public AnnotationScannerService annotationScannerService() {
         return new AnnotationScannerService();
     }
-}
\ No newline at end of file
+}
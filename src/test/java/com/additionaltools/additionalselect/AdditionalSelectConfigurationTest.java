@@ -0,0 +1,37 @@
+package com.additionaltools.additionalselect;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdditionalSelectConfigurationTest {
+
+    private final AdditionalSelectConfiguration configuration = new AdditionalSelectConfiguration();
+
+    @Test
+    void shouldRegisterTheSessionEventsListener() {
+        Map<String, Object> properties = new HashMap<>();
+
+        configuration.saveStatisticsCustomizer().customize(properties);
+
+        assertThat(properties).containsEntry(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER,
+                SaveStatisticsListener.class.getName());
+    }
+
+    @Test
+    void shouldFailWhenTheApplicationConfiguredItsOwnSessionEventsListener() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, "com.example.AuditListener");
+
+        assertThatThrownBy(() -> configuration.saveStatisticsCustomizer().customize(properties))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("com.example.AuditListener")
+                .hasMessageContaining(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER);
+        assertThat(properties).containsEntry(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, "com.example.AuditListener");
+    }
+}
@@ -0,0 +1,65 @@
+package com.additionaltools.additionalselect;
+
+import com.additionaltools.common.RecordingLoggingService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@EnableAdditionalSelectBeforeInsertDetector
+@ImportAutoConfiguration(AopAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class JpaSaveMonitorAspectTest {
+
+    @Autowired
+    private ProductRepository repository;
+
+    @Autowired
+    private RecordingLoggingService loggingService;
+
+    @AfterEach
+    void deleteProducts() {
+        repository.deleteAllInBatch();
+    }
+
+    @Test
+    void shouldReportTheSelectBeforeInsertOfAnAssignedId() {
+        repository.save(new Product("P-1"));
+
+        assertThat(loggingService.logs).anySatisfy(log -> assertThat(log)
+                .startsWith("SELECT_BEFORE_INSERT")
+                .contains(ProductRepository.class.getName())
+                .contains("Selects: 1; Inserts: 1"));
+    }
+
+    @Test
+    void shouldReportInsertsSentOneByOne() {
+        repository.saveAll(List.of(new Product("P-2"), new Product("P-3"), new Product("P-4")));
+
+        assertThat(loggingService.logs).anySatisfy(log -> assertThat(log)
+                .startsWith("INEFFICIENT_INSERT_BATCHING")
+                .contains("Inserts: 3; JDBC round trips: 3"));
+    }
+
+    @TestConfiguration
+    static class LoggingConfiguration {
+
+        @Bean
+        @Primary
+        RecordingLoggingService recordingLoggingService() {
+            return new RecordingLoggingService();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.additionaltools.additionalselect;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+
+@Entity
+public class Product {
+
+    @Id
+    private String code;
+
+    protected Product() {
+    }
+
+    public Product(String code) {
+        this.code = code;
+    }
+}
@@ -0,0 +1,6 @@
+package com.additionaltools.additionalselect;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ProductRepository extends JpaRepository<Product, String> {
+}
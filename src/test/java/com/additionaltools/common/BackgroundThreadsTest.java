@@ -0,0 +1,60 @@
+package com.additionaltools.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BackgroundThreadsTest {
+
+    @Test
+    void shouldStartANamedVirtualThreadOnJava21() throws InterruptedException {
+        List<Thread> threads = new CopyOnWriteArrayList<>();
+
+        Thread thread = BackgroundThreads.start("hiperanalyzer-test", () -> threads.add(Thread.currentThread()));
+        thread.join();
+
+        assertThat(BackgroundThreads.isVirtual()).isTrue();
+        assertThat(threads).singleElement().satisfies(started -> {
+            assertThat(started.isVirtual()).isTrue();
+            assertThat(started.getName()).isEqualTo("hiperanalyzer-test");
+        });
+    }
+
+    @Test
+    void shouldRunEveryTaskOfTheExecutorOnANumberedVirtualThread() throws Exception {
+        ExecutorService executor = BackgroundThreads.newExecutor("hiperanalyzer-test-", 1);
+        try {
+            Future<Thread> first = executor.submit(Thread::currentThread);
+            Future<Thread> second = executor.submit(Thread::currentThread);
+
+            assertThat(List.of(first.get(), second.get()))
+                    .allMatch(Thread::isVirtual)
+                    .extracting(Thread::getName)
+                    .containsExactlyInAnyOrder("hiperanalyzer-test-0", "hiperanalyzer-test-1");
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void shouldFallBackToNumberedDaemonPlatformThreads() {
+        ThreadFactory threadFactory = BackgroundThreads.newPlatformThreadFactory("hiperanalyzer-test-", true);
+
+        Thread first = threadFactory.newThread(() -> {
+        });
+        Thread second = threadFactory.newThread(() -> {
+        });
+
+        assertThat(List.of(first, second))
+                .allMatch(Thread::isDaemon)
+                .noneMatch(Thread::isVirtual)
+                .extracting(Thread::getName)
+                .containsExactly("hiperanalyzer-test-0", "hiperanalyzer-test-1");
+    }
+}
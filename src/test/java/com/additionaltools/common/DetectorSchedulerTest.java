@@ -0,0 +1,92 @@
+package com.additionaltools.common;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.scheduling.config.TaskManagementConfigUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+class DetectorSchedulerTest {
+
+    private final DetectorScheduler detectorScheduler = new DetectorScheduler();
+
+    @AfterEach
+    void shutdown() {
+        detectorScheduler.shutdown();
+    }
+
+    @Test
+    void shouldRunTheTasksOnItsOwnDaemonThread() {
+        List<Thread> threads = new CopyOnWriteArrayList<>();
+
+        detectorScheduler.scheduleAtFixedRate("test", () -> threads.add(Thread.currentThread()), 10);
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> threads.size() >= 2);
+        assertThat(threads).allSatisfy(thread -> {
+            assertThat(thread.getName()).isEqualTo("hiperanalyzer-scheduler");
+            assertThat(thread.isDaemon()).isTrue();
+        });
+    }
+
+    @Test
+    void shouldRunATaskAgainAfterItFailed() {
+        AtomicInteger runs = new AtomicInteger();
+
+        detectorScheduler.scheduleAtFixedRate("failing", () -> {
+            runs.incrementAndGet();
+            throw new IllegalStateException("failed");
+        }, 10);
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> runs.get() >= 3);
+    }
+
+    @Test
+    void shouldStopRunningTheTasksAfterShutdown() throws InterruptedException {
+        AtomicInteger runs = new AtomicInteger();
+        detectorScheduler.scheduleAtFixedRate("test", runs::incrementAndGet, 10);
+        await().atMost(Duration.ofSeconds(5)).until(() -> runs.get() >= 1);
+
+        detectorScheduler.shutdown();
+        Thread.sleep(50);
+        int runsAfterShutdown = runs.get();
+        Thread.sleep(100);
+
+        assertThat(runs.get()).isEqualTo(runsAfterShutdown);
+    }
+
+    @Test
+    void shouldRejectANonPositivePeriod() {
+        assertThatThrownBy(() -> detectorScheduler.scheduleAtFixedRate("test", () -> {
+        }, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldEmitTheFindingSummariesWithoutEnablingTheSchedulingOfTheApplication() {
+        RecordingLoggingService loggingService = new RecordingLoggingService();
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test",
+                    Map.of("hiperanalyzer.findings.summary-interval", "20")));
+            context.registerBean(RecordingLoggingService.class, () -> loggingService,
+                    definition -> definition.setPrimary(true));
+            context.register(FindingsConfiguration.class, OverheadGovernorConfiguration.class);
+            context.refresh();
+
+            context.getBean(FindingAggregator.class).record("N+1_SELECT_DETECTED", "OrderService.load()", "orders", 1);
+
+            await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> assertThat(loggingService.logs)
+                    .anySatisfy(log -> assertThat(log).startsWith("FINDING_SUMMARY: Type: N+1_SELECT_DETECTED")));
+            assertThat(context.containsBean(TaskManagementConfigUtils.SCHEDULED_ANNOTATION_PROCESSOR_BEAN_NAME)).isFalse();
+            assertThat(context.getBeansOfType(DetectorScheduler.class)).hasSize(1);
+        }
+    }
+}
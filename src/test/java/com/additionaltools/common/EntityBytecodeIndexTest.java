@@ -0,0 +1,89 @@
+package com.additionaltools.common;
+
+import com.additionaltools.common.sample.SampleEntity;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.Opcodes;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EntityBytecodeIndexTest {
+
+    @Test
+    void shouldCompleteBackgroundAnalysisOnVirtualThreadWithoutSpringBoot() throws Exception {
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            context.registerBean("background", Boolean.class, () -> true);
+            context.register(IndexConfiguration.class);
+            context.refresh();
+
+            context.getBean(EntityBytecodeIndex.class).getCompletion().get(10, TimeUnit.SECONDS);
+
+            RecordingLoggingService loggingService = context.getBean(RecordingLoggingService.class);
+            assertThat(loggingService.logs).containsExactly("Analyzed " + SampleEntity.class.getName());
+            assertThat(loggingService.threads).allMatch(Thread::isVirtual);
+        }
+    }
+
+    @Test
+    void shouldCompleteAnalysisDuringRefreshWhenNotInBackground() {
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            context.registerBean("background", Boolean.class, () -> false);
+            context.register(IndexConfiguration.class);
+            context.refresh();
+
+            assertThat(context.getBean(EntityBytecodeIndex.class).getCompletion()).isCompleted();
+            RecordingLoggingService loggingService = context.getBean(RecordingLoggingService.class);
+            assertThat(loggingService.logs).containsExactly("Analyzed " + SampleEntity.class.getName());
+            assertThat(loggingService.threads).containsExactly(Thread.currentThread());
+        }
+    }
+
+    @Configuration
+    static class IndexConfiguration {
+
+        @Bean
+        AnnotationScannerService annotationScannerService() {
+            return new AnnotationScannerService();
+        }
+
+        @Bean
+        RecordingLoggingService recordingLoggingService() {
+            return new RecordingLoggingService();
+        }
+
+        @Bean
+        EntityBytecodeAnalyzer<ClassVisitor> sampleAnalyzer() {
+            return new EntityBytecodeAnalyzer<>() {
+                @Override
+                public String getBasePath() {
+                    return SampleEntity.class.getPackageName();
+                }
+
+                @Override
+                public ClassVisitor createCollector(String entityName) {
+                    return new ClassVisitor(Opcodes.ASM9) {
+                    };
+                }
+
+                @Override
+                public List<String> analyze(String entityName, ClassVisitor collector) {
+                    return List.of("Analyzed " + entityName);
+                }
+            };
+        }
+
+        @Bean
+        EntityBytecodeIndex entityBytecodeIndex(AnnotationScannerService annotationScannerService,
+                                                ObjectProvider<EntityBytecodeAnalyzer<?>> analyzerProvider,
+                                                RecordingLoggingService loggingService, Boolean background) {
+            return new EntityBytecodeIndex(annotationScannerService, analyzerProvider, loggingService, 2, background);
+        }
+    }
+}
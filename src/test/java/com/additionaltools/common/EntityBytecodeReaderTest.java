@@ -0,0 +1,81 @@
+package com.additionaltools.common;
+
+import com.additionaltools.common.sample.SampleEntity;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EntityBytecodeReaderTest {
+
+    private final Set<Thread> analyzingThreads = ConcurrentHashMap.newKeySet();
+    private final EntityBytecodeAnalyzer<ClassVisitor> analyzer = new EntityBytecodeAnalyzer<>() {
+        @Override
+        public String getBasePath() {
+            return "";
+        }
+
+        @Override
+        public ClassVisitor createCollector(String entityName) {
+            analyzingThreads.add(Thread.currentThread());
+            return new ClassVisitor(Opcodes.ASM9) {
+            };
+        }
+
+        @Override
+        public List<String> analyze(String entityName, ClassVisitor collector) {
+            return List.of("Analyzed " + entityName);
+        }
+    };
+
+    @Test
+    void shouldReturnFindingsInEntityNameOrderWhateverTheParallelism() {
+        List<String> entityNames = IntStream.range(0, 50).mapToObj(i -> "com.example.Entity" + (49 - i)).toList();
+
+        List<EntityFinding> sequential = EntityBytecodeReader.analyzeAll(entityNames, entityName -> openSampleEntity(),
+                entityName -> List.of(analyzer), 1);
+        List<EntityFinding> parallel = EntityBytecodeReader.analyzeAll(entityNames, entityName -> openSampleEntity(),
+                entityName -> List.of(analyzer), 4);
+
+        assertThat(parallel).hasSize(50).isEqualTo(sequential);
+        assertThat(parallel).extracting(EntityFinding::entityName).isSorted();
+    }
+
+    @Test
+    void shouldReadEntitiesOnVirtualThreadsWhenParallel() {
+        EntityBytecodeReader.analyzeAll(List.of("com.example.A", "com.example.B"), entityName -> openSampleEntity(),
+                entityName -> List.of(analyzer), 2);
+
+        assertThat(analyzingThreads).isNotEmpty().allMatch(Thread::isVirtual);
+    }
+
+    @Test
+    void shouldSkipMissingClassFiles() {
+        List<EntityFinding> findings = EntityBytecodeReader.analyzeAll(List.of("com.example.Missing", "com.example.Present"),
+                entityName -> entityName.endsWith("Missing") ? null : openSampleEntity(), entityName -> List.of(analyzer), 2);
+
+        assertThat(findings).extracting(EntityFinding::entityName).containsExactly("com.example.Present");
+    }
+
+    @Test
+    void shouldOnlyAnalyzeClassesAcceptedByTheFilter() {
+        List<EntityFinding> findings = EntityBytecodeReader.analyzeAll(
+                List.of(SampleEntity.class.getName(), EntityBytecodeReaderTest.class.getName()),
+                className -> getClass().getClassLoader().getResourceAsStream(className.replace('.', '/') + ".class"),
+                EntityBytecodeReader::isEntity, className -> List.of(analyzer), 2);
+
+        assertThat(findings).containsExactly(new EntityFinding(analyzer.getClass().getName(), SampleEntity.class.getName(),
+                "Analyzed " + SampleEntity.class.getName()));
+    }
+
+    private static InputStream openSampleEntity() {
+        return SampleEntity.class.getClassLoader().getResourceAsStream(SampleEntity.class.getName().replace('.', '/') + ".class");
+    }
+}
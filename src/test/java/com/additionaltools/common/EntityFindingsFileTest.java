@@ -0,0 +1,75 @@
+package com.additionaltools.common;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EntityFindingsFileTest {
+
+    private static final String ANALYZER = "com.example.HashCodeAnalysis";
+    private static final String OTHER_ANALYZER = "com.example.ToStringAnalysis";
+
+    @TempDir
+    Path classes;
+
+    @Test
+    void shouldLoadTheWrittenFindings() throws IOException {
+        List<EntityFinding> findings = List.of(
+                new EntityFinding(ANALYZER, "com.example.Order", "MISSING_HASHCODE:\tline\nbreak \\ backslash"),
+                new EntityFinding(ANALYZER, "com.example.Customer", "MISSING_HASHCODE"));
+        EntityFindingsFile.write(classes, List.of(ANALYZER), Map.of("com.example.Order", 1L, "com.example.Customer", 2L),
+                findings);
+
+        EntityFindingsFile.Contents contents = load().orElseThrow();
+
+        assertThat(contents.findings()).isEqualTo(findings);
+        assertThat(contents.analyzedEntities()).containsOnlyKeys("com.example.Order", "com.example.Customer");
+    }
+
+    @Test
+    void shouldOnlyCoverUnchangedEntitiesAnalyzedByAllAnalyzers() throws IOException {
+        long checksum = EntityFindingsFile.checksum("class file".getBytes(StandardCharsets.UTF_8));
+        EntityFindingsFile.write(classes, List.of(ANALYZER), Map.of("com.example.Order", checksum), List.of());
+
+        EntityFindingsFile.Contents contents = load().orElseThrow();
+
+        assertThat(contents.covers("com.example.Order", checksum, List.of(ANALYZER))).isTrue();
+        assertThat(contents.covers("com.example.Order", checksum + 1, List.of(ANALYZER))).isFalse();
+        assertThat(contents.covers("com.example.Order", checksum, List.of(ANALYZER, OTHER_ANALYZER))).isFalse();
+        assertThat(contents.covers("com.example.Customer", checksum, List.of(ANALYZER))).isFalse();
+    }
+
+    @Test
+    void shouldCoverNoEntityWithFileWithoutAnalyzedEntities() throws IOException {
+        Path file = classes.resolve(EntityFindingsFile.LOCATION);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, "# hiperanalyzer entity findings v1\n" + ANALYZER + "\tcom.example.Order\tMISSING_HASHCODE\n");
+
+        EntityFindingsFile.Contents contents = load().orElseThrow();
+
+        assertThat(contents.findings()).hasSize(1);
+        assertThat(contents.covers("com.example.Order", 0, List.of(ANALYZER))).isFalse();
+    }
+
+    @Test
+    void shouldLoadNothingWithoutFile() throws IOException {
+        assertThat(load()).isEmpty();
+    }
+
+    private Optional<EntityFindingsFile.Contents> load() throws IOException {
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{classes.toUri().toURL()}, null)) {
+            return EntityFindingsFile.load(classLoader);
+        }
+    }
+}
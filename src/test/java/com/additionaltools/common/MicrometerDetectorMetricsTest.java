@@ -0,0 +1,80 @@
+package com.additionaltools.common;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MicrometerDetectorMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final MicrometerDetectorMetrics metrics = new MicrometerDetectorMetrics();
+
+    @Test
+    void shouldRecordNothingBeforeItIsBound() {
+        metrics.recordFinding("N+1_SELECT_DETECTED", "com.example.OrderService.load");
+        metrics.bindTo(registry);
+
+        assertThat(registry.getMeters()).isEmpty();
+    }
+
+    @Test
+    void shouldTagTheFindingsByTypeAndMethod() {
+        metrics.bindTo(registry);
+        FindingAggregator findingAggregator = new FindingAggregator(new RecordingLoggingService(), metrics);
+
+        findingAggregator.record("N+1_SELECT_DETECTED", "com.example.OrderService.load", "orders", 3);
+        findingAggregator.record("N+1_SELECT_DETECTED", "com.example.OrderService.load", "customers", 5);
+        findingAggregator.record("N+1_SELECT_DETECTED", "com.example.CustomerService.load", "orders", 2);
+
+        assertThat(registry.find("hiperanalyzer.findings").counters()).hasSize(2);
+        assertThat(registry.get("hiperanalyzer.findings").tag("type", "N+1_SELECT_DETECTED")
+                .tag("method", "com.example.OrderService.load").counter().count()).isEqualTo(2);
+        assertThat(registry.get("hiperanalyzer.additional.queries").tag("type", "N+1_SELECT_DETECTED")
+                .tag("method", "com.example.OrderService.load").summary().totalAmount()).isEqualTo(8);
+    }
+
+    @Test
+    void shouldTagCallSiteFindingsWithTheMethodWithoutTheLineNumber() {
+        metrics.bindTo(registry);
+        FindingAggregator findingAggregator = new FindingAggregator(new RecordingLoggingService(), metrics);
+
+        findingAggregator.record("REPEATED_QUERY", "com.example.OrderService.load:42", "select", 9,
+                CallSiteResolver.getMethod("com.example.OrderService.load:42"));
+        findingAggregator.record("REPEATED_QUERY", "com.example.OrderService.load:57", "select", 9,
+                CallSiteResolver.getMethod("com.example.OrderService.load:57"));
+
+        assertThat(registry.get("hiperanalyzer.findings").tag("type", "REPEATED_QUERY")
+                .tag("method", "com.example.OrderService.load").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldTagTheFindingsByTypeOnlyWithoutTheMethodTag() {
+        MicrometerDetectorMetrics typeOnly = new MicrometerDetectorMetrics(false);
+        typeOnly.bindTo(registry);
+        FindingAggregator findingAggregator = new FindingAggregator(new RecordingLoggingService(), typeOnly);
+
+        findingAggregator.record("N+1_SELECT_DETECTED", "com.example.OrderService.load", "orders", 3);
+        findingAggregator.record("N+1_SELECT_DETECTED", "com.example.CustomerService.load", "orders", 5);
+
+        assertThat(registry.find("hiperanalyzer.findings").counters())
+                .singleElement()
+                .satisfies(counter -> assertThat(counter.getId().getTags()).hasSize(1))
+                .satisfies(counter -> assertThat(counter.count()).isEqualTo(2));
+        assertThat(registry.get("hiperanalyzer.additional.queries").tag("type", "N+1_SELECT_DETECTED").summary()
+                .totalAmount()).isEqualTo(8);
+    }
+
+    @Test
+    void shouldTimeTheOverheadPerDetector() {
+        metrics.bindTo(registry);
+
+        metrics.recordOverhead("nplus1", 1_000_000);
+        metrics.recordOverhead("nplus1", 3_000_000);
+
+        assertThat(registry.get("hiperanalyzer.overhead").tag("detector", "nplus1").timer().totalTime(TimeUnit.MILLISECONDS))
+                .isEqualTo(4);
+    }
+}
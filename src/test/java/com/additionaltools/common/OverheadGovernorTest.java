@@ -0,0 +1,148 @@
+package com.additionaltools.common;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.transaction.TransactionExecution;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(OutputCaptureExtension.class)
+class OverheadGovernorTest {
+
+    private static final String DETECTOR = "detector";
+    private static final String MISSING_TRANSACTION_TIME = "no transaction time was measured";
+
+    private final AtomicLong nanoTime = new AtomicLong();
+    private final OverheadGovernor governor = new OverheadGovernor(DetectorMetrics.NOOP, true, 0.02, 0.1, nanoTime::get);
+
+    @Test
+    void shouldHalveTheRateOfADetectorOverTheBudget() {
+        runTransaction(1000);
+        governor.recordOverhead(DETECTOR, 30);
+        governor.evaluate();
+
+        assertThat(governor.getSamplingRate(DETECTOR)).isEqualTo(0.5);
+
+        runTransaction(1000);
+        governor.recordOverhead(DETECTOR, 30);
+        governor.evaluate();
+
+        assertThat(governor.getSamplingRate(DETECTOR)).isEqualTo(0.25);
+    }
+
+    @Test
+    void shouldNotLowerTheRateBelowTheMinimum() {
+        for (int i = 0; i < 5; i++) {
+            runTransaction(1000);
+            governor.recordOverhead(DETECTOR, 30);
+            governor.evaluate();
+        }
+
+        assertThat(governor.getSamplingRate(DETECTOR)).isEqualTo(0.1);
+    }
+
+    @Test
+    void shouldDoubleTheRateOfADetectorWithinHalfOfTheBudget() {
+        lowerRateTo(0.25);
+
+        runTransaction(1000);
+        governor.recordOverhead(DETECTOR, 5);
+        governor.evaluate();
+
+        assertThat(governor.getSamplingRate(DETECTOR)).isEqualTo(0.5);
+
+        runTransaction(1000);
+        governor.evaluate();
+        runTransaction(1000);
+        governor.evaluate();
+
+        assertThat(governor.getSamplingRate(DETECTOR)).isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldKeepTheRateOfADetectorBetweenHalfOfTheBudgetAndTheBudget() {
+        lowerRateTo(0.5);
+
+        runTransaction(1000);
+        governor.recordOverhead(DETECTOR, 15);
+        governor.evaluate();
+
+        assertThat(governor.getSamplingRate(DETECTOR)).isEqualTo(0.5);
+    }
+
+    @Test
+    void shouldMeasureANestedNewTransactionApartFromTheSuspendedOne() {
+        governor.afterBegin(transaction(true), null);
+        nanoTime.addAndGet(100);
+        governor.afterBegin(transaction(false), null);
+        governor.afterBegin(transaction(true), null);
+        nanoTime.addAndGet(200);
+        governor.afterCommit(transaction(true), null);
+        governor.afterCommit(transaction(false), null);
+        nanoTime.addAndGet(700);
+        governor.afterRollback(transaction(true), null);
+        // 23 of 1000 + 200 nanoseconds is within the budget, 23 of 900 + 200 would not be
+        governor.recordOverhead(DETECTOR, 23);
+        governor.evaluate();
+
+        assertThat(governor.getSamplingRate(DETECTOR)).isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldNotThrottleWhenDisabled(CapturedOutput output) {
+        OverheadGovernor disabled = new OverheadGovernor(DetectorMetrics.NOOP, false, 0.02, 0.1, nanoTime::get);
+        disabled.recordOverhead(DETECTOR, 30);
+        disabled.evaluate();
+
+        assertThat(disabled.getSamplingRate(DETECTOR)).isEqualTo(1.0);
+        assertThat(output).doesNotContain(MISSING_TRANSACTION_TIME);
+    }
+
+    @Test
+    void shouldWarnOnceWhenOverheadIsRecordedWithoutTransactionTime(CapturedOutput output) {
+        governor.recordOverhead(DETECTOR, 30);
+        governor.evaluate();
+        governor.recordOverhead(DETECTOR, 30);
+        governor.evaluate();
+
+        assertThat(governor.getSamplingRate(DETECTOR)).isEqualTo(1.0);
+        assertThat(output.getOut().split(MISSING_TRANSACTION_TIME, -1)).hasSize(2);
+    }
+
+    @Test
+    void shouldNotWarnForAnIntervalWithoutTransactionsOnceTransactionTimeWasMeasured(CapturedOutput output) {
+        runTransaction(1000);
+        governor.evaluate();
+        governor.recordOverhead(DETECTOR, 30);
+        governor.evaluate();
+
+        assertThat(output).doesNotContain(MISSING_TRANSACTION_TIME);
+    }
+
+    private void lowerRateTo(double rate) {
+        while (governor.getSamplingRate(DETECTOR) > rate) {
+            runTransaction(1000);
+            governor.recordOverhead(DETECTOR, 30);
+            governor.evaluate();
+        }
+    }
+
+    private void runTransaction(long nanos) {
+        governor.afterBegin(transaction(true), null);
+        nanoTime.addAndGet(nanos);
+        governor.afterCommit(transaction(true), null);
+    }
+
+    private static TransactionExecution transaction(boolean newTransaction) {
+        return new TransactionExecution() {
+            @Override
+            public boolean isNewTransaction() {
+                return newTransaction;
+            }
+        };
+    }
+}
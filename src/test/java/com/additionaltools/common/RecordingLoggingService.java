@@ -0,0 +1,25 @@
+package com.additionaltools.common;
+
+import com.additionaltools.logging.LoggingService;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Keeps the logs of a test and the threads that added them.
+ */
+public class RecordingLoggingService implements LoggingService {
+
+    public final List<String> logs = new CopyOnWriteArrayList<>();
+    public final List<Thread> threads = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void addLog(String log) {
+        logs.add(log);
+        threads.add(Thread.currentThread());
+    }
+
+    @Override
+    public void flushLogs() {
+    }
+}
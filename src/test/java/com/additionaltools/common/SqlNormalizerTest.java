@@ -0,0 +1,60 @@
+package com.additionaltools.common;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlNormalizerTest {
+
+    @ParameterizedTest(name = "{0} -> {1}")
+    @CsvSource(delimiter = '|', quoteCharacter = '"', textBlock = """
+            select * from orders where id = 5                  | select * from orders where id=?
+            select * from orders where id = -5                 | select * from orders where id=?
+            select * from orders where id = - 5                | select * from orders where id=?
+            select * from orders where id = -5.5e-3            | select * from orders where id=?
+            select * from orders where id=(-5)                 | select * from orders where id=(?)
+            select * from orders where id between -5 and -1    | select * from orders where id between ? and ?
+            select -5 from orders                              | select ? from orders
+            -5                                                 | ?
+            select total - 5 from orders                       | select total-? from orders
+            select total-5 from orders                         | select total-? from orders
+            select (total) - 5 from orders                     | select (total)-? from orders
+            select total - -5 from orders                      | select total-? from orders
+            select ? - 5 from orders                           | select ?-? from orders
+            select * from orders where id in (1, -2, - 3)      | select * from orders where id in (?+)
+            select * from orders where id in (?, ?)            | select * from orders where id in (?+)
+            select * from orders where id in (select id from x)| select * from orders where id in (select id from x)
+            select * from orders where name = 'a -5'           | select * from orders where name=?
+            SELECT * FROM orders -- a comment                  | select * from orders
+            select * from orders2 where col5 = 1               | select * from orders2 where col5=?
+            select * from orders where id = -x                 | select * from orders where id=-x
+            """)
+    void shouldNormalize(String sql, String normalized) {
+        SqlFingerprint fingerprint = SqlNormalizer.fingerprint(sql);
+
+        assertThat(fingerprint.normalizedSql()).isEqualTo(normalized);
+        assertThat(SqlNormalizer.hash(sql)).isEqualTo(fingerprint.hash());
+        assertThat(fingerprint.hash()).isEqualTo(SqlNormalizer.hashText(normalized));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @CsvSource(delimiter = '|', quoteCharacter = '"', textBlock = """
+            select * from orders where id = ?                           | 1 | select * from orders where id = 1
+            select * from orders where id = ? and name = '?'            | 1 | select * from orders where id = 1 and name = '?'
+            select * from orders where id = ? -- ?                      | 1 | select * from orders where id = 1 -- ?
+            select * from orders where id = ? and total = ?             | 1 | select * from orders where id = 1 and total = ?
+            """)
+    void shouldBindArguments(String sql, String argument, String bound) {
+        assertThat(SqlNormalizer.bindArguments(sql, List.of(argument))).isEqualTo(bound);
+    }
+
+    @Test
+    void shouldCountPlaceholdersOutsideLiteralsAndComments() {
+        assertThat(SqlNormalizer.countPlaceholders("select '?', \"?\" from orders where id = ? /* ? */ and x = ?"))
+                .isEqualTo(2);
+    }
+}
@@ -0,0 +1,13 @@
+package com.additionaltools.common.sample;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+
+@Entity
+public class SampleEntity {
+
+    @Id
+    private Long id;
+
+    private String name;
+}
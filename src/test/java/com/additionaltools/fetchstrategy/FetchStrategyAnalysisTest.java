@@ -0,0 +1,100 @@
+package com.additionaltools.fetchstrategy;
+
+import com.additionaltools.common.RecordingLoggingService;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class FetchStrategyAnalysisTest {
+
+    private static final String SAMPLE = "com.additionaltools.fetchstrategy.sample.";
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final RecordingLoggingService loggingService = new RecordingLoggingService();
+    private List<String> findings;
+
+    @BeforeEach
+    void analyze() {
+        findings = new FetchStrategyAnalysis(entityManagerFactory, SAMPLE, loggingService).analyze();
+    }
+
+    @Test
+    void shouldReportTheFindingsOrderedByEntityAndAttribute() {
+        assertThat(findings).extracting(finding -> finding.substring(0, finding.indexOf(" ", finding.indexOf(": ") + 2)))
+                .containsExactly(
+                        "EAGER_TO_ONE: " + SAMPLE + "Article.catalog",
+                        "ONE_TO_ONE_NOT_LAZY: " + SAMPLE + "Customer.address",
+                        "COLLECTION_WITHOUT_BATCH_FETCH: " + SAMPLE + "Customer.orders",
+                        "EAGER_TO_ONE: " + SAMPLE + "Department.head",
+                        "EAGER_TO_ONE: " + SAMPLE + "Employee.department",
+                        "EAGER_TO_ONE: " + SAMPLE + "PurchaseOrder.customer");
+    }
+
+    @Test
+    void shouldReportADefaultEagerManyToOneWithTheEagerAssociationsOfItsTarget() {
+        // the customer itself and the inverse @OneToOne address loaded with it
+        assertThat(finding("PurchaseOrder.customer"))
+                .contains("(@ManyToOne to " + SAMPLE + "Customer) is fetched EAGER")
+                .contains("Estimated additional queries per root entity: 2.");
+    }
+
+    @Test
+    void shouldReportAnInverseOneToOneDeclaredLazy() {
+        assertThat(finding("Customer.address"))
+                .startsWith("ONE_TO_ONE_NOT_LAZY")
+                .contains("@OneToOne to " + SAMPLE + "Address")
+                .contains("Estimated additional queries per root entity: 1.");
+    }
+
+    @Test
+    void shouldReportACollectionWithoutBatchFetching() {
+        assertThat(finding("Customer.orders"))
+                .startsWith("COLLECTION_WITHOUT_BATCH_FETCH")
+                .contains("is initialized with one query per " + SAMPLE + "Customer")
+                .contains("Annotate it with @BatchSize");
+    }
+
+    @Test
+    void shouldNotReportBatchFetchedOrLazyAssociations() {
+        assertThat(findings).noneMatch(finding -> finding.contains(SAMPLE + "PurchaseOrder.lines")
+                                                  || finding.contains(SAMPLE + "Catalog.articles")
+                                                  || finding.contains(SAMPLE + "Address.customer")
+                                                  || finding.contains(SAMPLE + "OrderLine.order"));
+    }
+
+    @Test
+    void shouldDivideTheEstimateByTheBatchSizes() {
+        // (the catalog + its eager collection batched by 2) / the catalog batched by 2
+        assertThat(finding("Article.catalog")).contains("Estimated additional queries per root entity: 0.75.");
+    }
+
+    @Test
+    void shouldFollowACycleOfEagerAssociationsOnce() {
+        // the department and its head, whose department is the entity already visited
+        assertThat(finding("Employee.department")).contains("Estimated additional queries per root entity: 2.");
+        assertThat(finding("Department.head")).contains("Estimated additional queries per root entity: 2.");
+    }
+
+    @Test
+    void shouldLogTheFindingsAfterStartup() {
+        new FetchStrategyAnalysis(entityManagerFactory, SAMPLE, loggingService).afterSingletonsInstantiated();
+
+        assertThat(loggingService.logs).containsExactlyElementsOf(findings);
+    }
+
+    private String finding(String attribute) {
+        return findings.stream()
+                .filter(finding -> finding.contains(": " + SAMPLE + attribute + " "))
+                .findFirst()
+                .orElseThrow();
+    }
+}
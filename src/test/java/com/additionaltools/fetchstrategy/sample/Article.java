@@ -0,0 +1,15 @@
+package com.additionaltools.fetchstrategy.sample;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.ManyToOne;
+
+@Entity
+public class Article {
+
+    @Id
+    private Long id;
+
+    @ManyToOne
+    private Catalog catalog;
+}
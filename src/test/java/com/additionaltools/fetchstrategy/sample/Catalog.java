@@ -0,0 +1,21 @@
+package com.additionaltools.fetchstrategy.sample;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.OneToMany;
+import org.hibernate.annotations.BatchSize;
+
+import java.util.List;
+
+@Entity
+@BatchSize(size = 2)
+public class Catalog {
+
+    @Id
+    private Long id;
+
+    @OneToMany(mappedBy = "catalog", fetch = FetchType.EAGER)
+    @BatchSize(size = 2)
+    private List<Article> articles;
+}
@@ -0,0 +1,22 @@
+package com.additionaltools.fetchstrategy.sample;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.OneToMany;
+import jakarta.persistence.OneToOne;
+
+import java.util.List;
+
+@Entity
+public class Customer {
+
+    @Id
+    private Long id;
+
+    @OneToOne(mappedBy = "customer", fetch = FetchType.LAZY)
+    private Address address;
+
+    @OneToMany(mappedBy = "customer")
+    private List<PurchaseOrder> orders;
+}
@@ -0,0 +1,23 @@
+package com.additionaltools.fetchstrategy.sample;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.OneToMany;
+import org.hibernate.annotations.BatchSize;
+
+import java.util.List;
+
+@Entity
+public class PurchaseOrder {
+
+    @Id
+    private Long id;
+
+    @ManyToOne
+    private Customer customer;
+
+    @OneToMany(mappedBy = "order")
+    @BatchSize(size = 10)
+    private List<OrderLine> lines;
+}
@@ -0,0 +1,102 @@
+package com.additionaltools.logging;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileLoggingServiceTest {
+
+    private static final Clock CLOCK = Clock.fixed(LocalDateTime.of(2026, 1, 2, 0, 0).toInstant(ZoneOffset.UTC),
+            ZoneOffset.UTC);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldWriteTheQueuedLogs() throws IOException {
+        FileLoggingService loggingService = new FileLoggingService(directory.resolve("HiPerAnalyzerLogs.txt"), 10,
+                Long.MAX_VALUE, Duration.ofDays(1), 5, CLOCK);
+        loggingService.initializeLogFile();
+
+        loggingService.addLog("N+1_SELECT_DETECTED: first");
+        loggingService.addLog("N+1_SELECT_DETECTED: second");
+        loggingService.close();
+
+        assertThat(Files.readAllLines(directory.resolve("HiPerAnalyzerLogs.txt")))
+                .endsWith("N+1_SELECT_DETECTED: first", "N+1_SELECT_DETECTED: second");
+    }
+
+    @Test
+    void shouldCountLogsDroppedWhenTheQueueIsFull() throws IOException {
+        FileLoggingService loggingService = new FileLoggingService(directory.resolve("HiPerAnalyzerLogs.txt"), 1,
+                Long.MAX_VALUE, Duration.ofDays(1), 5, CLOCK);
+        loggingService.initializeLogFile();
+
+        loggingService.addLog("kept");
+        loggingService.addLog("dropped");
+        assertThat(loggingService.getDroppedLogs()).isEqualTo(1);
+        loggingService.close();
+
+        assertThat(Files.readAllLines(directory.resolve("HiPerAnalyzerLogs.txt")))
+                .contains("HiPerAnalyzer: 1 log(s) dropped, the log queue was full", "kept")
+                .doesNotContain("dropped");
+    }
+
+    @Test
+    void shouldKeepTheNewestRotatedFileWhenTheTimestampWasTaken() throws IOException {
+        Files.writeString(directory.resolve("HiPerAnalyzerLogs-20260101-000000.txt"), "oldest");
+        Files.writeString(directory.resolve("HiPerAnalyzerLogs-20260102-000000.txt"), "older");
+        Files.writeString(directory.resolve("HiPerAnalyzerLogs-backup.txt"), "not rotated");
+        Files.writeString(directory.resolve("HiPerAnalyzerLogs-20260103-000000.log"), "other extension");
+        FileLoggingService loggingService = new FileLoggingService(directory.resolve("HiPerAnalyzerLogs.txt"), 10,
+                1, Duration.ofDays(1), 1, CLOCK);
+        loggingService.initializeLogFile();
+
+        loggingService.addLog("after rotation");
+        loggingService.close();
+
+        assertThat(listFileNames()).containsExactlyInAnyOrder(
+                "HiPerAnalyzerLogs.txt",
+                "HiPerAnalyzerLogs-20260102-000000-1.txt",
+                "HiPerAnalyzerLogs-backup.txt",
+                "HiPerAnalyzerLogs-20260103-000000.log");
+        assertThat(Files.readString(directory.resolve("HiPerAnalyzerLogs-20260102-000000-1.txt")))
+                .contains("Welcome to HiPerAnalyzer");
+        assertThat(Files.readAllLines(directory.resolve("HiPerAnalyzerLogs.txt"))).containsExactly("after rotation");
+    }
+
+    @Test
+    void shouldOrderRotatedFilesByTimestampAndCounter() throws IOException {
+        Files.writeString(directory.resolve("HiPerAnalyzerLogs-20260101-000000-2.txt"), "");
+        Files.writeString(directory.resolve("HiPerAnalyzerLogs-20260101-000000-10.txt"), "");
+        Files.writeString(directory.resolve("HiPerAnalyzerLogs-20251231-235959-99.txt"), "");
+        FileLoggingService loggingService = new FileLoggingService(directory.resolve("HiPerAnalyzerLogs.txt"), 10,
+                1, Duration.ofDays(1), 2, CLOCK);
+        loggingService.initializeLogFile();
+
+        loggingService.addLog("after rotation");
+        loggingService.close();
+
+        assertThat(listFileNames()).containsExactlyInAnyOrder(
+                "HiPerAnalyzerLogs.txt",
+                "HiPerAnalyzerLogs-20260101-000000-10.txt",
+                "HiPerAnalyzerLogs-20260102-000000.txt");
+    }
+
+    private List<String> listFileNames() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString()).toList();
+        }
+    }
+}
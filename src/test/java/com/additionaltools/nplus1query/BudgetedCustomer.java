@@ -0,0 +1,27 @@
+package com.additionaltools.nplus1query;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+
+@Entity
+public class BudgetedCustomer {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String name;
+
+    protected BudgetedCustomer() {
+    }
+
+    public BudgetedCustomer(String name) {
+        this.name = name;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,16 @@
+package com.additionaltools.nplus1query;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface BudgetedCustomerRepository extends JpaRepository<BudgetedCustomer, Long> {
+
+    @Override
+    @QueryBudget(maxStatements = 0, action = QueryBudget.Action.THROW)
+    <S extends BudgetedCustomer> S save(S entity);
+
+    @Override
+    @QueryBudget(maxStatements = 5, action = QueryBudget.Action.THROW)
+    <S extends BudgetedCustomer> List<S> saveAll(Iterable<S> entities);
+}
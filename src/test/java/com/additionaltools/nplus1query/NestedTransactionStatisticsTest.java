@@ -0,0 +1,126 @@
+package com.additionaltools.nplus1query;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@EnableNPlus1QueryDetection
+@ImportAutoConfiguration(AopAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class NestedTransactionStatisticsTest {
+
+    @Autowired
+    private OuterService outerService;
+
+    @Autowired
+    private BudgetedCustomerRepository repository;
+
+    @AfterEach
+    void deleteCustomers() {
+        repository.deleteAllInBatch();
+    }
+
+    @Test
+    void shouldNotCountTheStatementsOfANestedTransactionInTheOuterOne() {
+        outerService.saveWithNestedTransaction();
+
+        assertThat(repository.count()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldNotCountTheStatementsOfANestedTransactionWithoutStatisticsInTheOuterOne() {
+        outerService.saveWithNestedUnbudgetedTransaction();
+
+        assertThat(repository.count()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldCountTheStatementsOfTheOuterTransactionAfterTheNestedOneCompleted() {
+        assertThatThrownBy(() -> outerService.saveAfterNestedTransaction())
+                .isInstanceOf(QueryBudgetExceededException.class)
+                .hasMessageContaining("OuterService.saveAfterNestedTransaction")
+                .hasMessageContaining("statements 2 > 1");
+
+        assertThat(repository.count()).isEqualTo(2);
+    }
+
+    @TestConfiguration
+    static class ServiceConfiguration {
+
+        @Bean
+        InnerService innerService(EntityManager entityManager) {
+            return new InnerService(entityManager);
+        }
+
+        @Bean
+        OuterService outerService(EntityManager entityManager, InnerService innerService) {
+            return new OuterService(entityManager, innerService);
+        }
+    }
+
+    static class OuterService {
+
+        private final EntityManager entityManager;
+        private final InnerService innerService;
+
+        OuterService(EntityManager entityManager, InnerService innerService) {
+            this.entityManager = entityManager;
+            this.innerService = innerService;
+        }
+
+        @Transactional
+        @QueryBudget(maxStatements = 1, action = QueryBudget.Action.THROW)
+        public void saveWithNestedTransaction() {
+            entityManager.persist(new BudgetedCustomer("Alice"));
+            innerService.saveTwo();
+        }
+
+        @Transactional
+        @QueryBudget(maxStatements = 1, action = QueryBudget.Action.THROW)
+        public void saveWithNestedUnbudgetedTransaction() {
+            entityManager.persist(new BudgetedCustomer("Alice"));
+            innerService.saveTwoWithoutBudget();
+        }
+
+        @Transactional
+        @QueryBudget(maxStatements = 1, action = QueryBudget.Action.THROW)
+        public void saveAfterNestedTransaction() {
+            innerService.saveTwo();
+            entityManager.persist(new BudgetedCustomer("Alice"));
+            entityManager.persist(new BudgetedCustomer("Bob"));
+        }
+    }
+
+    static class InnerService {
+
+        private final EntityManager entityManager;
+
+        InnerService(EntityManager entityManager) {
+            this.entityManager = entityManager;
+        }
+
+        @Transactional(propagation = Propagation.REQUIRES_NEW)
+        @QueryBudget(maxStatements = 2, action = QueryBudget.Action.THROW)
+        public void saveTwo() {
+            saveTwoWithoutBudget();
+        }
+
+        @Transactional(propagation = Propagation.REQUIRES_NEW)
+        public void saveTwoWithoutBudget() {
+            entityManager.persist(new BudgetedCustomer("Carol"));
+            entityManager.persist(new BudgetedCustomer("Dave"));
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.additionaltools.nplus1query;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@EnableNPlus1QueryDetection
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class QueryBudgetRepositoryPostProcessorTest {
+
+    @Autowired
+    private BudgetedCustomerRepository repository;
+
+    @AfterEach
+    void deleteCustomers() {
+        repository.deleteAllInBatch();
+    }
+
+    @Test
+    void shouldRollBackTheRepositoryTransactionWhenTheBudgetIsExceeded() {
+        assertThatThrownBy(() -> repository.save(new BudgetedCustomer("Alice")))
+                .isInstanceOf(QueryBudgetExceededException.class)
+                .hasMessageContaining("BudgetedCustomerRepository.save")
+                .hasMessageContaining("statements 1 > 0");
+
+        assertThat(repository.count()).isZero();
+    }
+
+    @Test
+    void shouldCommitTheRepositoryTransactionWithinTheBudget() {
+        repository.saveAll(List.of(new BudgetedCustomer("Alice"), new BudgetedCustomer("Bob")));
+
+        assertThat(repository.count()).isEqualTo(2);
+    }
+}
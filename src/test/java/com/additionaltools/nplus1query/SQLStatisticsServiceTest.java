@@ -0,0 +1,101 @@
+package com.additionaltools.nplus1query;
+
+import com.additionaltools.common.CallSiteResolver;
+import com.additionaltools.common.DetectorMetrics;
+import com.additionaltools.common.FindingAggregator;
+import com.additionaltools.common.OverheadGovernor;
+import com.additionaltools.common.RecordingLoggingService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SQLStatisticsServiceTest {
+
+    private static final String ENTITY = "com.example.Customer";
+    private static final String ROLE = "com.example.Customer.orders";
+
+    private final RecordingLoggingService loggingService = new RecordingLoggingService();
+    private final List<Long> additionalQueries = new ArrayList<>();
+    private final DetectorMetrics detectorMetrics = new DetectorMetrics() {
+        @Override
+        public void recordFinding(String type, String method) {
+        }
+
+        @Override
+        public void recordAdditionalQueries(String type, String method, long additional) {
+            additionalQueries.add(additional);
+        }
+
+        @Override
+        public void recordOverhead(String detector, long nanos) {
+        }
+    };
+
+    @Test
+    void shouldNotReportEntitiesFetchedFewerTimesThanTheThreshold() {
+        TransactionStatistics statistics = newStatistics();
+        statistics.entityFetched(ENTITY);
+        statistics.entityFetched(ENTITY);
+
+        boolean detected = newService(3).printStatistics("OrderService.load()", statistics);
+
+        assertThat(detected).isFalse();
+        assertThat(loggingService.logs).isEmpty();
+    }
+
+    @Test
+    void shouldReportAdditionalSelectsBeyondTheFirstEntityFetch() {
+        TransactionStatistics statistics = newStatistics();
+        for (int i = 0; i < 3; i++) {
+            statistics.entityFetched(ENTITY);
+        }
+
+        boolean detected = newService(3).printStatistics("OrderService.load()", statistics);
+
+        assertThat(detected).isTrue();
+        assertThat(additionalQueries).containsExactly(2L);
+        assertThat(loggingService.logs).singleElement().asString()
+                .contains("Number of additional query fetches: 2, Entity: " + ENTITY);
+    }
+
+    @Test
+    void shouldReportEveryCollectionFetch() {
+        TransactionStatistics statistics = newStatistics();
+        statistics.collectionFetched(ROLE);
+
+        boolean detected = newService(3).printStatistics("OrderService.load()", statistics);
+
+        assertThat(detected).isTrue();
+        assertThat(additionalQueries).containsExactly(1L);
+        assertThat(loggingService.logs).singleElement().asString()
+                .contains("Number of additional query fetches: 1, Collection: " + ROLE);
+    }
+
+    @Test
+    void shouldRejectThresholdsReportingSingleFetches() {
+        assertThatThrownBy(() -> newService(1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static TransactionStatistics newStatistics() {
+        return new TransactionStatistics(new CallSiteResolver("com.example"));
+    }
+
+    private SQLStatisticsService newService(long minEntityFetches) {
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+        SessionFactory sessionFactory = mock(SessionFactory.class);
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getStatistics()).thenReturn(mock(Statistics.class));
+        return new SQLStatisticsService(entityManagerFactory, loggingService,
+                new FindingAggregator(loggingService, detectorMetrics),
+                new OverheadGovernor(DetectorMetrics.NOOP, false, 0.02, 0.01), minEntityFetches);
+    }
+}
@@ -0,0 +1,91 @@
+package com.additionaltools.repeatedquery;
+
+import com.additionaltools.common.RecordingLoggingService;
+import com.additionaltools.repeatedquery.sample.RepeatedQueryServices;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:repeated",
+        "hiperanalyzer.explain.capture=jdbc",
+        "hiperanalyzer.repeated-query.threshold=3"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(RepeatedQueryServices.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class NestedTransactionRepeatedQueryTest {
+
+    /**
+     * Every test names the count differently, so its finding is not deduplicated with the finding of another test.
+     */
+    private static final String QUERY = "SELECT COUNT(*) AS %s FROM INVOICE WHERE ID = ?";
+
+    @Autowired
+    private RepeatedQueryServices.OuterService outerService;
+
+    @Autowired
+    private RecordingLoggingService loggingService;
+
+    @BeforeEach
+    void clearLogs() {
+        loggingService.logs.clear();
+    }
+
+    @Test
+    void shouldReportAShapeExecutedMoreOftenThanTheThreshold() {
+        outerService.query(QUERY.formatted("REPORTED"), 4);
+
+        assertThat(loggingService.logs).singleElement().satisfies(log -> assertThat(log)
+                .startsWith("REPEATED_QUERY_DETECTED: Query: select count(*) as reported from invoice where id=?")
+                .contains("Executions: 4")
+                .contains("First executed at: com.additionaltools.repeatedquery.sample.RepeatedQueryServices.query:"));
+    }
+
+    @Test
+    void shouldNotReportAShapeExecutedUpToTheThreshold() {
+        outerService.query(QUERY.formatted("WITHIN_THRESHOLD"), 3);
+
+        assertThat(loggingService.logs).isEmpty();
+    }
+
+    @Test
+    void shouldNotCountTheStatementsOfANestedTransactionInTheOuterOne() {
+        outerService.queryAroundNestedTransaction(QUERY.formatted("NESTED"), 2, 3);
+
+        assertThat(loggingService.logs).isEmpty();
+    }
+
+    @Test
+    void shouldReportTheStatementsOfANestedTransactionForTheNestedOne() {
+        outerService.queryAroundNestedTransaction(QUERY.formatted("NESTED_REPORTED"), 1, 5);
+
+        assertThat(loggingService.logs).singleElement().satisfies(log -> assertThat(log).contains("Executions: 5"));
+    }
+
+    @Test
+    void shouldCountTheStatementsOfTheOuterTransactionAfterTheNestedOneCompleted() {
+        outerService.queryAroundNestedTransaction(QUERY.formatted("RESUMED"), 3, 1);
+
+        assertThat(loggingService.logs).singleElement().satisfies(log -> assertThat(log).contains("Executions: 4"));
+    }
+
+    @TestConfiguration
+    static class LoggingConfiguration {
+
+        @Bean
+        @Primary
+        RecordingLoggingService recordingLoggingService() {
+            return new RecordingLoggingService();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.additionaltools.repeatedquery;
+
+import com.additionaltools.common.CallSiteResolver;
+import com.additionaltools.common.DetectorMetrics;
+import com.additionaltools.common.FindingAggregator;
+import com.additionaltools.common.OverheadGovernor;
+import com.additionaltools.common.RecordingLoggingService;
+import com.additionaltools.sqlexplainplan.SqlDefinition;
+import com.additionaltools.sqlexplainplan.StatementListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RepeatedQueryDetectorTest {
+
+    private static final String QUERY = "select * from orders where customer_id = ?";
+    private static final int THRESHOLD = 2;
+
+    private final RecordingLoggingService loggingService = new RecordingLoggingService();
+    private boolean sampled = true;
+    private final OverheadGovernor overheadGovernor = new OverheadGovernor(DetectorMetrics.NOOP, true, 0.02, 0.01) {
+        @Override
+        public boolean shouldRun(String detector) {
+            return sampled;
+        }
+    };
+    private final RepeatedQueryDetector detector = new RepeatedQueryDetector(new CallSiteResolver("com.example"),
+            loggingService, new FindingAggregator(loggingService, DetectorMetrics.NOOP), overheadGovernor, THRESHOLD);
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.unbindResourceIfPossible(detector);
+    }
+
+    @Test
+    void shouldNotReportAShapeExecutedUpToTheThreshold() {
+        runTransaction(THRESHOLD, TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(loggingService.logs).isEmpty();
+    }
+
+    @Test
+    void shouldReportAShapeExecutedMoreOftenThanTheThreshold() {
+        runTransaction(THRESHOLD + 1, TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(loggingService.logs).singleElement().satisfies(log -> assertThat(log)
+                .startsWith("REPEATED_QUERY_DETECTED: Query: select * from orders where customer_id=?")
+                .contains("Executions: 3")
+                .contains("Total time: 3.000 ms"));
+    }
+
+    @Test
+    void shouldNotReportARolledBackTransaction() {
+        runTransaction(THRESHOLD + 1, TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(loggingService.logs).isEmpty();
+    }
+
+    @Test
+    void shouldNotCountATransactionThatIsNotSampled() {
+        sampled = false;
+
+        List<TransactionSynchronization> synchronizations = runTransaction(THRESHOLD + 1,
+                TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(synchronizations).hasSize(1);
+        assertThat(loggingService.logs).isEmpty();
+        assertThat(TransactionSynchronizationManager.hasResource(detector)).isFalse();
+    }
+
+    @Test
+    void shouldIgnoreStatementsWithoutATransaction() {
+        execute(THRESHOLD + 1);
+
+        assertThat(TransactionSynchronizationManager.hasResource(detector)).isFalse();
+        assertThat(loggingService.logs).isEmpty();
+    }
+
+    @Test
+    void shouldCountTheStatementsOfASuspendedTransactionAfterItIsResumed() {
+        TransactionSynchronizationManager.initSynchronization();
+        execute(2);
+        List<TransactionSynchronization> outer = suspend();
+
+        TransactionSynchronizationManager.initSynchronization();
+        execute(2);
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        resume(outer);
+        execute(1);
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(loggingService.logs).singleElement().satisfies(log -> assertThat(log).contains("Executions: 3"));
+    }
+
+    private List<TransactionSynchronization> runTransaction(int executions, int status) {
+        TransactionSynchronizationManager.initSynchronization();
+        execute(executions);
+        return complete(status);
+    }
+
+    private void execute(int executions) {
+        for (int i = 0; i < executions; i++) {
+            detector.statementExecuted(new SqlDefinition(QUERY, List.of(i), null, new ArrayList<>()), 1_000_000,
+                    StatementListener.UNKNOWN);
+        }
+    }
+
+    private List<TransactionSynchronization> complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+        return synchronizations;
+    }
+
+    /**
+     * Suspends the synchronizations like {@code AbstractPlatformTransactionManager} does for {@code REQUIRES_NEW}.
+     */
+    private List<TransactionSynchronization> suspend() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(TransactionSynchronization::suspend);
+        TransactionSynchronizationManager.clearSynchronization();
+        return synchronizations;
+    }
+
+    private void resume(List<TransactionSynchronization> synchronizations) {
+        TransactionSynchronizationManager.initSynchronization();
+        synchronizations.forEach(synchronization -> {
+            synchronization.resume();
+            TransactionSynchronizationManager.registerSynchronization(synchronization);
+        });
+    }
+}
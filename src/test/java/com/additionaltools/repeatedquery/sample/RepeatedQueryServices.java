@@ -0,0 +1,69 @@
+package com.additionaltools.repeatedquery.sample;
+
+import com.additionaltools.repeatedquery.EnableRepeatedQueryDetection;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Services in their own package, so the call sites of their statements are resolved to them.
+ */
+@TestConfiguration
+@EnableRepeatedQueryDetection
+public class RepeatedQueryServices {
+
+    @Bean
+    public InnerService innerService(JdbcTemplate jdbcTemplate) {
+        return new InnerService(jdbcTemplate);
+    }
+
+    @Bean
+    public OuterService outerService(JdbcTemplate jdbcTemplate, InnerService innerService) {
+        return new OuterService(jdbcTemplate, innerService);
+    }
+
+    static void query(JdbcTemplate jdbcTemplate, String sql, int executions) {
+        for (int i = 0; i < executions; i++) {
+            jdbcTemplate.queryForObject(sql, Long.class, i);
+        }
+    }
+
+    public static class OuterService {
+
+        private final JdbcTemplate jdbcTemplate;
+        private final InnerService innerService;
+
+        OuterService(JdbcTemplate jdbcTemplate, InnerService innerService) {
+            this.jdbcTemplate = jdbcTemplate;
+            this.innerService = innerService;
+        }
+
+        @Transactional
+        public void query(String sql, int executions) {
+            RepeatedQueryServices.query(jdbcTemplate, sql, executions);
+        }
+
+        @Transactional
+        public void queryAroundNestedTransaction(String sql, int executions, int nestedExecutions) {
+            RepeatedQueryServices.query(jdbcTemplate, sql, executions);
+            innerService.query(sql, nestedExecutions);
+            RepeatedQueryServices.query(jdbcTemplate, sql, 1);
+        }
+    }
+
+    public static class InnerService {
+
+        private final JdbcTemplate jdbcTemplate;
+
+        InnerService(JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        @Transactional(propagation = Propagation.REQUIRES_NEW)
+        public void query(String sql, int executions) {
+            RepeatedQueryServices.query(jdbcTemplate, sql, executions);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.additionaltools.sqlexplainplan;
+
+import com.additionaltools.common.RecordingLoggingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:plans",
+        "hiperanalyzer.explain.capture=jdbc",
+        "hiperanalyzer.explain.full-scan-rows=3"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EnableQueryPlanAnalysis
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ExecutionPlanAnalyzerTest {
+
+    @Autowired
+    private InvoiceRepository repository;
+
+    @Autowired
+    private RecordingLoggingService loggingService;
+
+    @Autowired
+    private ObjectProvider<PlanDigestStore> planDigestStore;
+
+    @Test
+    void shouldReportAFullScanOfAnUnindexedColumn() {
+        repository.saveAll(List.of(new Invoice(1L, "OPEN"), new Invoice(2L, "PAID"), new Invoice(3L, "PAID")));
+
+        repository.findByStatus("OPEN");
+
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> assertThat(loggingService.logs)
+                .anySatisfy(log -> assertThat(log)
+                        .startsWith("FULL_TABLE_SCAN: Severity: MEDIUM")
+                        .contains("Target: INVOICE")
+                        .contains("Estimated rows: 3")
+                        .contains("status='OPEN'")));
+    }
+
+    @Test
+    void shouldNotStorePlansWithoutPlanRegressionDetection() {
+        assertThat(planDigestStore.getIfAvailable()).isNull();
+    }
+
+    @TestConfiguration
+    static class LoggingConfiguration {
+
+        @Bean
+        @Primary
+        RecordingLoggingService recordingLoggingService() {
+            return new RecordingLoggingService();
+        }
+    }
+}
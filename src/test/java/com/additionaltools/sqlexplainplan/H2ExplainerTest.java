@@ -0,0 +1,116 @@
+package com.additionaltools.sqlexplainplan;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongBiFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class H2ExplainerTest {
+
+    private static final Map<String, Long> ROW_COUNTS = Map.of("CUSTOMER", 500L, "ORDERS", 2000L);
+    private static final ToLongBiFunction<String, String> ROW_COUNT_ESTIMATES =
+            (schema, table) -> ROW_COUNTS.getOrDefault(table, PlanNode.UNKNOWN_ROWS);
+
+    @Test
+    void shouldParseATableScan() {
+        PlanNode root = H2Explainer.parse("""
+                SELECT
+                    "PUBLIC"."CUSTOMER"."ID",
+                    "PUBLIC"."CUSTOMER"."NAME"
+                FROM "PUBLIC"."CUSTOMER"
+                    /* PUBLIC.CUSTOMER.tableScan */
+                WHERE "NAME" = 'a'""", ROW_COUNT_ESTIMATES);
+
+        assertThat(root).isEqualTo(query(PlanNode.access(PlanNode.Operation.FULL_SCAN, "CUSTOMER", null, 500)));
+    }
+
+    @Test
+    void shouldLeaveTheRowsOfASingleKeyLookupUnknown() {
+        PlanNode root = H2Explainer.parse("""
+                SELECT
+                    "PUBLIC"."CUSTOMER"."ID",
+                    "PUBLIC"."CUSTOMER"."NAME"
+                FROM "PUBLIC"."CUSTOMER"
+                    /* PUBLIC.PRIMARY_KEY_5: ID = CAST(5 AS BIGINT) */
+                WHERE "ID" = CAST(5 AS BIGINT)""", ROW_COUNT_ESTIMATES);
+
+        assertThat(root).isEqualTo(query(PlanNode.access(PlanNode.Operation.INDEX_LOOKUP, "CUSTOMER", "PRIMARY_KEY_5",
+                PlanNode.UNKNOWN_ROWS)));
+    }
+
+    @Test
+    void shouldEstimateARangeLookupWithTheTableRowsAndSortWithoutAnIndex() {
+        PlanNode root = H2Explainer.parse("""
+                SELECT
+                    "PUBLIC"."ORDERS"."ID",
+                    "PUBLIC"."ORDERS"."CUSTOMER_ID"
+                FROM "PUBLIC"."ORDERS"
+                    /* PUBLIC.IDX_ORDERS_CUSTOMER: CUSTOMER_ID > CAST(10 AS BIGINT) */
+                WHERE "CUSTOMER_ID" > CAST(10 AS BIGINT)
+                ORDER BY 1""", ROW_COUNT_ESTIMATES);
+
+        assertThat(root).isEqualTo(query(PlanNode.of(PlanNode.Operation.SORT, List.of(
+                PlanNode.access(PlanNode.Operation.INDEX_LOOKUP, "ORDERS", "IDX_ORDERS_CUSTOMER", 2000)))));
+    }
+
+    @Test
+    void shouldParseAnInnerJoinAsANestedLoopInPrintedOrder() {
+        PlanNode root = H2Explainer.parse("""
+                SELECT
+                    "O"."ID",
+                    "C"."NAME"
+                FROM "PUBLIC"."CUSTOMER" "C"
+                    /* PUBLIC.CUSTOMER.tableScan */
+                    /* WHERE C.NAME = 'x'
+                    */
+                INNER JOIN "PUBLIC"."ORDERS" "O"
+                    /* PUBLIC.IDX_ORDERS_CUSTOMER: CUSTOMER_ID = C.ID */
+                    ON 1=1
+                WHERE ("C"."NAME" = 'x')
+                    AND ("C"."ID" = "O"."CUSTOMER_ID")""", ROW_COUNT_ESTIMATES);
+
+        assertThat(root).isEqualTo(query(PlanNode.of(PlanNode.Operation.NESTED_LOOP, List.of(
+                PlanNode.access(PlanNode.Operation.FULL_SCAN, "CUSTOMER", null, 500),
+                PlanNode.access(PlanNode.Operation.INDEX_LOOKUP, "ORDERS", "IDX_ORDERS_CUSTOMER", PlanNode.UNKNOWN_ROWS)))));
+    }
+
+    @Test
+    void shouldParseALeftOuterJoin() {
+        PlanNode root = H2Explainer.parse("""
+                SELECT
+                    "C"."ID",
+                    "O"."ID"
+                FROM "PUBLIC"."CUSTOMER" "C"
+                    /* PUBLIC.CUSTOMER.tableScan */
+                LEFT OUTER JOIN "PUBLIC"."ORDERS" "O"
+                    /* PUBLIC.ORDERS.tableScan */
+                    ON "O"."CUSTOMER_ID" = "C"."ID\"""", ROW_COUNT_ESTIMATES);
+
+        assertThat(root).isEqualTo(query(PlanNode.of(PlanNode.Operation.NESTED_LOOP, List.of(
+                PlanNode.access(PlanNode.Operation.FULL_SCAN, "CUSTOMER", null, 500),
+                PlanNode.access(PlanNode.Operation.FULL_SCAN, "ORDERS", null, 2000)))));
+    }
+
+    @Test
+    void shouldGroupInATemporaryTableUnlessTheGroupIsSorted() {
+        PlanNode root = H2Explainer.parse("""
+                SELECT
+                    "NAME",
+                    COUNT(*)
+                FROM "PUBLIC"."CUSTOMER"
+                    /* PUBLIC.CUSTOMER.tableScan */
+                GROUP BY "NAME"
+                ORDER BY 1""", ROW_COUNT_ESTIMATES);
+
+        assertThat(root).isEqualTo(query(PlanNode.of(PlanNode.Operation.SORT, List.of(
+                PlanNode.of(PlanNode.Operation.TEMPORARY, List.of(
+                        PlanNode.access(PlanNode.Operation.FULL_SCAN, "CUSTOMER", null, 500)))))));
+    }
+
+    private static PlanNode query(PlanNode child) {
+        return PlanNode.of(PlanNode.Operation.QUERY, List.of(child));
+    }
+}
@@ -0,0 +1,21 @@
+package com.additionaltools.sqlexplainplan;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+
+@Entity
+public class Invoice {
+
+    @Id
+    private Long id;
+
+    private String status;
+
+    protected Invoice() {
+    }
+
+    public Invoice(Long id, String status) {
+        this.id = id;
+        this.status = status;
+    }
+}
@@ -0,0 +1,10 @@
+package com.additionaltools.sqlexplainplan;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
+
+    List<Invoice> findByStatus(String status);
+}
@@ -0,0 +1,157 @@
+package com.additionaltools.sqlexplainplan;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JdbcCaptureProxiesTest {
+
+    private final List<Captured> captured = new CopyOnWriteArrayList<>();
+    private Connection target;
+    private Connection connection;
+
+    @BeforeEach
+    void openConnection() throws SQLException {
+        target = DriverManager.getConnection("jdbc:h2:mem:capture");
+        try (Statement statement = target.createStatement()) {
+            statement.execute("CREATE TABLE CUSTOMER (ID BIGINT AUTO_INCREMENT PRIMARY KEY, NAME VARCHAR(50))");
+        }
+        connection = JdbcCaptureProxies.connection(target,
+                (sqlDefinition, elapsedNanos, rowCount) -> captured.add(new Captured(sqlDefinition, elapsedNanos, rowCount)));
+    }
+
+    @AfterEach
+    void closeConnection() throws SQLException {
+        try (Statement statement = target.createStatement()) {
+            statement.execute("DROP TABLE CUSTOMER");
+        }
+        target.close();
+    }
+
+    @Test
+    void shouldReportAnUpdateRightAfterExecutingWithItsArguments() throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("INSERT INTO CUSTOMER (NAME) VALUES (?)")) {
+            statement.setString(1, "Alice");
+            statement.executeUpdate();
+
+            assertThat(captured).singleElement().satisfies(query -> {
+                assertThat(query.sqlDefinition().getSqlWithArguments()).isEqualTo("INSERT INTO CUSTOMER (NAME) VALUES ('Alice')");
+                assertThat(query.elapsedNanos()).isNotNegative();
+                assertThat(query.rowCount()).isOne();
+            });
+        }
+    }
+
+    @Test
+    void shouldReportAQueryWhenItsResultSetIsClosedWithTheRowsRead() throws SQLException {
+        insert("Alice", "Bob", "Carol");
+        try (PreparedStatement statement = connection.prepareStatement("SELECT NAME FROM CUSTOMER WHERE ID > ?")) {
+            statement.setLong(1, 0);
+            ResultSet resultSet = statement.executeQuery();
+            resultSet.next();
+            resultSet.next();
+
+            assertThat(captured).isEmpty();
+            resultSet.close();
+        }
+
+        assertThat(captured).singleElement().satisfies(query -> {
+            assertThat(query.sqlDefinition().getSqlWithArguments()).isEqualTo("SELECT NAME FROM CUSTOMER WHERE ID > 0");
+            assertThat(query.rowCount()).isEqualTo(2);
+        });
+    }
+
+    @Test
+    void shouldReportAQueryReadThroughGetResultSetWhenTheStatementIsClosed() throws SQLException {
+        insert("Alice", "Bob");
+        try (Statement statement = connection.createStatement()) {
+            assertThat(statement.execute("SELECT NAME FROM CUSTOMER")).isTrue();
+            ResultSet resultSet = statement.getResultSet();
+            while (resultSet.next()) {
+                assertThat(resultSet.getString(1)).isNotEmpty();
+            }
+        }
+
+        assertThat(captured).singleElement().satisfies(query -> {
+            assertThat(query.sqlDefinition().sql()).isEqualTo("SELECT NAME FROM CUSTOMER");
+            assertThat(query.rowCount()).isEqualTo(2);
+        });
+    }
+
+    @Test
+    void shouldReportABatchOnceWithItsFirstArgumentsAndTheTotalUpdateCount() throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("INSERT INTO CUSTOMER (NAME) VALUES (?)")) {
+            for (String name : List.of("Alice", "Bob", "Carol")) {
+                statement.setString(1, name);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+
+        assertThat(captured).singleElement().satisfies(batch -> {
+            assertThat(batch.sqlDefinition().arguments()).containsExactly("Alice");
+            assertThat(batch.rowCount()).isEqualTo(3);
+        });
+    }
+
+    @Test
+    void shouldReturnTheProxiesFromTheJdbcObjects() throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("INSERT INTO CUSTOMER (NAME) VALUES (?)",
+                Statement.RETURN_GENERATED_KEYS)) {
+            statement.setString(1, "Alice");
+            statement.executeUpdate();
+
+            assertThat(statement.getConnection()).isSameAs(connection);
+            try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+                assertThat(generatedKeys.getStatement()).isSameAs(statement);
+            }
+        }
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT NAME FROM CUSTOMER")) {
+            assertThat(resultSet.getStatement()).isSameAs(statement);
+            assertThat(statement.getConnection()).isSameAs(connection);
+        }
+    }
+
+    @Test
+    void shouldCaptureStatementsCreatedThroughTheConnectionOfAStatement() throws SQLException {
+        try (Statement statement = connection.createStatement();
+             PreparedStatement update = statement.getConnection().prepareStatement("DELETE FROM CUSTOMER")) {
+            update.executeUpdate();
+        }
+
+        assertThat(captured).extracting(query -> query.sqlDefinition().sql()).containsExactly("DELETE FROM CUSTOMER");
+    }
+
+    @Test
+    void shouldCompareTheProxiesByIdentity() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            assertThat(statement).isEqualTo(statement).isNotEqualTo(connection.createStatement());
+            assertThat(statement.hashCode()).isEqualTo(System.identityHashCode(statement));
+        }
+        assertThat(connection).isEqualTo(connection).isNotEqualTo(target);
+    }
+
+    private void insert(String... names) throws SQLException {
+        try (PreparedStatement statement = target.prepareStatement("INSERT INTO CUSTOMER (NAME) VALUES (?)")) {
+            for (String name : names) {
+                statement.setString(1, name);
+                statement.executeUpdate();
+            }
+        }
+    }
+
+    private record Captured(SqlDefinition sqlDefinition, long elapsedNanos, long rowCount) {
+    }
+}
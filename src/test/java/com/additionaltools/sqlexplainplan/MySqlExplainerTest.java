@@ -0,0 +1,79 @@
+package com.additionaltools.sqlexplainplan;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MySqlExplainerTest {
+
+    @Test
+    void shouldParseATableReadInFull() {
+        PlanNode root = MySqlExplainer.parse(List.of(row(1, "orders", "ALL", null, 50000L, "Using where")));
+
+        assertThat(root).isEqualTo(query(PlanNode.access(PlanNode.Operation.FULL_SCAN, "orders", null, 50000)));
+    }
+
+    @Test
+    void shouldJoinTheTablesOfABlockByANestedLoopInRowOrder() {
+        PlanNode root = MySqlExplainer.parse(List.of(
+                row(1, "c", "ALL", null, 500L, null),
+                row(1, "o", "ref", "idx_orders_customer", 4L, null)));
+
+        assertThat(root).isEqualTo(query(PlanNode.of(PlanNode.Operation.NESTED_LOOP, List.of(
+                PlanNode.access(PlanNode.Operation.FULL_SCAN, "c", null, 500),
+                PlanNode.access(PlanNode.Operation.INDEX_LOOKUP, "o", "idx_orders_customer", 4)))));
+    }
+
+    @Test
+    void shouldJoinByAHashJoinWithAJoinBuffer() {
+        PlanNode root = MySqlExplainer.parse(List.of(
+                row(1, "c", "index", "idx_name", 500L, "Using index"),
+                row(1, "o", "ALL", null, 2000L, "Using where; Using join buffer (hash join)")));
+
+        assertThat(root).isEqualTo(query(PlanNode.of(PlanNode.Operation.JOIN, List.of(
+                PlanNode.access(PlanNode.Operation.INDEX_SCAN, "c", "idx_name", 500),
+                PlanNode.access(PlanNode.Operation.FULL_SCAN, "o", null, 2000)))));
+    }
+
+    @Test
+    void shouldWrapTheBlockInTemporaryAndSortNodes() {
+        PlanNode root = MySqlExplainer.parse(List.of(
+                row(1, "orders", "ALL", null, 2000L, "Using temporary; Using filesort")));
+
+        assertThat(root).isEqualTo(query(PlanNode.of(PlanNode.Operation.SORT, List.of(
+                PlanNode.of(PlanNode.Operation.TEMPORARY, List.of(
+                        PlanNode.access(PlanNode.Operation.FULL_SCAN, "orders", null, 2000)))))));
+    }
+
+    @Test
+    void shouldKeepEveryQueryBlockAndSkipBlocksWithoutTables() {
+        PlanNode root = MySqlExplainer.parse(List.of(
+                row(1, "<derived2>", "ALL", null, 10L, null),
+                row(2, "orders", "range", "PRIMARY", 10L, "Using where"),
+                row(3, null, null, null, null, "No tables used")));
+
+        assertThat(root).isEqualTo(PlanNode.of(PlanNode.Operation.QUERY, List.of(
+                PlanNode.access(PlanNode.Operation.OTHER, "<derived2>", null, 10),
+                PlanNode.access(PlanNode.Operation.INDEX_LOOKUP, "orders", "PRIMARY", 10))));
+    }
+
+    private static Map<String, Object> row(long id, String table, String type, String key, Long rows, String extra) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", id);
+        row.put("select_type", "SIMPLE");
+        row.put("table", table);
+        row.put("type", type);
+        row.put("key", key);
+        row.put("rows", rows);
+        row.put("Extra", extra);
+        return row;
+    }
+
+    private static PlanNode query(PlanNode child) {
+        return PlanNode.of(PlanNode.Operation.QUERY, List.of(child));
+    }
+}
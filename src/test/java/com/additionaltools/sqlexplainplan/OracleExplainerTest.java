@@ -0,0 +1,62 @@
+package com.additionaltools.sqlexplainplan;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OracleExplainerTest {
+
+    @Test
+    void shouldBuildTheTreeFromTheIndentationOfTheOperations() {
+        PlanNode root = OracleExplainer.parse("""
+                Plan hash value: 3625962092
+
+                ------------------------------------------------------------------------------------------------
+                | Id  | Operation                    | Name                | Rows  | Bytes | Cost (%CPU)| Time     |
+                ------------------------------------------------------------------------------------------------
+                |   0 | SELECT STATEMENT             |                     |   100K|  4882K|   142   (2)| 00:00:01 |
+                |   1 |  NESTED LOOPS                |                     |   100K|  4882K|   142   (2)| 00:00:01 |
+                |   2 |   TABLE ACCESS FULL          | ORDERS              |   100K|  2441K|   140   (1)| 00:00:01 |
+                |   3 |   TABLE ACCESS BY INDEX ROWID| CUSTOMERS           |     1 |    25 |     1   (0)| 00:00:01 |
+                |*  4 |    INDEX UNIQUE SCAN         | PK_CUSTOMERS        |     1 |       |     0   (0)| 00:00:01 |
+                ------------------------------------------------------------------------------------------------
+
+                Predicate Information (identified by operation id):
+                ---------------------------------------------------
+
+                   4 - access("C"."ID"="O"."CUSTOMER_ID")""".lines().toList());
+
+        assertThat(root).isEqualTo(new PlanNode(PlanNode.Operation.QUERY, null, null, 100_000, List.of(
+                new PlanNode(PlanNode.Operation.NESTED_LOOP, null, null, 100_000, List.of(
+                        PlanNode.access(PlanNode.Operation.FULL_SCAN, "ORDERS", null, 100_000),
+                        new PlanNode(PlanNode.Operation.OTHER, "CUSTOMERS", null, 1, List.of(
+                                PlanNode.access(PlanNode.Operation.INDEX_LOOKUP, null, "PK_CUSTOMERS", 1))))))));
+    }
+
+    @Test
+    void shouldParseSortsHashGroupsAndIndexFullScans() {
+        PlanNode root = OracleExplainer.parse("""
+                --------------------------------------------------------------------------
+                | Id  | Operation               | Name       | Rows  | Bytes | Cost (%CPU)|
+                --------------------------------------------------------------------------
+                |   0 | SELECT STATEMENT        |            |  2000 | 52000 |    12  (17)|
+                |   1 |  SORT ORDER BY          |            |  2000 | 52000 |    12  (17)|
+                |   2 |   HASH GROUP BY         |            |  2000 | 52000 |    12  (17)|
+                |   3 |    INDEX FAST FULL SCAN | IDX_STATUS |  3M   |   76M |    10   (0)|
+                --------------------------------------------------------------------------""".lines().toList());
+
+        assertThat(root).isEqualTo(new PlanNode(PlanNode.Operation.QUERY, null, null, 2000, List.of(
+                new PlanNode(PlanNode.Operation.SORT, null, null, 2000, List.of(
+                        new PlanNode(PlanNode.Operation.TEMPORARY, null, null, 2000, List.of(
+                                PlanNode.access(PlanNode.Operation.INDEX_SCAN, null, "IDX_STATUS", 3_000_000))))))));
+    }
+
+    @Test
+    void shouldReturnAnEmptyQueryWithoutAPlanTable() {
+        PlanNode root = OracleExplainer.parse(List.of("Error: cannot fetch plan for statement_id 'hiperanalyzer-1'"));
+
+        assertThat(root).isEqualTo(PlanNode.of(PlanNode.Operation.QUERY, List.of()));
+    }
+}
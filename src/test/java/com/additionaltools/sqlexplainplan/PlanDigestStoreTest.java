@@ -0,0 +1,121 @@
+package com.additionaltools.sqlexplainplan;
+
+import com.additionaltools.common.SqlNormalizer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PlanDigestStoreTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+    private static final String INDEX_LOOKUP = "QUERY(INDEX_LOOKUP ORDERS index=IDX_STATUS)";
+    private static final String FULL_SCAN = "QUERY(FULL_SCAN ORDERS)";
+
+    @TempDir
+    private Path directory;
+    private final List<PlanDigestStore> stores = new ArrayList<>();
+
+    @AfterEach
+    void closeStores() {
+        stores.forEach(PlanDigestStore::close);
+    }
+
+    @Test
+    void shouldReturnThePreviousDigestOnlyWhenThePlanChanged() {
+        PlanDigestStore store = open(directory.resolve("plans.tsv"));
+
+        assertThat(store.record(1, INDEX_LOOKUP)).isNull();
+        assertThat(store.record(1, INDEX_LOOKUP)).isNull();
+        assertThat(store.record(1, FULL_SCAN))
+                .isEqualTo(new PlanDigestStore.PlanDigest(SqlNormalizer.hashText(INDEX_LOOKUP), NOW, INDEX_LOOKUP));
+    }
+
+    @Test
+    void shouldRememberThePlansAcrossRestarts() {
+        Path file = directory.resolve("plans.tsv");
+        PlanDigestStore store = open(file);
+        store.record(1, INDEX_LOOKUP);
+        store.close();
+
+        PlanDigestStore reopened = open(file);
+
+        assertThat(reopened.record(1, INDEX_LOOKUP)).isNull();
+        assertThat(reopened.record(1, FULL_SCAN).shape()).isEqualTo(INDEX_LOOKUP);
+    }
+
+    @Test
+    void shouldCompactTheFileWhenTheSupersededLinesOutnumberTheCurrentOnes() throws IOException {
+        Path file = directory.resolve("plans.tsv");
+        PlanDigestStore store = open(file);
+        store.record(2, FULL_SCAN);
+
+        for (int i = 0; i < 1002; i++) {
+            store.record(1, i % 2 == 0 ? INDEX_LOOKUP : FULL_SCAN);
+        }
+
+        assertThat(Files.readAllLines(file)).hasSize(2);
+        assertThat(store.record(1, FULL_SCAN)).isNull();
+        assertThat(store.record(2, FULL_SCAN)).isNull();
+    }
+
+    @Test
+    void shouldCompactAFileWithManySupersededLinesWhenOpened() throws IOException {
+        Path file = directory.resolve("plans.tsv");
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < 1002; i++) {
+            lines.append(line(1, i % 2 == 0 ? INDEX_LOOKUP : FULL_SCAN));
+        }
+        Files.writeString(file, lines);
+
+        PlanDigestStore store = open(file);
+
+        assertThat(Files.readAllLines(file)).containsExactly(line(1, FULL_SCAN).strip());
+        assertThat(store.record(1, FULL_SCAN)).isNull();
+    }
+
+    @Test
+    void shouldSkipCorruptLinesAndAppendAfterALineCutOffByACrash() throws IOException {
+        Path file = directory.resolve("plans.tsv");
+        String cutOff = line(3, FULL_SCAN);
+        Files.writeString(file, line(1, INDEX_LOOKUP)
+                + "not a digest\n"
+                + "zz\t01\t1767225600000\t" + FULL_SCAN + "\n"
+                + line(2, INDEX_LOOKUP).replace("IDX_STATUS", "IDX_OTHER")
+                + cutOff.substring(0, cutOff.length() - 5), StandardCharsets.UTF_8);
+
+        PlanDigestStore store = open(file);
+
+        assertThat(store.record(1, INDEX_LOOKUP)).isNull();
+        assertThat(store.record(2, INDEX_LOOKUP)).isNull();
+        assertThat(store.record(3, FULL_SCAN)).isNull();
+        store.close();
+
+        PlanDigestStore reopened = open(file);
+        assertThat(reopened.record(2, INDEX_LOOKUP)).isNull();
+        assertThat(reopened.record(3, FULL_SCAN)).isNull();
+        assertThat(Files.readAllLines(file)).endsWith(line(2, INDEX_LOOKUP).strip(), line(3, FULL_SCAN).strip());
+    }
+
+    private PlanDigestStore open(Path file) {
+        PlanDigestStore store = new PlanDigestStore(file, Clock.fixed(NOW, ZoneOffset.UTC));
+        store.open();
+        stores.add(store);
+        return store;
+    }
+
+    private static String line(long fingerprint, String shape) {
+        return "%016x\t%016x\t%d\t%s\n".formatted(fingerprint, SqlNormalizer.hashText(shape), NOW.toEpochMilli(), shape);
+    }
+}
@@ -0,0 +1,160 @@
+package com.additionaltools.sqlexplainplan;
+
+import com.additionaltools.common.SqlNormalizer;
+import com.additionaltools.sqlexplainplan.PlanFinding.Severity;
+import com.additionaltools.sqlexplainplan.PlanFinding.Type;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.groups.Tuple.tuple;
+
+class PlanRulesTest {
+
+    private final PlanRules planRules = new PlanRules(1000, 100_000);
+
+    @Test
+    void shouldRejectNonPositiveThresholds() {
+        assertThatThrownBy(() -> new PlanRules(0, 100_000)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new PlanRules(1000, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldNotReportAFullScanBelowTheThreshold() {
+        assertThat(evaluate(fullScan("ORDERS", 999))).isEmpty();
+    }
+
+    @Test
+    void shouldReportAFullScanAsMediumAndFromTenTimesTheThresholdAsHigh() {
+        assertThat(evaluate(fullScan("ORDERS", 1000)))
+                .extracting(PlanFinding::type, PlanFinding::severity, PlanFinding::target, PlanFinding::detail)
+                .containsExactly(tuple(Type.FULL_TABLE_SCAN, Severity.MEDIUM, "ORDERS", "Estimated rows: 1000"));
+        assertThat(evaluate(fullScan("ORDERS", 10_000)))
+                .extracting(PlanFinding::type, PlanFinding::severity)
+                .containsExactly(tuple(Type.FULL_TABLE_SCAN, Severity.HIGH));
+    }
+
+    @Test
+    void shouldReportAnIndexReadInFullAsAFullTableScan() {
+        PlanNode indexScan = PlanNode.access(PlanNode.Operation.INDEX_SCAN, "ORDERS", "IDX_STATUS", 1000);
+        PlanNode largeIndexScan = PlanNode.access(PlanNode.Operation.INDEX_SCAN, "ORDERS", "IDX_STATUS", 10_000);
+
+        assertThat(evaluate(indexScan))
+                .extracting(PlanFinding::type, PlanFinding::severity, PlanFinding::detail)
+                .containsExactly(tuple(Type.FULL_TABLE_SCAN, Severity.MEDIUM,
+                        "Estimated rows: 1000; Read in full through index IDX_STATUS"));
+        assertThat(evaluate(largeIndexScan))
+                .extracting(PlanFinding::severity)
+                .containsExactly(Severity.HIGH);
+    }
+
+    @Test
+    void shouldReportAnInnerFullScanAsNoIndexUsedWhenItsExecutionsReachTheThreshold() {
+        PlanNode loop = PlanNode.of(PlanNode.Operation.NESTED_LOOP, List.of(
+                PlanNode.access(PlanNode.Operation.INDEX_LOOKUP, "CUSTOMERS", "IDX_NAME", 100),
+                fullScan("ORDERS", 20)));
+
+        assertThat(evaluate(loop))
+                .extracting(PlanFinding::type, PlanFinding::severity, PlanFinding::target, PlanFinding::detail)
+                .containsExactly(tuple(Type.NO_INDEX_USED, Severity.HIGH, "ORDERS",
+                        "Executions: 100; Estimated rows per execution: 20"));
+    }
+
+    @Test
+    void shouldNotReportAnInnerFullScanExecutedBelowTheThreshold() {
+        PlanNode loop = PlanNode.of(PlanNode.Operation.NESTED_LOOP, List.of(
+                PlanNode.access(PlanNode.Operation.INDEX_LOOKUP, "CUSTOMERS", "IDX_NAME", 10),
+                fullScan("ORDERS", 20)));
+
+        assertThat(evaluate(loop)).isEmpty();
+    }
+
+    @Test
+    void shouldReportASortAsLowAndFromTenTimesTheThresholdAsMedium() {
+        assertThat(evaluate(PlanNode.of(PlanNode.Operation.SORT, List.of(indexLookup("ORDERS", 1000)))))
+                .extracting(PlanFinding::type, PlanFinding::severity, PlanFinding::target)
+                .containsExactly(tuple(Type.FILESORT, Severity.LOW, "ORDERS"));
+        assertThat(evaluate(PlanNode.of(PlanNode.Operation.SORT, List.of(indexLookup("ORDERS", 10_000)))))
+                .extracting(PlanFinding::type, PlanFinding::severity)
+                .containsExactly(tuple(Type.FILESORT, Severity.MEDIUM));
+    }
+
+    @Test
+    void shouldReportATemporaryTableAsLowAndFromTenTimesTheThresholdAsMedium() {
+        assertThat(evaluate(PlanNode.of(PlanNode.Operation.TEMPORARY, List.of(indexLookup("ORDERS", 1000)))))
+                .extracting(PlanFinding::type, PlanFinding::severity)
+                .containsExactly(tuple(Type.TEMPORARY_TABLE, Severity.LOW));
+        assertThat(evaluate(PlanNode.of(PlanNode.Operation.TEMPORARY, List.of(indexLookup("ORDERS", 10_000)))))
+                .extracting(PlanFinding::type, PlanFinding::severity)
+                .containsExactly(tuple(Type.TEMPORARY_TABLE, Severity.MEDIUM));
+    }
+
+    @Test
+    void shouldReportANestedLoopBlowupOnceForTheOutermostLoop() {
+        PlanNode innerLoop = PlanNode.of(PlanNode.Operation.NESTED_LOOP, List.of(
+                indexLookup("ORDERS", 500), indexLookup("ORDER_LINES", 400)));
+        PlanNode outerLoop = PlanNode.of(PlanNode.Operation.NESTED_LOOP, List.of(
+                indexLookup("CUSTOMERS", 2), innerLoop));
+
+        assertThat(evaluate(outerLoop))
+                .extracting(PlanFinding::type, PlanFinding::severity, PlanFinding::target, PlanFinding::detail)
+                .containsExactly(tuple(Type.NESTED_LOOP_BLOWUP, Severity.HIGH, "CUSTOMERS x ORDERS x ORDER_LINES",
+                        "Estimated row combinations: 400000"));
+    }
+
+    @Test
+    void shouldCountRowsMissingFromThePlanAsOne() {
+        PlanNode loop = PlanNode.of(PlanNode.Operation.NESTED_LOOP, List.of(
+                indexLookup("CUSTOMERS", PlanNode.UNKNOWN_ROWS), fullScan("ORDERS", 999)));
+
+        assertThat(evaluate(loop)).isEmpty();
+    }
+
+    @Test
+    void shouldReportANewFullScanAsAHighPlanRegression() {
+        PlanFinding finding = planRules.evaluateChange(digest("QUERY(INDEX_LOOKUP ORDERS index=IDX_STATUS)"),
+                "QUERY(FULL_SCAN ORDERS)");
+
+        assertThat(finding.type()).isEqualTo(Type.PLAN_REGRESSION);
+        assertThat(finding.severity()).isEqualTo(Severity.HIGH);
+        assertThat(finding.target()).isEqualTo("ORDERS");
+        assertThat(finding.detail()).isEqualTo("Previous plan (recorded at 2026-01-01T00:00:00Z): "
+                + "QUERY(INDEX_LOOKUP ORDERS index=IDX_STATUS); Current plan: QUERY(FULL_SCAN ORDERS)");
+    }
+
+    @Test
+    void shouldReportAChangeReadingTheSameTablesInFullAsALowPlanChange() {
+        PlanFinding finding = planRules.evaluateChange(
+                digest("QUERY(NESTED_LOOP(FULL_SCAN CUSTOMERS, INDEX_LOOKUP ORDERS index=IDX_CUSTOMER))"),
+                "QUERY(JOIN(FULL_SCAN CUSTOMERS, INDEX_SCAN ORDERS index=IDX_CUSTOMER))");
+
+        assertThat(finding.type()).isEqualTo(Type.PLAN_CHANGE);
+        assertThat(finding.severity()).isEqualTo(Severity.LOW);
+        assertThat(finding.target()).isEqualTo("plan");
+    }
+
+    @Test
+    void shouldNotReportAPlanThatOnlyStoppedReadingTablesInFull() {
+        assertThat(planRules.evaluateChange(digest("QUERY(FULL_SCAN ORDERS)"),
+                "QUERY(INDEX_LOOKUP ORDERS index=IDX_STATUS)")).isNull();
+    }
+
+    private static PlanDigestStore.PlanDigest digest(String shape) {
+        return new PlanDigestStore.PlanDigest(SqlNormalizer.hashText(shape), Instant.parse("2026-01-01T00:00:00Z"), shape);
+    }
+
+    private List<PlanFinding> evaluate(PlanNode node) {
+        return planRules.evaluate(new ExecutionPlan(PlanNode.of(PlanNode.Operation.QUERY, List.of(node)), ""));
+    }
+
+    private static PlanNode fullScan(String table, long rows) {
+        return PlanNode.access(PlanNode.Operation.FULL_SCAN, table, null, rows);
+    }
+
+    private static PlanNode indexLookup(String table, long rows) {
+        return PlanNode.access(PlanNode.Operation.INDEX_LOOKUP, table, "IDX_" + table, rows);
+    }
+}
@@ -0,0 +1,105 @@
+package com.additionaltools.sqlexplainplan;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StatementCapturingDataSourcePostProcessorTest {
+
+    private final List<String> captured = new CopyOnWriteArrayList<>();
+    private final StatementCapturingDataSourcePostProcessor postProcessor = new StatementCapturingDataSourcePostProcessor(
+            (sqlDefinition, elapsedNanos, rowCount) -> captured.add(sqlDefinition.getSqlWithArguments()));
+
+    @Test
+    void shouldProxyASubclassableDataSourceByClass() throws SQLException {
+        Object dataSource = postProcessor.postProcessAfterInitialization(new DelegatingDataSource(h2DataSource()),
+                "dataSource");
+
+        assertThat(dataSource).isInstanceOf(DelegatingDataSource.class);
+        assertCaptures((DataSource) dataSource);
+    }
+
+    @Test
+    void shouldProxyAFinalDataSourceByInterface() throws SQLException {
+        Object dataSource = postProcessor.postProcessAfterInitialization(h2DataSource(), "dataSource");
+
+        assertThat(dataSource).isNotInstanceOf(JdbcDataSource.class).isInstanceOf(DataSource.class);
+        assertCaptures((DataSource) dataSource);
+    }
+
+    @Test
+    void shouldProxyADataSourceWithAFinalGetConnectionByInterface() throws SQLException {
+        Object dataSource = postProcessor.postProcessAfterInitialization(new FinalGetConnectionDataSource(h2DataSource()),
+                "dataSource");
+
+        assertThat(dataSource).isNotInstanceOf(FinalGetConnectionDataSource.class).isInstanceOf(DataSource.class);
+        assertCaptures((DataSource) dataSource);
+    }
+
+    @Test
+    void shouldNotProxyACapturingDataSourceAgain() throws SQLException {
+        Object dataSource = postProcessor.postProcessAfterInitialization(h2DataSource(), "dataSource");
+
+        Object processedAgain = postProcessor.postProcessAfterInitialization(dataSource, "dataSource");
+
+        assertThat(processedAgain).isSameAs(dataSource);
+        assertCaptures((DataSource) processedAgain);
+    }
+
+    @Test
+    void shouldNotProxyOtherBeans() {
+        Object bean = new Object();
+
+        assertThat(postProcessor.postProcessAfterInitialization(bean, "bean")).isSameAs(bean);
+    }
+
+    @Test
+    void shouldProxyByClassOnlyWhenGetConnectionCanBeOverridden() {
+        assertThat(StatementCapturingDataSourcePostProcessor.canProxyTargetClass(DelegatingDataSource.class)).isTrue();
+        assertThat(StatementCapturingDataSourcePostProcessor.canProxyTargetClass(JdbcDataSource.class)).isFalse();
+        assertThat(StatementCapturingDataSourcePostProcessor.canProxyTargetClass(FinalGetConnectionDataSource.class)).isFalse();
+        assertThat(StatementCapturingDataSourcePostProcessor.canProxyTargetClass(PrivateConstructorDataSource.class)).isFalse();
+    }
+
+    private void assertCaptures(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("SELECT 1");
+        }
+
+        assertThat(captured).containsExactly("SELECT 1");
+    }
+
+    private static JdbcDataSource h2DataSource() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:post-processor");
+        return dataSource;
+    }
+
+    static class FinalGetConnectionDataSource extends DelegatingDataSource {
+
+        FinalGetConnectionDataSource(DataSource targetDataSource) {
+            super(targetDataSource);
+        }
+
+        @Override
+        public final Connection getConnection() throws SQLException {
+            return super.getConnection();
+        }
+    }
+
+    static class PrivateConstructorDataSource extends DelegatingDataSource {
+
+        private PrivateConstructorDataSource(DataSource targetDataSource) {
+            super(targetDataSource);
+        }
+    }
+}